@@ -26,7 +26,7 @@ import { MOODS } from '@/lib/utils';
 interface JournalEntry {
   id: string;
   title?: string;
-  content: string;
+  excerpt?: string;
   mood: string;
   summary?: string;
   createdAt: string;
@@ -32,6 +32,22 @@ interface SaveJournalResponse {
   createdAt: string;
 }
 
+interface JournalListItem {
+  id: string;
+  title?: string;
+  excerpt?: string;
+  mood: string;
+  summary?: string;
+  createdAt: string;
+  word_count?: number;
+}
+
+interface JournalPage {
+  items: JournalListItem[];
+  next_cursor?: string;
+  has_more: boolean;
+}
+
 interface PDFExtractResponse {
   text: string;
 }
@@ -108,26 +124,37 @@ export function useGetUserJournals(selectedMonth?: string) {
     queryKey: [...QUERY_KEYS.userJournals, selectedMonth],
     queryFn: async () => {
       const token = await getToken();
+      const journals: JournalListItem[] = [];
+      let cursor: string | undefined;
+
+      // Follow the keyset cursor until the month (or full history) is exhausted
+      do {
+        const url = new URL(`${SERVER_URL}/api/get-user-journal`);
+        if (selectedMonth) {
+          url.searchParams.append('month', selectedMonth);
+        }
+        if (cursor) {
+          url.searchParams.append('cursor', cursor);
+        }
+
+        const response = await fetch(url.toString(), {
+          method: 'GET',
+          headers: {
+            Authorization: `Bearer ${token}`,
+          },
+        });
 
-      // Build URL with optional month parameter
-      const url = new URL(`${SERVER_URL}/api/get-user-journal`);
-      if (selectedMonth) {
-        url.searchParams.append('month', selectedMonth);
-      }
-
-      const response = await fetch(url.toString(), {
-        method: 'GET',
-        headers: {
-          Authorization: `Bearer ${token}`,
-        },
-      });
+        if (!response.ok) {
+          throw new Error('Failed to fetch journals');
+        }
 
-      if (!response.ok) {
-        throw new Error('Failed to fetch journals');
-      }
+        const result = await response.json();
+        const page: JournalPage = result.data || result;
+        journals.push(...page.items);
+        cursor = page.next_cursor;
+      } while (cursor);
 
-      const result = await response.json();
-      return result.data || result; // Handle both wrapped and unwrapped responses
+      return journals;
     },
     enabled: !!isSignedIn, // Only run query when user is signed in
     staleTime: QUERY_CONFIG.staleTime,
@@ -1,5 +1,8 @@
 package com.journai.server.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -10,6 +13,19 @@ public class AppProperties {
     private final Cors cors = new Cors();
     private final Clerk clerk = new Clerk();
     private final Gemini gemini = new Gemini();
+    private final StatsIndex statsIndex = new StatsIndex();
+    private final Similarity similarity = new Similarity();
+    private final Import importSettings = new Import();
+    private final Partitions partitions = new Partitions();
+    private final Replicas replicas = new Replicas();
+    private final WriteBuffer writeBuffer = new WriteBuffer();
+    private final Drafts drafts = new Drafts();
+    private final Webhooks webhooks = new Webhooks();
+    private final Purge purge = new Purge();
+    private final ClerkSync clerkSync = new ClerkSync();
+    private final SqlStatements sqlStatements = new SqlStatements();
+    private final Tracing tracing = new Tracing();
+    private final Profiling profiling = new Profiling();
 
     public Cors getCors() {
         return cors;
@@ -23,6 +39,58 @@ public class AppProperties {
         return gemini;
     }
 
+    public StatsIndex getStatsIndex() {
+        return statsIndex;
+    }
+
+    public Similarity getSimilarity() {
+        return similarity;
+    }
+
+    public Import getImport() {
+        return importSettings;
+    }
+
+    public Partitions getPartitions() {
+        return partitions;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    public WriteBuffer getWriteBuffer() {
+        return writeBuffer;
+    }
+
+    public Drafts getDrafts() {
+        return drafts;
+    }
+
+    public Webhooks getWebhooks() {
+        return webhooks;
+    }
+
+    public Purge getPurge() {
+        return purge;
+    }
+
+    public ClerkSync getClerkSync() {
+        return clerkSync;
+    }
+
+    public SqlStatements getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public Profiling getProfiling() {
+        return profiling;
+    }
+
     public static class Cors {
         private String allowedOrigins = "http://localhost:3000";
 
@@ -38,6 +106,7 @@ public class AppProperties {
     public static class Clerk {
         private String secretKey;
         private String webhookSecret;
+        private String apiUrl = "https://api.clerk.com/v1";
 
         public String getSecretKey() {
             return secretKey;
@@ -54,6 +123,14 @@ public class AppProperties {
         public void setWebhookSecret(String webhookSecret) {
             this.webhookSecret = webhookSecret;
         }
+
+        public String getApiUrl() {
+            return apiUrl;
+        }
+
+        public void setApiUrl(String apiUrl) {
+            this.apiUrl = apiUrl;
+        }
     }
 
     public static class Gemini {
@@ -76,4 +153,516 @@ public class AppProperties {
             this.model = model;
         }
     }
+
+    public static class StatsIndex {
+        private boolean enabled = true;
+        // Total journal rows kept in memory across all users (~12 bytes each)
+        private int maxEntries = 1_000_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Similarity {
+        private boolean enabled = true;
+        // Embeddings kept in memory across all users (512 bytes each at 128 dimensions)
+        private int maxVectors = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxVectors() {
+            return maxVectors;
+        }
+
+        public void setMaxVectors(int maxVectors) {
+            this.maxVectors = maxVectors;
+        }
+    }
+
+    public static class Import {
+        // Rows per transaction; a failed batch is reported and skipped as a unit
+        private int batchSize = 1000;
+        // Once an import has read this many rows, remaining batches use COPY
+        private int copyThreshold = 5000;
+        private int maxEntries = 100_000;
+        // Monthly journal partitions one import may create for historic entries
+        private int maxNewPartitions = 120;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getCopyThreshold() {
+            return copyThreshold;
+        }
+
+        public void setCopyThreshold(int copyThreshold) {
+            this.copyThreshold = copyThreshold;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getMaxNewPartitions() {
+            return maxNewPartitions;
+        }
+
+        public void setMaxNewPartitions(int maxNewPartitions) {
+            this.maxNewPartitions = maxNewPartitions;
+        }
+    }
+
+    public static class Partitions {
+        // Future monthly journal partitions kept created ahead of time
+        private int monthsAhead = 3;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+    }
+
+    public static class Replicas {
+        // JDBC URLs of read replicas; read-only transactions are spread across them
+        private List<String> urls = new ArrayList<>();
+        // Defaults to the primary's credentials when empty
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+        // After a user's write commits, their reads stay on the primary this long;
+        // at least maxLagSeconds, or a lagging replica could still miss the write
+        private int stickySeconds = 10;
+        // Replicas further behind than this stop receiving reads until they catch up
+        private int maxLagSeconds = 10;
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getStickySeconds() {
+            return stickySeconds;
+        }
+
+        public void setStickySeconds(int stickySeconds) {
+            this.stickySeconds = stickySeconds;
+        }
+
+        public int getMaxLagSeconds() {
+            return maxLagSeconds;
+        }
+
+        public void setMaxLagSeconds(int maxLagSeconds) {
+            this.maxLagSeconds = maxLagSeconds;
+        }
+    }
+
+    public static class WriteBuffer {
+        private boolean enabled = false;
+        private int maxBatchSize = 200;
+        // How long the flusher waits for more saves once the first one arrives
+        private int maxDelayMillis = 2;
+        // Saves beyond this many waiting are written directly by the request
+        private int queueCapacity = 5000;
+        // A save not picked up by the flusher within this long is written directly by the request
+        private long waitMillis = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxDelayMillis() {
+            return maxDelayMillis;
+        }
+
+        public void setMaxDelayMillis(int maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        public void setWaitMillis(long waitMillis) {
+            this.waitMillis = waitMillis;
+        }
+    }
+
+    public static class Drafts {
+        // Drafts with edits not yet written back are flushed this often
+        private long flushInterval = 5000;
+        // Written-back drafts nobody has touched for this long are dropped from memory
+        private int idleSeconds = 600;
+        // While this many are open, opening another is refused until the next flush makes room
+        private int maxDrafts = 10_000;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getIdleSeconds() {
+            return idleSeconds;
+        }
+
+        public void setIdleSeconds(int idleSeconds) {
+            this.idleSeconds = idleSeconds;
+        }
+
+        public int getMaxDrafts() {
+            return maxDrafts;
+        }
+
+        public void setMaxDrafts(int maxDrafts) {
+            this.maxDrafts = maxDrafts;
+        }
+    }
+
+    public static class Webhooks {
+        // Pending inbox events are picked up this often
+        private long pollInterval = 1000;
+        private int batchSize = 50;
+        // Failed events are retried with exponential backoff, then left for inspection
+        private int maxAttempts = 12;
+        // A claimed event is picked up again after this long if its worker never finished it
+        private int leaseSeconds = 60;
+        // Applied events are kept this long so redeliveries are still recognized
+        private int retentionDays = 7;
+
+        public long getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public int getLeaseSeconds() {
+            return leaseSeconds;
+        }
+
+        public void setLeaseSeconds(int leaseSeconds) {
+            this.leaseSeconds = leaseSeconds;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+    }
+
+    public static class Purge {
+        // Pending purges are picked up this often
+        private long pollInterval = 10_000;
+        // Journals deleted per transaction
+        private int batchSize = 1000;
+        // Pause between batches, so a large purge never monopolises the primary
+        private long batchPauseMillis = 200;
+        // How long a purge stays claimed by an instance that stopped renewing it
+        private int leaseSeconds = 300;
+
+        public long getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getBatchPauseMillis() {
+            return batchPauseMillis;
+        }
+
+        public void setBatchPauseMillis(long batchPauseMillis) {
+            this.batchPauseMillis = batchPauseMillis;
+        }
+
+        public int getLeaseSeconds() {
+            return leaseSeconds;
+        }
+
+        public void setLeaseSeconds(int leaseSeconds) {
+            this.leaseSeconds = leaseSeconds;
+        }
+    }
+
+    public static class ClerkSync {
+        private String cron = "0 20 * * * *";
+        // Users per Backend API request (Clerk allows up to 500)
+        private int pageSize = 200;
+        // Pages requested at the same time
+        private int concurrency = 4;
+        // How long a run stays claimed by an instance that stopped renewing it
+        private int leaseSeconds = 900;
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getLeaseSeconds() {
+            return leaseSeconds;
+        }
+
+        public void setLeaseSeconds(int leaseSeconds) {
+            this.leaseSeconds = leaseSeconds;
+        }
+    }
+
+    public static class SqlStatements {
+        // Sends X-SQL-Statements on API responses; meant for development
+        private boolean responseHeader = false;
+        // Requests running more statements than this are logged
+        private int warnThreshold = 25;
+
+        public boolean isResponseHeader() {
+            return responseHeader;
+        }
+
+        public void setResponseHeader(boolean responseHeader) {
+            this.responseHeader = responseHeader;
+        }
+
+        public int getWarnThreshold() {
+            return warnThreshold;
+        }
+
+        public void setWarnThreshold(int warnThreshold) {
+            this.warnThreshold = warnThreshold;
+        }
+    }
+
+    public static class Tracing {
+        // Traces whose root span takes at least this long are always exported
+        private long slowMillis = 1000;
+        // Share of the remaining, fast and successful, traces that is exported
+        private double baselineProbability = 0.01;
+        // Traces held in memory while waiting for their root span to end, and
+        // decisions remembered for spans that end after their root
+        private int maxPendingTraces = 10000;
+        // A held trace none of whose spans has ended for this long is dropped
+        // as abandoned; above the longest quiet root span, a JFR recording
+        private long pendingTimeoutMillis = 300000;
+
+        public long getSlowMillis() {
+            return slowMillis;
+        }
+
+        public void setSlowMillis(long slowMillis) {
+            this.slowMillis = slowMillis;
+        }
+
+        public double getBaselineProbability() {
+            return baselineProbability;
+        }
+
+        public void setBaselineProbability(double baselineProbability) {
+            this.baselineProbability = baselineProbability;
+        }
+
+        public int getMaxPendingTraces() {
+            return maxPendingTraces;
+        }
+
+        public void setMaxPendingTraces(int maxPendingTraces) {
+            this.maxPendingTraces = maxPendingTraces;
+        }
+
+        public long getPendingTimeoutMillis() {
+            return pendingTimeoutMillis;
+        }
+
+        public void setPendingTimeoutMillis(long pendingTimeoutMillis) {
+            this.pendingTimeoutMillis = pendingTimeoutMillis;
+        }
+    }
+
+    public static class Profiling {
+        // Bearer token for /actuator/jfr; without one the endpoint refuses every request
+        private String token = "";
+        // Recording length when the request does not give one, and the most it may ask for
+        private int defaultSeconds = 30;
+        private int maxSeconds = 120;
+        // JDK event settings used when the request does not name any ("default" or "profile")
+        private String defaultSettings = "default";
+        // Oldest data is dropped once a recording holds this much
+        private int maxSizeMb = 64;
+        // Entries in each list of the summary
+        private int summaryTop = 20;
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+
+        public int getDefaultSeconds() {
+            return defaultSeconds;
+        }
+
+        public void setDefaultSeconds(int defaultSeconds) {
+            this.defaultSeconds = defaultSeconds;
+        }
+
+        public int getMaxSeconds() {
+            return maxSeconds;
+        }
+
+        public void setMaxSeconds(int maxSeconds) {
+            this.maxSeconds = maxSeconds;
+        }
+
+        public String getDefaultSettings() {
+            return defaultSettings;
+        }
+
+        public void setDefaultSettings(String defaultSettings) {
+            this.defaultSettings = defaultSettings;
+        }
+
+        public int getMaxSizeMb() {
+            return maxSizeMb;
+        }
+
+        public void setMaxSizeMb(int maxSizeMb) {
+            this.maxSizeMb = maxSizeMb;
+        }
+
+        public int getSummaryTop() {
+            return summaryTop;
+        }
+
+        public void setSummaryTop(int summaryTop) {
+            this.summaryTop = summaryTop;
+        }
+    }
 }
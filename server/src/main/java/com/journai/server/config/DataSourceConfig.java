@@ -0,0 +1,119 @@
+package com.journai.server.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Primary pool from spring.datasource, plus one read-only pool per URL in
+ * app.replicas.urls. Everything injects the lazy routing proxy; without
+ * replicas it behaves exactly like the primary pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            AppProperties appProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        AppProperties.Replicas settings = appProperties.getReplicas();
+        // A replica may serve reads up to max-lag behind, so a shorter sticky window can hide a user's own write
+        if (settings.getStickySeconds() < settings.getMaxLagSeconds()) {
+            throw new IllegalStateException("app.replicas.sticky-seconds (" + settings.getStickySeconds()
+                    + ") must be at least app.replicas.max-lag-seconds (" + settings.getMaxLagSeconds() + ")");
+        }
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : settings.getUrls()) {
+            if (url.isBlank()) {
+                continue;
+            }
+            // Same driver settings as the primary, smaller and read-only
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName(ReplicaRoutingDataSource.replicaKey(replicas.size()));
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(settings.getMaxPoolSize());
+            config.setMinimumIdle(Math.min(config.getMinimumIdle(), settings.getMaxPoolSize()));
+            // A replica that is down at startup is only skipped until it answers the lag check
+            config.setInitializationFailTimeout(-1);
+            if (settings.getUsername() != null && !settings.getUsername().isEmpty()) {
+                config.setUsername(settings.getUsername());
+                config.setPassword(settings.getPassword());
+            }
+            // Boot only instruments pools that are beans, as the primary is; tagged pool=replica-N
+            meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(
+                    new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, settings.getStickySeconds(),
+                settings.getMaxLagSeconds());
+    }
+
+    // Defers fetching a connection until the first statement, by which time
+    // the transaction manager has marked the transaction read-only or not
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new LazyConnectionDataSourceProxy(new ObservedDataSource(replicaRoutingDataSource,
+                observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP)));
+    }
+
+    /**
+     * Observes each connection fetched from the pools as journai.db.connection,
+     * so time spent waiting on Hikari shows as its own span. Behind the lazy
+     * proxy, that is once per transaction, at its first statement.
+     */
+    static class ObservedDataSource extends DelegatingDataSource {
+
+        private final ObservationRegistry observationRegistry;
+
+        ObservedDataSource(DataSource target, ObservationRegistry observationRegistry) {
+            super(target);
+            this.observationRegistry = observationRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Observation observation = Observation.createNotStarted("journai.db.connection", observationRegistry)
+                    .contextualName("db connection")
+                    .start();
+            try {
+                return super.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.journai.server.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.internal.DefaultFlushEventListener;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes Hibernate flushes, explicit ones and the one at commit, as
+ * journai.hibernate.flush, so the inserts and updates a transaction writes
+ * show as one span. Auto-flushes before queries are left alone; they are
+ * frequent and almost always have nothing to write.
+ */
+@Component
+public class FlushObservationIntegrator implements Integrator, HibernatePropertiesCustomizer {
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                .setListeners(EventType.FLUSH, new ObservedFlushEventListener(observationRegistry));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    static class ObservedFlushEventListener extends DefaultFlushEventListener {
+
+        private final ObservationRegistry observationRegistry;
+
+        ObservedFlushEventListener(ObservationRegistry observationRegistry) {
+            this.observationRegistry = observationRegistry;
+        }
+
+        @Override
+        public void onFlush(FlushEvent event) {
+            Observation.createNotStarted("journai.hibernate.flush", observationRegistry)
+                    .contextualName("hibernate flush")
+                    .observe(() -> super.onFlush(event));
+        }
+    }
+}
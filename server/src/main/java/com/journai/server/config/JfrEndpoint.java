@@ -0,0 +1,168 @@
+package com.journai.server.config;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * On-demand Java Flight Recorder profiling, behind the profiling token (see
+ * ProfilingTokenVerifier):
+ *
+ * GET /actuator/jfr?seconds=30&settings=profile records for that long and
+ * returns the .jfr file, for JDK Mission Control or "jfr print".
+ * GET /actuator/jfr/summary takes the same parameters and returns the
+ * hottest methods and top allocation sites instead (JfrSummary).
+ *
+ * settings names a JDK event configuration, "default" (about 1% overhead)
+ * or "profile" (more samples, about 2%). Only one recording runs at a time;
+ * a request made while one is running gets 429, like /actuator/heapdump.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    private static final String SUMMARY = "summary";
+
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Nullable Integer seconds, @Nullable String settings) {
+        Recorded recorded = record(seconds, settings);
+        if (recorded.file() == null) {
+            return new WebEndpointResponse<>(recorded.status());
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(recorded.file()));
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<JfrSummary> summary(@Selector String view, @Nullable Integer seconds,
+            @Nullable String settings) {
+        if (!SUMMARY.equals(view)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Recorded recorded = record(seconds, settings);
+        if (recorded.file() == null) {
+            return new WebEndpointResponse<>(recorded.status());
+        }
+        try {
+            return new WebEndpointResponse<>(JfrSummary.read(recorded.file(),
+                    appProperties.getProfiling().getSummaryTop()));
+        } catch (IOException e) {
+            logger.error("Failed to read JFR recording {}", recorded.file(), e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            deleteQuietly(recorded.file());
+        }
+    }
+
+    // Either the dumped recording or the status to answer with instead
+    private record Recorded(Path file, int status) {
+    }
+
+    private Recorded record(Integer seconds, String settings) {
+        AppProperties.Profiling profiling = appProperties.getProfiling();
+        int duration = seconds != null ? seconds : profiling.getDefaultSeconds();
+        if (duration < 1 || duration > profiling.getMaxSeconds()) {
+            return new Recorded(null, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : profiling.getDefaultSettings());
+        } catch (Exception e) {
+            return new Recorded(null, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        if (!recording.compareAndSet(false, true)) {
+            return new Recorded(null, WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Path file = null;
+        try (Recording jfr = new Recording(configuration)) {
+            file = Files.createTempFile("journai-", ".jfr");
+            jfr.setName("journai-on-demand");
+            jfr.setToDisk(true);
+            jfr.setMaxSize(profiling.getMaxSizeMb() * 1024L * 1024L);
+            logger.info("Starting {}s JFR recording with {} settings", duration, configuration.getName());
+            jfr.start();
+            Thread.sleep(Duration.ofSeconds(duration));
+            jfr.stop();
+            jfr.dump(file);
+            return new Recorded(file, WebEndpointResponse.STATUS_OK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(file);
+            return new Recorded(null, WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        } catch (IOException | RuntimeException e) {
+            logger.error("JFR recording failed", e);
+            deleteQuietly(file);
+            return new Recorded(null, WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            recording.set(false);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete JFR recording {}", file, e);
+        }
+    }
+
+    /** Deletes the recording once it has been streamed to the caller. */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path file;
+
+        TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deleteQuietly(file);
+                    }
+                }
+            };
+        }
+
+        // Otherwise the response may be written from the file directly, skipping the delete
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
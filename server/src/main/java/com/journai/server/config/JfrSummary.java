@@ -0,0 +1,102 @@
+package com.journai.server.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * What a JFR recording says about CPU and allocation: the methods most
+ * often on top of the stack in execution samples, and the allocation sites
+ * (top frame and allocated type) with the most sampled bytes. The file is
+ * read one event at a time, so only the per-method totals are held in
+ * memory, never the events.
+ */
+public record JfrSummary(long executionSamples, long allocationSamples, List<HotMethod> hottestMethods,
+        List<AllocationSite> allocationSites) {
+
+    public record HotMethod(String method, long samples, double percent) {
+    }
+
+    /** bytes is the sum of the samples' weights, an estimate of everything allocated there. */
+    public record AllocationSite(String frame, String objectClass, long bytes, long samples) {
+    }
+
+    private record SiteKey(String frame, String objectClass) {
+    }
+
+    public static JfrSummary read(Path file, int top) throws IOException {
+        Map<String, Long> methods = new HashMap<>();
+        Map<SiteKey, long[]> sites = new HashMap<>();
+        long executionSamples = 0;
+        long allocationSamples = 0;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        RecordedFrame frame = topFrame(event.getStackTrace());
+                        if (frame != null) {
+                            executionSamples++;
+                            methods.merge(methodName(frame), 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        RecordedFrame frame = topFrame(event.getStackTrace());
+                        RecordedClass objectClass = event.getClass("objectClass");
+                        if (frame != null && objectClass != null) {
+                            allocationSamples++;
+                            String site = methodName(frame) + ":" + frame.getLineNumber();
+                            long[] totals = sites.computeIfAbsent(new SiteKey(site, objectClass.getName()),
+                                    key -> new long[2]);
+                            totals[0] += event.getLong("weight");
+                            totals[1]++;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        long samples = executionSamples;
+        List<HotMethod> hottestMethods = methods.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .map(entry -> new HotMethod(entry.getKey(), entry.getValue(),
+                        Math.round(entry.getValue() * 1000.0 / samples) / 10.0))
+                .toList();
+        List<AllocationSite> allocationSites = sites.entrySet().stream()
+                .map(entry -> new AllocationSite(entry.getKey().frame(), entry.getKey().objectClass(),
+                        entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(AllocationSite::bytes).reversed())
+                .limit(top)
+                .toList();
+        return new JfrSummary(executionSamples, allocationSamples, hottestMethods, allocationSites);
+    }
+
+    private static RecordedFrame topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static String methodName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,197 @@
+package com.journai.server.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+/**
+ * Tail sampling in front of the exporting processor: ended spans are held
+ * per trace until the trace's local root (the HTTP request or scheduled
+ * run) ends, and the whole trace is then exported or dropped. Slow traces
+ * and traces with an error are always exported, the rest with
+ * app.tracing.baseline-probability. Spans are recorded for every request,
+ * so this only saves export and collector cost, not instrumentation cost.
+ *
+ * A span that ends after its root (async work the request did not wait for)
+ * follows the decision already made for its trace, remembered for
+ * app.tracing.pending-timeout-millis in a fixed-size table, and is exported
+ * or dropped at once. A trace none of whose spans has ended for that long is
+ * taken to have lost its root and is swept out; a long root that keeps
+ * ending child spans (a purge or a Clerk reconciliation) is kept, and the
+ * default timeout is above the longest quiet root, a JFR recording. With
+ * app.tracing.max-pending-traces traces already held, spans of further
+ * traces are exported unsampled rather than lost.
+ *
+ * The decision covers this process only. A trace spanning several services
+ * needs the collector's tail_sampling processor instead.
+ */
+public class LatencyTailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final SpanProcessor delegate;
+    private final long slowNanos;
+    private final double baselineProbability;
+    private final int maxPendingTraces;
+    // A trace with no span ended for this long is assumed abandoned, and a
+    // decision older than this no longer applies to late spans
+    private final long pendingTimeoutNanos;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // Recent decisions by trace id hash; a collision only forgets the older one
+    private final AtomicReferenceArray<Decision> decisions;
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    private static final class Pending {
+        // When a span of the trace last ended
+        volatile long lastActivityNanos = System.nanoTime();
+        final List<ReadableSpan> spans = new ArrayList<>();
+        boolean error;
+        // Set once the root has ended, for spans that find the trace afterwards
+        boolean decided;
+        boolean keep;
+    }
+
+    private record Decision(String traceId, boolean keep, long decidedNanos) {
+    }
+
+    public LatencyTailSamplingSpanProcessor(SpanProcessor delegate, long slowMillis, double baselineProbability,
+            int maxPendingTraces, long pendingTimeoutMillis) {
+        this.delegate = delegate;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.baselineProbability = baselineProbability;
+        this.maxPendingTraces = maxPendingTraces;
+        this.pendingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(pendingTimeoutMillis);
+        this.decisions = new AtomicReferenceArray<>(Math.max(1, maxPendingTraces));
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        boolean error = span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+
+        if (!isLocalRoot(span)) {
+            Decision decision = decisions.get(slot(traceId));
+            if (decision != null && decision.traceId().equals(traceId)
+                    && System.nanoTime() - decision.decidedNanos() <= pendingTimeoutNanos) {
+                if (decision.keep()) {
+                    delegate.onEnd(span);
+                }
+                return;
+            }
+
+            Pending trace = pending.get(traceId);
+            if (trace == null) {
+                if (pending.size() >= maxPendingTraces) {
+                    expireAbandoned();
+                    if (pending.size() >= maxPendingTraces) {
+                        delegate.onEnd(span);
+                        return;
+                    }
+                }
+                trace = pending.computeIfAbsent(traceId, key -> new Pending());
+            }
+            boolean keep;
+            synchronized (trace) {
+                if (!trace.decided) {
+                    trace.spans.add(span);
+                    trace.error |= error;
+                    trace.lastActivityNanos = System.nanoTime();
+                    return;
+                }
+                keep = trace.keep;
+            }
+            if (keep) {
+                delegate.onEnd(span);
+            }
+            return;
+        }
+
+        Pending trace = pending.remove(traceId);
+        boolean keep = error
+                || span.getLatencyNanos() >= slowNanos
+                || ThreadLocalRandom.current().nextDouble() < baselineProbability;
+        if (trace != null) {
+            synchronized (trace) {
+                keep |= trace.error;
+                trace.decided = true;
+                trace.keep = keep;
+                if (keep) {
+                    trace.spans.forEach(delegate::onEnd);
+                }
+                trace.spans.clear();
+            }
+        }
+        decisions.set(slot(traceId), new Decision(traceId, keep, System.nanoTime()));
+        if (keep) {
+            delegate.onEnd(span);
+        }
+        sweepPeriodically();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private int slot(String traceId) {
+        return Math.floorMod(traceId.hashCode(), decisions.length());
+    }
+
+    // At most once a second, on whichever root span ends first after that
+    private void sweepPeriodically() {
+        long now = System.nanoTime();
+        long last = lastSweepNanos.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweepNanos.compareAndSet(last, now)) {
+            expireAbandoned();
+        }
+    }
+
+    // Traces still waiting for their root span to end
+    int pendingTraces() {
+        return pending.size();
+    }
+
+    private void expireAbandoned() {
+        long now = System.nanoTime();
+        pending.values().removeIf(trace -> now - trace.lastActivityNanos > pendingTimeoutNanos);
+    }
+}
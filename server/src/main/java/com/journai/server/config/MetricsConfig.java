@@ -0,0 +1,40 @@
+package com.journai.server.config;
+
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+/**
+ * Metrics are scraped from /actuator/prometheus. Histogram and SLO settings
+ * live in application.yml under management.metrics.distribution; this only
+ * adds what configuration cannot express. No meter is tagged with
+ * a user id or any other unbounded value, and the uri tags, which come from
+ * request templates, are capped in case a caller builds URIs by hand.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // More distinct URIs than this means one is not a template
+    private static final int MAX_URI_TAGS = 100;
+
+    // Makes @Timed work on Spring beans (JournalService)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> boundedUriTags() {
+        return registry -> registry.config()
+                .meterFilter(MeterFilter.maximumAllowableTags("http.server.requests", "uri", MAX_URI_TAGS,
+                        MeterFilter.deny()))
+                .meterFilter(MeterFilter.maximumAllowableTags("http.client.requests", "uri", MAX_URI_TAGS,
+                        MeterFilter.deny()))
+                .meterFilter(MeterFilter.maximumAllowableTags("journai.http.sql.statements", "uri", MAX_URI_TAGS,
+                        MeterFilter.deny()));
+    }
+}
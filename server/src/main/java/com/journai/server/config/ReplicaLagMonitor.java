@@ -0,0 +1,35 @@
+package com.journai.server.config;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls replica lag for {@link ReplicaRoutingDataSource} and reports it under
+ * /actuator/health. A lagging replica only loses its reads, so the indicator
+ * stays UP and lists the lag as detail.
+ */
+@Component
+public class ReplicaLagMonitor implements HealthIndicator {
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${app.replicas.lag-check-interval:5000}")
+    public void checkReplicaLag() {
+        replicaRoutingDataSource.checkReplicaLag();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = Health.up().withDetail("maxLagSeconds", replicaRoutingDataSource.getMaxLagSeconds());
+        for (Map.Entry<String, Double> replica : replicaRoutingDataSource.getReplicaLag().entrySet()) {
+            health.withDetail(replica.getKey(), replica.getValue().isNaN() ? "unreachable" : replica.getValue());
+        }
+        return health.build();
+    }
+}
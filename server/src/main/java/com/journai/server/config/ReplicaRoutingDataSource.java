@@ -0,0 +1,205 @@
+package com.journai.server.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the
+ * primary. Must sit behind a LazyConnectionDataSourceProxy so the connection
+ * is fetched after the transaction's read-only flag is known.
+ *
+ * A user whose read-write transaction committed within the sticky window
+ * reads from the primary, so they always see their own writes. Replicas are
+ * skipped while their measured lag exceeds the limit or they cannot be
+ * reached; with no usable replica, reads fall back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // Zero when the replica has replayed everything it received, otherwise the
+    // age of the last replayed transaction. Also zero on a primary, for tests.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private final List<DataSource> replicas;
+    private final long stickyNanos;
+    private final double maxLagSeconds;
+
+    // Seconds of lag per replica, or NaN while unreachable or not yet checked
+    private final double[] lagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, int stickySeconds,
+            int maxLagSeconds) {
+        this.replicas = List.copyOf(replicas);
+        this.stickyNanos = stickySeconds * 1_000_000_000L;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagSeconds = new double[replicas.size()];
+        Arrays.fill(lagSeconds, Double.NaN);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markStickyAfterCommit();
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || isSticky(currentUserId())) {
+            return PRIMARY;
+        }
+
+        // Round-robin over the replicas that are currently within the lag limit
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (isUsable(candidate)) {
+                return replicaKey(candidate);
+            }
+        }
+        return PRIMARY;
+    }
+
+    private void markStickyAfterCommit() {
+        String userId = currentUserId();
+        if (userId == null || replicas.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWritten(userId);
+            }
+        });
+    }
+
+    /**
+     * Starts the sticky window for a user whose write committed on a thread
+     * that has no authenticated request, such as the journal write buffer.
+     */
+    public void markWritten(String userId) {
+        if (!replicas.isEmpty()) {
+            stickyUntil.put(userId, System.nanoTime() + stickyNanos);
+        }
+    }
+
+    boolean isSticky(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof String userId ? userId : null;
+    }
+
+    /**
+     * Measures every replica's lag and drops expired sticky entries. Called
+     * on a schedule by {@link ReplicaLagMonitor}.
+     */
+    public void checkReplicaLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            double lag;
+            try (Connection connection = replicas.get(i).getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet result = statement.executeQuery(LAG_SQL)) {
+                result.next();
+                lag = result.getDouble(1);
+            } catch (Exception e) {
+                logger.debug("Replica lag check failed for {}", replicaKey(i), e);
+                lag = Double.NaN;
+            }
+            updateLag(i, lag);
+        }
+
+        long now = System.nanoTime();
+        for (Iterator<Long> it = stickyUntil.values().iterator(); it.hasNext();) {
+            if (it.next() - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void updateLag(int replica, double lag) {
+        boolean wasUsable = isUsable(replica);
+        lagSeconds[replica] = lag;
+        boolean usable = isUsable(replica);
+        if (wasUsable && !usable) {
+            logger.warn("Routing reads away from {}: {}", replicaKey(replica),
+                    Double.isNaN(lag) ? "unreachable" : String.format("%.1fs behind", lag));
+        } else if (!wasUsable && usable) {
+            logger.info("Routing reads to {} ({}s behind)", replicaKey(replica), String.format("%.1f", lag));
+        }
+    }
+
+    private synchronized boolean isUsable(int replica) {
+        double lag = lagSeconds[replica];
+        return !Double.isNaN(lag) && lag <= maxLagSeconds;
+    }
+
+    /**
+     * Last measured lag in seconds per replica key, NaN when unreachable.
+     */
+    public synchronized Map<String, Double> getReplicaLag() {
+        Map<String, Double> lag = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            lag.put(replicaKey(i), lagSeconds[i]);
+        }
+        return lag;
+    }
+
+    public double getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
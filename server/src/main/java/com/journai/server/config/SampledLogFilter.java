@@ -0,0 +1,66 @@
+package com.journai.server.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Rate-limits log lines marked SAMPLED, the success lines on request hot
+ * paths: each message (by its format string) passes at most
+ * permitsPerSecond times per second, and the rest are dropped before an
+ * event is even built. Unmarked lines, and so every warning and error, are
+ * untouched. Installed by logback-spring.xml.
+ */
+public class SampledLogFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private int permitsPerSecond = 5;
+
+    // Keyed by format string, so bounded by the number of marked call sites
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    private static final class Window {
+        volatile long second;
+        final AtomicInteger count = new AtomicInteger();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (marker == null || format == null || !marker.contains(SAMPLED) || !isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        // Lines below the logger's level are dropped anyway and must not use up permits
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        Window window = windows.computeIfAbsent(format, key -> new Window());
+        if (window.second != second) {
+            synchronized (window) {
+                if (window.second != second) {
+                    window.count.set(0);
+                    window.second = second;
+                }
+            }
+        }
+        return window.count.incrementAndGet() <= permitsPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public int getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public void setPermitsPerSecond(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+}
@@ -0,0 +1,56 @@
+package com.journai.server.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, native
+ * queries included. Callers read current() before and after a unit of work,
+ * so overlapping measurements (a request inside a test) never interfere.
+ * Statements sent through JdbcTemplate bypass Hibernate and are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    // Only set while a test records what it ran (QueryBudget)
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    /** Statements prepared on this thread so far. */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /** Starts keeping the text of this thread's statements, for diagnosing budget overruns. */
+    public static void startRecording() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    public static List<String> stopRecording() {
+        List<String> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded != null ? recorded : List.of();
+    }
+}
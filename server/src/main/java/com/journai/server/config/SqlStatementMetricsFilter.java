@@ -0,0 +1,100 @@
+package com.journai.server.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements each request ran (SqlStatementCounter) as
+ * journai.http.sql.statements, tagged like http.server.requests by method and
+ * URI template, and logs requests above app.sql-statements.warn-threshold,
+ * which usually means an N+1. With app.sql-statements.response-header (on in
+ * development) the count so far is also sent as X-SQL-Statements; a header
+ * has to be set before the body is written, so statements run while
+ * serializing are only in the metric.
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementMetricsFilter.class);
+
+    public static final String HEADER = "X-SQL-Statements";
+
+    private static final String START_ATTRIBUTE = SqlStatementMetricsFilter.class.getName() + ".start";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long start = SqlStatementCounter.current();
+        request.setAttribute(START_ATTRIBUTE, start);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long statements = SqlStatementCounter.current() - start;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("journai.http.sql.statements")
+                    .description("SQL statements run per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+
+            if (statements > appProperties.getSqlStatements().getWarnThreshold()) {
+                logger.warn("{} {} ran {} SQL statements", request.getMethod(), uri, statements);
+            }
+        }
+    }
+
+    /** Adds the X-SQL-Statements header to controller responses when enabled. */
+    @ControllerAdvice
+    public static class HeaderAdvice implements ResponseBodyAdvice<Object> {
+
+        @Autowired
+        private AppProperties appProperties;
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return appProperties.getSqlStatements().isResponseHeader();
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+                ServerHttpResponse response) {
+            if (request instanceof ServletServerHttpRequest servletRequest
+                    && servletRequest.getServletRequest().getAttribute(START_ATTRIBUTE) instanceof Long start) {
+                response.getHeaders().set(HEADER, String.valueOf(SqlStatementCounter.current() - start));
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.journai.server.config;
+
+import org.springframework.boot.actuate.autoconfigure.tracing.ConditionalOnEnabledTracing;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+
+/**
+ * Traces are exported over OTLP to management.otlp.tracing.endpoint; with
+ * no endpoint set nothing is exported. Boot traces HTTP requests, scheduled
+ * runs and WebClient calls (propagating traceparent to Gemini and Clerk);
+ * ClerkJwtService, GeminiService, DataSourceConfig (connection acquisition)
+ * and FlushObservationIntegrator (Hibernate flushes) add their own spans.
+ * Every trace is recorded and {@link LatencyTailSamplingSpanProcessor}
+ * decides, once it has ended, whether it is exported.
+ */
+@Configuration
+public class TracingConfig {
+
+    // Replaces Boot's list of span processors, so the exporting one only sees sampled traces
+    @Bean
+    @ConditionalOnEnabledTracing
+    public SpanProcessors spanProcessors(BatchSpanProcessor otelSpanProcessor, AppProperties appProperties) {
+        AppProperties.Tracing settings = appProperties.getTracing();
+        return SpanProcessors.of(new LatencyTailSamplingSpanProcessor(otelSpanProcessor, settings.getSlowMillis(),
+                settings.getBaselineProbability(), settings.getMaxPendingTraces(),
+                settings.getPendingTimeoutMillis()));
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.journai.server.config.SampledLogFilter;
 import com.journai.server.dto.ApiResponse;
 import com.journai.server.model.User;
 import com.journai.server.security.ClerkJwtService;
@@ -38,7 +39,7 @@ public class AuthController {
 
         try {
             Map<String, Object> user = clerkJwtService.getClerkUserInfo(userId);
-            logger.info("User data retrieved successfully for userId: {}", userId);
+            logger.info(SampledLogFilter.SAMPLED, "User data retrieved successfully for userId: {}", userId);
             return ResponseEntity.ok(ApiResponse.success(Map.of("user", user), "User data retrieved successfully"));
         } catch (Exception e) {
             logger.error("Failed to retrieve user data for userId: {}", userId, e);
@@ -61,7 +62,7 @@ public class AuthController {
             User user = journalService.getUserWithJournalIds(userId);
             long journalCount = journalService.getUserJournalCount(userId);
 
-            logger.info("User data retrieved successfully for userId: {}, journalCount: {}",
+            logger.info(SampledLogFilter.SAMPLED, "User data retrieved successfully for userId: {}, journalCount: {}",
                     userId, journalCount);
 
             return ResponseEntity.ok(ApiResponse.success(
@@ -1,32 +1,60 @@
 package com.journai.server.controller;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.journai.server.config.SampledLogFilter;
 import com.journai.server.dto.AnalyzeJournalRequest;
 import com.journai.server.dto.ApiResponse;
 import com.journai.server.dto.GeminiAnalysisResult;
+import com.journai.server.dto.JournalDraftResponse;
+import com.journai.server.dto.JournalImportResult;
+import com.journai.server.dto.JournalCursor;
+import com.journai.server.dto.JournalPageResponse;
 import com.journai.server.dto.JournalResponse;
+import com.journai.server.dto.JournalSearchResult;
+import com.journai.server.dto.PatchDraftRequest;
 import com.journai.server.dto.SaveJournalRequest;
 import com.journai.server.model.Journal;
 import com.journai.server.model.Mood;
+import com.journai.server.repository.JournalListView;
 import com.journai.server.service.GeminiService;
+import com.journai.server.service.JournalDraftService;
+import com.journai.server.service.JournalExportService;
+import com.journai.server.service.JournalImportService;
 import com.journai.server.service.JournalService;
+import com.journai.server.service.JournalSimilarityService;
 
 import jakarta.validation.Valid;
 
@@ -36,12 +64,27 @@ public class JournalController {
 
         private static final Logger logger = LoggerFactory.getLogger(JournalController.class);
 
+        // Browsers may store authenticated responses but must revalidate before reuse
+        private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
         @Autowired
         private GeminiService geminiService;
 
         @Autowired
         private JournalService journalService;
 
+        @Autowired
+        private JournalSimilarityService journalSimilarityService;
+
+        @Autowired
+        private JournalExportService journalExportService;
+
+        @Autowired
+        private JournalImportService journalImportService;
+
+        @Autowired
+        private JournalDraftService journalDraftService;
+
         @PostMapping("/analyze-journal")
         public ResponseEntity<ApiResponse<GeminiAnalysisResult>> analyzeJournal(
                         @Valid @RequestBody AnalyzeJournalRequest request,
@@ -54,12 +97,12 @@ public class JournalController {
                 try {
                         String trimmedText = request.getText().trim();
 
-                        logger.info("Journal analysis request received, userId: {}, textLength: {}",
+                        logger.debug("Journal analysis request received, userId: {}, textLength: {}",
                                         userId, trimmedText.length());
 
                         GeminiAnalysisResult analysis = geminiService.analyzeJournal(trimmedText);
 
-                        logger.info("Gemini analysis completed successfully, userId: {}, mood: {}, textLength: {}",
+                        logger.info(SampledLogFilter.SAMPLED, "Gemini analysis completed successfully, userId: {}, mood: {}, textLength: {}",
                                         userId, analysis.getMood(), trimmedText.length());
 
                         return ResponseEntity
@@ -90,7 +133,7 @@ public class JournalController {
                         String summaryValue = request.getSummary() != null ? request.getSummary() : "";
                         String reasonValue = request.getReason() != null ? request.getReason() : "";
 
-                        logger.info("Journal save request received, userId: {}, textLength: {}, mood: {}, hasAnalysis: {}",
+                        logger.debug("Journal save request received, userId: {}, textLength: {}, mood: {}, hasAnalysis: {}",
                                         userId, request.getText().trim().length(), moodValue,
                                         !moodValue.equals(Mood.NEUTRAL) && !summaryValue.isEmpty()
                                                         && !reasonValue.isEmpty());
@@ -102,7 +145,7 @@ public class JournalController {
 
                         JournalResponse response = JournalResponse.fromJournal(savedJournal);
 
-                        logger.info("Journal saved successfully, userId: {}, journalId: {}, mood: {}",
+                        logger.info(SampledLogFilter.SAMPLED, "Journal saved successfully, userId: {}, journalId: {}, mood: {}",
                                         userId, savedJournal.getId(), savedJournal.getMood());
 
                         return ResponseEntity.ok(ApiResponse.success(response, "Journal saved successfully"));
@@ -114,10 +157,12 @@ public class JournalController {
                 }
         }
 
+        // With If-Match (the ETag of GET /journal/{id}), only updates an entry still at that version
         @PutMapping("/update-journal/{id}")
         public ResponseEntity<ApiResponse<JournalResponse>> updateJournal(
                         @PathVariable String id,
                         @Valid @RequestBody SaveJournalRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                         Authentication authentication) {
 
                 if (authentication == null || authentication.getPrincipal() == null) {
@@ -127,33 +172,48 @@ public class JournalController {
                 }
 
                 String userId = (String) authentication.getPrincipal();
+                Long expectedVersion = expectedVersion(ifMatch);
+                if (expectedVersion == null) {
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid If-Match header", "Bad request"));
+                }
 
                 try {
                         Mood moodValue = request.getMood() != null ? request.getMood() : Mood.NEUTRAL;
                         String summaryValue = request.getSummary() != null ? request.getSummary() : "";
                         String reasonValue = request.getReason() != null ? request.getReason() : "";
 
-                        logger.info("Journal update request received, userId: {}, journalId: {}, textLength: {}, mood: {}",
+                        logger.debug("Journal update request received, userId: {}, journalId: {}, textLength: {}, mood: {}",
                                         userId, id, request.getText().trim().length(), moodValue);
 
                         JournalService.JournalData journalData = new JournalService.JournalData(
                                         userId, request.getText().trim(), moodValue, summaryValue, reasonValue);
 
-                        Journal updatedJournal = journalService.updateJournal(id, userId, journalData);
+                        JournalService.WriteResult result = journalService.updateJournal(id, userId, journalData,
+                                        expectedVersion);
 
-                        if (updatedJournal == null) {
+                        if (result.status == JournalService.WriteResult.Status.NOT_FOUND) {
                                 logger.warn("Journal not found or access denied for update, userId: {}, journalId: {}",
                                                 userId, id);
                                 return ResponseEntity.status(404)
                                                 .body(ApiResponse.error("Journal not found", "Not found"));
                         }
+                        if (result.status == JournalService.WriteResult.Status.CONFLICT) {
+                                logger.info("Journal update conflict, userId: {}, journalId: {}, expected: {}, current: {}",
+                                                userId, id, expectedVersion, result.version);
+                                return ResponseEntity.status(409).eTag(versionETag("journal", result.version))
+                                                .body(ApiResponse.error("Journal has changed since the given version",
+                                                                "Conflict"));
+                        }
 
+                        Journal updatedJournal = result.journal;
                         JournalResponse response = JournalResponse.fromJournal(updatedJournal);
 
-                        logger.info("Journal updated successfully, userId: {}, journalId: {}, mood: {}",
+                        logger.info(SampledLogFilter.SAMPLED, "Journal updated successfully, userId: {}, journalId: {}, mood: {}",
                                         userId, id, updatedJournal.getMood());
 
-                        return ResponseEntity.ok(ApiResponse.success(response, "Journal updated successfully"));
+                        return ResponseEntity.ok().eTag(versionETag("journal", result.version))
+                                        .body(ApiResponse.success(response, "Journal updated successfully"));
 
                 } catch (Exception e) {
                         logger.error("Error updating journal, userId: {}, journalId: {}", userId, id, e);
@@ -162,10 +222,104 @@ public class JournalController {
                 }
         }
 
+        // Opens the autosave draft of an entry: its current text and the version to patch against
+        @GetMapping("/journal/{id}/draft")
+        public ResponseEntity<ApiResponse<JournalDraftResponse>> getDraft(
+                        @PathVariable String id,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to get journal draft");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                try {
+                        JournalDraftService.DraftState draft = journalDraftService.getDraft(userId, id);
+
+                        if (draft == null) {
+                                logger.warn("Journal not found or access denied for draft, userId: {}, journalId: {}",
+                                                userId, id);
+                                return ResponseEntity.status(404)
+                                                .body(ApiResponse.error("Journal not found", "Not found"));
+                        }
+
+                        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                                        .body(ApiResponse.success(toDraftResponse(draft), "Draft retrieved successfully"));
+
+                } catch (IllegalStateException e) {
+                        logger.warn("Draft refused, userId: {}, journalId: {}: {}", userId, id, e.getMessage());
+                        return ResponseEntity.status(503)
+                                        .body(ApiResponse.error("Failed to fetch draft", e.getMessage()));
+                } catch (Exception e) {
+                        logger.error("Error fetching journal draft, userId: {}, journalId: {}", userId, id, e);
+                        return ResponseEntity.status(500)
+                                        .body(ApiResponse.error("Failed to fetch draft", e.getMessage()));
+                }
+        }
+
+        // Autosave: applies text edits made against baseVersion; 409 carries the current text to rebase on
+        @PatchMapping("/journal/{id}/draft")
+        public ResponseEntity<ApiResponse<JournalDraftResponse>> patchDraft(
+                        @PathVariable String id,
+                        @Valid @RequestBody PatchDraftRequest request,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to patch journal draft");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                try {
+                        logger.debug("Draft patch received, userId: {}, journalId: {}, baseVersion: {}, edits: {}",
+                                        userId, id, request.getBaseVersion(), request.getEdits().size());
+
+                        JournalDraftService.DraftState draft = journalDraftService.applyPatch(userId, id,
+                                        request.getBaseVersion(), request.getEdits());
+
+                        if (draft == null) {
+                                logger.warn("Journal not found or access denied for draft patch, userId: {}, journalId: {}",
+                                                userId, id);
+                                return ResponseEntity.status(404)
+                                                .body(ApiResponse.error("Journal not found", "Not found"));
+                        }
+                        if (draft.conflict) {
+                                logger.info("Draft patch conflict, userId: {}, journalId: {}, baseVersion: {}, current: {}",
+                                                userId, id, request.getBaseVersion(), draft.version);
+                                return ResponseEntity.status(409).body(new ApiResponse<>(false,
+                                                "Draft has changed since the base version", toDraftResponse(draft),
+                                                "Conflict"));
+                        }
+
+                        return ResponseEntity.ok(ApiResponse.success(toDraftResponse(draft), "Draft updated"));
+
+                } catch (IllegalArgumentException e) {
+                        logger.warn("Invalid draft patch, userId: {}, journalId: {}: {}", userId, id, e.getMessage());
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid draft edits", e.getMessage()));
+                } catch (IllegalStateException e) {
+                        logger.warn("Draft refused, userId: {}, journalId: {}: {}", userId, id, e.getMessage());
+                        return ResponseEntity.status(503)
+                                        .body(ApiResponse.error("Failed to update draft", e.getMessage()));
+                } catch (Exception e) {
+                        logger.error("Error patching journal draft, userId: {}, journalId: {}", userId, id, e);
+                        return ResponseEntity.status(500)
+                                        .body(ApiResponse.error("Failed to update draft", e.getMessage()));
+                }
+        }
+
         @GetMapping("/get-user-journal")
-        public ResponseEntity<ApiResponse<List<JournalResponse>>> getUserJournals(
+        public ResponseEntity<ApiResponse<JournalPageResponse<JournalResponse>>> getUserJournals(
                         @RequestParam(required = false) String month,
-                        Authentication authentication) {
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "" + JournalService.DEFAULT_PAGE_SIZE) int limit,
+                        Authentication authentication,
+                        WebRequest webRequest) {
 
                 if (authentication == null || authentication.getPrincipal() == null) {
                         logger.warn("Unauthorized access attempt to get user journal");
@@ -176,22 +330,37 @@ public class JournalController {
                 String userId = (String) authentication.getPrincipal();
 
                 try {
-                        logger.info("Fetching user journal entries, userId: {}, selectedMonth: {}",
-                                        userId, month != null ? month : "all");
+                        String eTag = versionETag("journals", journalService.getUserDataVersion(userId));
+                        if (webRequest.checkNotModified(eTag)) {
+                                return notModified(eTag);
+                        }
+
+                        logger.debug("Fetching user journal entries, userId: {}, selectedMonth: {}, hasCursor: {}",
+                                        userId, month != null ? month : "all", cursor != null);
 
-                        List<Journal> journals = journalService.getUserJournals(userId, 31, 0, month);
+                        Slice<JournalListView> journals = journalService.getUserJournals(userId, month, cursor, limit);
 
-                        // Convert to DTOs to avoid lazy loading issues
-                        List<JournalResponse> journalResponses = journals.stream()
-                                        .map(JournalResponse::fromJournal)
+                        List<JournalResponse> journalResponses = journals.getContent().stream()
+                                        .map(JournalResponse::fromListView)
                                         .toList();
 
-                        logger.info("Retrieved {} journal entries for user: {}{}",
+                        String nextCursor = null;
+                        if (journals.hasNext()) {
+                                JournalListView last = journals.getContent().get(journals.getNumberOfElements() - 1);
+                                nextCursor = new JournalCursor(last.getCreatedAt(), last.getId()).encode();
+                        }
+
+                        logger.info(SampledLogFilter.SAMPLED, "Retrieved {} journal entries for user: {}{}",
                                         journalResponses.size(), userId, month != null ? " for month: " + month : "");
 
-                        return ResponseEntity.ok(ApiResponse.success(journalResponses,
+                        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(ApiResponse.success(
+                                        new JournalPageResponse<>(journalResponses, nextCursor, journals.hasNext()),
                                         "User journal entries retrieved successfully"));
 
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                        logger.warn("Invalid journal listing request, userId: {}, month: {}", userId, month);
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid month or cursor", e.getMessage()));
                 } catch (Exception e) {
                         logger.error("Error fetching user journal for userId: {}", userId, e);
                         return ResponseEntity.status(500)
@@ -199,10 +368,49 @@ public class JournalController {
                 }
         }
 
+        @GetMapping("/journals/search")
+        public ResponseEntity<ApiResponse<JournalPageResponse<JournalSearchResult>>> searchJournals(
+                        @RequestParam String q,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int limit,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to search journals");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                try {
+                        logger.debug("Searching journals, userId: {}, queryLength: {}, hasCursor: {}",
+                                        userId, q.length(), cursor != null);
+
+                        JournalPageResponse<JournalSearchResult> results = journalService.searchJournals(userId, q,
+                                        cursor, limit);
+
+                        logger.info(SampledLogFilter.SAMPLED, "Journal search returned {} results for user: {}", results.getItems().size(),
+                                        userId);
+
+                        return ResponseEntity.ok(ApiResponse.success(results, "Journal search completed successfully"));
+
+                } catch (IllegalArgumentException e) {
+                        logger.warn("Invalid journal search request, userId: {}", userId);
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid search query or cursor", e.getMessage()));
+                } catch (Exception e) {
+                        logger.error("Error searching journals for userId: {}", userId, e);
+                        return ResponseEntity.status(500)
+                                        .body(ApiResponse.error("Failed to search journals", e.getMessage()));
+                }
+        }
+
         @GetMapping("/journal/{id}")
-        public ResponseEntity<ApiResponse<Journal>> getJournalById(
+        public ResponseEntity<ApiResponse<JournalResponse>> getJournalById(
                         @PathVariable String id,
-                        Authentication authentication) {
+                        Authentication authentication,
+                        WebRequest webRequest) {
 
                 if (authentication == null || authentication.getPrincipal() == null) {
                         logger.warn("Unauthorized access attempt to get journal by ID");
@@ -213,7 +421,17 @@ public class JournalController {
                 String userId = (String) authentication.getPrincipal();
 
                 try {
-                        logger.info("Fetching journal by ID, userId: {}, journalId: {}", userId, id);
+                        // The version doubles as the If-Match value for updates and deletes
+                        Long version = journalService.getJournalVersion(id, userId);
+                        String eTag = null;
+                        if (version != null) {
+                                eTag = versionETag("journal", version);
+                                if (webRequest.checkNotModified(eTag)) {
+                                        return notModified(eTag);
+                                }
+                        }
+
+                        logger.debug("Fetching journal by ID, userId: {}, journalId: {}", userId, id);
 
                         Journal journal = journalService.getJournalById(id, userId);
 
@@ -224,8 +442,10 @@ public class JournalController {
                                                 .body(ApiResponse.error("Journal not found", "Not found"));
                         }
 
-                        logger.info("Journal retrieved successfully, userId: {}, journalId: {}", userId, id);
-                        return ResponseEntity.ok(ApiResponse.success(journal, "Journal retrieved successfully"));
+                        logger.info(SampledLogFilter.SAMPLED, "Journal retrieved successfully, userId: {}, journalId: {}", userId, id);
+                        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE)
+                                        .body(ApiResponse.success(JournalResponse.fromJournal(journal),
+                                                        "Journal retrieved successfully"));
 
                 } catch (Exception e) {
                         logger.error("Error fetching journal by ID, userId: {}, journalId: {}", userId, id, e);
@@ -234,9 +454,153 @@ public class JournalController {
                 }
         }
 
+        @GetMapping("/journal/{id}/similar")
+        public ResponseEntity<ApiResponse<List<JournalResponse>>> getSimilarJournals(
+                        @PathVariable String id,
+                        @RequestParam(defaultValue = "5") int limit,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to get similar journals");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                try {
+                        logger.debug("Fetching similar journals, userId: {}, journalId: {}", userId, id);
+
+                        List<JournalResponse> similar = journalSimilarityService.findSimilar(userId, id, limit);
+
+                        if (similar == null) {
+                                logger.warn("Journal not found or access denied for similarity, userId: {}, journalId: {}",
+                                                userId, id);
+                                return ResponseEntity.status(404)
+                                                .body(ApiResponse.error("Journal not found", "Not found"));
+                        }
+
+                        return ResponseEntity.ok(ApiResponse.success(similar, "Similar journals retrieved successfully"));
+
+                } catch (Exception e) {
+                        logger.error("Error fetching similar journals, userId: {}, journalId: {}", userId, id, e);
+                        return ResponseEntity.status(500)
+                                        .body(ApiResponse.error("Failed to fetch similar journals", e.getMessage()));
+                }
+        }
+
+        @GetMapping("/journals/export")
+        public ResponseEntity<?> exportJournals(
+                        @RequestParam(defaultValue = "ndjson") String format,
+                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to export journals");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                JournalExportService.Format exportFormat;
+                try {
+                        exportFormat = JournalExportService.Format.fromString(format);
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid export format", e.getMessage()));
+                }
+
+                boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+                logger.info("Exporting journals, userId: {}, format: {}, gzip: {}", userId, exportFormat, gzip);
+
+                // Runs on the MVC async executor once headers are sent; the export
+                // opens its own read-only transaction there
+                StreamingResponseBody body = out -> {
+                        if (gzip) {
+                                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                                        journalExportService.exportJournals(userId, exportFormat, compressed);
+                                }
+                        } else {
+                                journalExportService.exportJournals(userId, exportFormat, out);
+                        }
+                };
+
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                                .filename("journai-export-" + LocalDate.now(ZoneOffset.UTC) + "."
+                                                                + exportFormat.getExtension())
+                                                .build().toString())
+                                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                                .cacheControl(CacheControl.noStore());
+                if (gzip) {
+                        response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                return response.body(body);
+        }
+
+        @PostMapping("/journals/import")
+        public ResponseEntity<ApiResponse<JournalImportResult>> importJournals(
+                        InputStream body,
+                        @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                        Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to import journals");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+
+                try {
+                        logger.info("Importing journals, userId: {}, contentEncoding: {}", userId, contentEncoding);
+
+                        InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+                        JournalImportResult result = journalImportService.importJournals(userId, input);
+
+                        return ResponseEntity.ok(ApiResponse.success(result,
+                                        "Imported " + result.getImported() + " of " + result.getProcessed()
+                                                        + " journal entries"));
+
+                } catch (IllegalStateException e) {
+                        logger.warn("Rejected concurrent journal import, userId: {}", userId);
+                        return ResponseEntity.status(409)
+                                        .body(ApiResponse.error("Import already in progress", e.getMessage()));
+                } catch (Exception e) {
+                        logger.error("Error importing journals for userId: {}", userId, e);
+                        return ResponseEntity.status(500)
+                                        .body(ApiResponse.error("Failed to import journals", e.getMessage()));
+                }
+        }
+
+        @GetMapping("/journals/import/progress")
+        public ResponseEntity<ApiResponse<JournalImportResult>> getImportProgress(Authentication authentication) {
+
+                if (authentication == null || authentication.getPrincipal() == null) {
+                        logger.warn("Unauthorized access attempt to get import progress");
+                        return ResponseEntity.status(401)
+                                        .body(ApiResponse.error("User authentication required", "Unauthorized"));
+                }
+
+                String userId = (String) authentication.getPrincipal();
+                JournalImportResult progress = journalImportService.getProgress(userId);
+
+                if (progress == null) {
+                        return ResponseEntity.status(404)
+                                        .body(ApiResponse.error("No import in progress", "Not found"));
+                }
+
+                return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                                .body(ApiResponse.success(progress, "Import progress retrieved successfully"));
+        }
+
+        // With If-Match, only deletes an entry still at that version
         @DeleteMapping("/delete-journal/{id}")
         public ResponseEntity<ApiResponse<Void>> deleteJournal(
                         @PathVariable String id,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                         Authentication authentication) {
 
                 if (authentication == null || authentication.getPrincipal() == null) {
@@ -246,13 +610,32 @@ public class JournalController {
                 }
 
                 String userId = (String) authentication.getPrincipal();
+                Long expectedVersion = expectedVersion(ifMatch);
+                if (expectedVersion == null) {
+                        return ResponseEntity.status(400)
+                                        .body(ApiResponse.error("Invalid If-Match header", "Bad request"));
+                }
 
                 try {
-                        logger.info("Delete journal request received, userId: {}, journalId: {}", userId, id);
+                        logger.debug("Delete journal request received, userId: {}, journalId: {}", userId, id);
 
-                        journalService.deleteJournal(id, userId);
+                        JournalService.WriteResult result = journalService.deleteJournal(id, userId, expectedVersion);
 
-                        logger.info("Journal deleted successfully, userId: {}, journalId: {}", userId, id);
+                        if (result.status == JournalService.WriteResult.Status.NOT_FOUND) {
+                                logger.warn("Journal not found or access denied for delete, userId: {}, journalId: {}",
+                                                userId, id);
+                                return ResponseEntity.status(404)
+                                                .body(ApiResponse.error("Journal not found", "Not found"));
+                        }
+                        if (result.status == JournalService.WriteResult.Status.CONFLICT) {
+                                logger.info("Journal delete conflict, userId: {}, journalId: {}, expected: {}, current: {}",
+                                                userId, id, expectedVersion, result.version);
+                                return ResponseEntity.status(409).eTag(versionETag("journal", result.version))
+                                                .body(ApiResponse.error("Journal has changed since the given version",
+                                                                "Conflict"));
+                        }
+
+                        logger.info(SampledLogFilter.SAMPLED, "Journal deleted successfully, userId: {}, journalId: {}", userId, id);
                         return ResponseEntity.ok(ApiResponse.success(null, "Journal deleted successfully"));
 
                 } catch (Exception e) {
@@ -266,7 +649,8 @@ public class JournalController {
         public ResponseEntity<ApiResponse<Map<String, Object>>> getJournalInsights(
                         @RequestParam(defaultValue = "month") String range,
                         @RequestParam(required = false) String mood,
-                        Authentication authentication) {
+                        Authentication authentication,
+                        WebRequest webRequest) {
 
                 if (authentication == null || authentication.getPrincipal() == null) {
                         logger.warn("Unauthorized access attempt to get journal insights");
@@ -277,20 +661,27 @@ public class JournalController {
                 String userId = (String) authentication.getPrincipal();
                 Mood newMood = null;
                 if (mood != null) {
-                        newMood = journalService.mapMoodToEnum(mood);
+                        newMood = JournalService.mapMoodToEnum(mood);
                 }
 
                 try {
-                        logger.info("Fetching journal insights, userId: {}, timeRange: {}, moodFilter: {}",
+                        // Ranges and streaks are relative to today, so the day is part of the version
+                        String eTag = versionETag("insights-" + LocalDate.now().toEpochDay(),
+                                        journalService.getUserDataVersion(userId));
+                        if (webRequest.checkNotModified(eTag)) {
+                                return notModified(eTag);
+                        }
+
+                        logger.debug("Fetching journal insights, userId: {}, timeRange: {}, moodFilter: {}",
                                         userId, range, newMood != null ? newMood.name() : "none");
 
                         Map<String, Object> insights = journalService.getJournalInsights(userId, range, newMood);
 
-                        logger.info("Journal insights retrieved successfully, userId: {}, totalEntries: {}, timeRange: {}",
+                        logger.info(SampledLogFilter.SAMPLED, "Journal insights retrieved successfully, userId: {}, totalEntries: {}, timeRange: {}",
                                         userId, insights.get("totalEntries"), range);
 
-                        return ResponseEntity
-                                        .ok(ApiResponse.success(insights, "Journal insights retrieved successfully"));
+                        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE)
+                                        .body(ApiResponse.success(insights, "Journal insights retrieved successfully"));
 
                 } catch (Exception e) {
                         logger.error("Error fetching journal insights for userId: {}", userId, e);
@@ -298,4 +689,38 @@ public class JournalController {
                                         .body(ApiResponse.error("Failed to fetch journal insights", e.getMessage()));
                 }
         }
+
+        private static String versionETag(String scope, long version) {
+                return "\"" + scope + "-" + version + "\"";
+        }
+
+        /**
+         * The version an If-Match header asks for: ANY_VERSION when absent or
+         * "*", otherwise a single "journal-N" tag. Null if the header is
+         * anything else.
+         */
+        private static Long expectedVersion(String ifMatch) {
+                if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+                        return JournalService.ANY_VERSION;
+                }
+                String tag = ifMatch.trim();
+                String prefix = "\"journal-";
+                if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+                        return null;
+                }
+                try {
+                        long version = Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                        return version >= 0 ? version : null;
+                } catch (NumberFormatException e) {
+                        return null;
+                }
+        }
+
+        private static <T> ResponseEntity<T> notModified(String eTag) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+
+        private static JournalDraftResponse toDraftResponse(JournalDraftService.DraftState draft) {
+                return new JournalDraftResponse(draft.journalId.toString(), draft.version, draft.length, draft.text);
+        }
 }
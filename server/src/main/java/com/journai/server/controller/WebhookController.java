@@ -1,6 +1,8 @@
 package com.journai.server.controller;
 
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,11 +10,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.journai.server.dto.ApiResponse;
-import com.journai.server.service.UserService;
+import com.journai.server.dto.ClerkWebhookEvent;
+import com.journai.server.security.SvixWebhookVerifier;
+import com.journai.server.service.WebhookInboxService;
 
 @RestController
 @RequestMapping("/api")
@@ -21,145 +26,54 @@ public class WebhookController {
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
 
     @Autowired
-    private UserService userService;
+    private SvixWebhookVerifier svixWebhookVerifier;
 
-    @PostMapping("/webhooks")
-    public ResponseEntity<ApiResponse<String>> handleClerkWebhook(@RequestBody Map<String, Object> payload) {
-        try {
-            logger.info("Received Clerk webhook: {}", payload.get("type"));
-
-            // Handle different webhook events
-            String eventType = (String) payload.get("type");
-
-            switch (eventType) {
-                case "user.created":
-                    handleUserCreated(payload);
-                    break;
-                case "user.updated":
-                    handleUserUpdated(payload);
-                    break;
-                case "user.deleted":
-                    handleUserDeleted(payload);
-                    break;
-                default:
-                    logger.info("Unhandled webhook event type: {}", eventType);
-                    break;
-            }
-
-            return ResponseEntity.ok(ApiResponse.success("success", "Webhook processed successfully"));
+    @Autowired
+    private WebhookInboxService webhookInboxService;
 
-        } catch (Exception e) {
-            logger.error("Error processing Clerk webhook", e);
-            return ResponseEntity.status(500)
-                    .body(ApiResponse.error("Failed to process webhook", e.getMessage()));
+    // Only verifies and stores the event; WebhookInboxService applies it in the background
+    @PostMapping("/webhooks")
+    public ResponseEntity<ApiResponse<String>> handleClerkWebhook(
+            @RequestHeader(value = "svix-id", required = false) String messageId,
+            @RequestHeader(value = "svix-timestamp", required = false) String timestamp,
+            @RequestHeader(value = "svix-signature", required = false) String signature,
+            @RequestBody byte[] body) {
+
+        if (!svixWebhookVerifier.verify(messageId, timestamp, signature, body)) {
+            logger.warn("Rejected Clerk webhook with invalid signature, svixId: {}", messageId);
+            return ResponseEntity.status(401)
+                    .body(ApiResponse.error("Invalid webhook signature", "Unauthorized"));
         }
-    }
-
-    private void handleUserCreated(Map<String, Object> payload) {
-        logger.info("Processing user.created webhook");
 
+        ClerkWebhookEvent event;
         try {
-            // Extract user data from Clerk webhook payload
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) payload.get("data");
-
-            String id = (String) userData.get("id");
-
-            // Extract email from email_addresses array
-            @SuppressWarnings("unchecked")
-            java.util.List<Map<String, Object>> emailAddresses = (java.util.List<Map<String, Object>>) userData
-                    .get("email_addresses");
-            String email = null;
-            if (emailAddresses != null && !emailAddresses.isEmpty()) {
-                email = (String) emailAddresses.get(0).get("email_address");
-            }
-
-            String firstName = (String) userData.get("first_name");
-            String lastName = (String) userData.get("last_name");
-            String name = buildFullName(firstName, lastName);
-            String imageUrl = (String) userData.get("image_url");
-
-            if (id != null && email != null) {
-                userService.createUser(id, email, name, imageUrl);
-                logger.info("Successfully created user: {} with email: {}", id, email);
-            } else {
-                logger.error("Missing required user data: id={}, email={}", id, email);
-            }
-
-        } catch (Exception e) {
-            logger.error("Error creating user from webhook", e);
-            throw e;
+            event = WebhookInboxService.parse(body);
+        } catch (IOException e) {
+            logger.warn("Rejected malformed Clerk webhook, svixId: {}: {}", messageId, e.getMessage());
+            return ResponseEntity.status(400)
+                    .body(ApiResponse.error("Malformed webhook payload", e.getMessage()));
         }
-    }
-
-    private void handleUserUpdated(Map<String, Object> payload) {
-        logger.info("Processing user.updated webhook");
-
-        try {
-            // Extract user data from Clerk webhook payload
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) payload.get("data");
-
-            String id = (String) userData.get("id");
-
-            // Extract email from email_addresses array
-            @SuppressWarnings("unchecked")
-            java.util.List<Map<String, Object>> emailAddresses = (java.util.List<Map<String, Object>>) userData
-                    .get("email_addresses");
-            String email = null;
-            if (emailAddresses != null && !emailAddresses.isEmpty()) {
-                email = (String) emailAddresses.get(0).get("email_address");
-            }
-
-            String firstName = (String) userData.get("first_name");
-            String lastName = (String) userData.get("last_name");
-            String name = buildFullName(firstName, lastName);
-            String imageUrl = (String) userData.get("image_url");
-
-            if (id != null) {
-                userService.updateUser(id, email, name, imageUrl);
-                logger.info("Successfully updated user: {} with email: {}", id, email);
-            } else {
-                logger.error("Missing user id in update webhook");
-            }
-
-        } catch (Exception e) {
-            logger.error("Error updating user from webhook", e);
-            throw e;
+        if (event.getType() == null) {
+            logger.warn("Rejected Clerk webhook without an event type, svixId: {}", messageId);
+            return ResponseEntity.status(400)
+                    .body(ApiResponse.error("Malformed webhook payload", "Missing event type"));
         }
-    }
-
-    private void handleUserDeleted(Map<String, Object> payload) {
-        logger.info("Processing user.deleted webhook");
 
         try {
-            // Extract user data from Clerk webhook payload
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) payload.get("data");
-
-            String id = (String) userData.get("id");
+            boolean received = webhookInboxService.enqueue(messageId, event.getType(),
+                    Instant.ofEpochSecond(Long.parseLong(timestamp.trim())),
+                    new String(body, StandardCharsets.UTF_8));
 
-            if (id != null) {
-                userService.deleteUser(id);
-                logger.info("Successfully deleted user: {}", id);
-            } else {
-                logger.error("Missing user id in delete webhook");
-            }
+            logger.info("Received Clerk webhook: {}, svixId: {}, duplicate: {}", event.getType(), messageId,
+                    !received);
+            return ResponseEntity.ok(ApiResponse.success("success",
+                    received ? "Webhook received" : "Webhook already received"));
 
         } catch (Exception e) {
-            logger.error("Error deleting user from webhook", e);
-            throw e;
-        }
-    }
-
-    private String buildFullName(String firstName, String lastName) {
-        if (firstName != null && lastName != null) {
-            return firstName + " " + lastName;
-        } else if (firstName != null) {
-            return firstName;
-        } else if (lastName != null) {
-            return lastName;
+            // Svix redelivers on any non-2xx, and the inbox makes that safe
+            logger.error("Error storing Clerk webhook, svixId: {}", messageId, e);
+            return ResponseEntity.status(500)
+                    .body(ApiResponse.error("Failed to store webhook", e.getMessage()));
         }
-        return null;
     }
 }
@@ -0,0 +1,160 @@
+package com.journai.server.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The parts of a Clerk user.* webhook the server reads. Everything else in
+ * the payload is skipped while parsing, never materialized. UserData is also
+ * the shape of the Backend API's user objects (ClerkUserSyncService).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClerkWebhookEvent {
+
+    private String type;
+    private UserData data;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UserData {
+        private String id;
+
+        @JsonProperty("email_addresses")
+        private List<EmailAddress> emailAddresses;
+
+        @JsonProperty("primary_email_address_id")
+        private String primaryEmailAddressId;
+
+        @JsonProperty("first_name")
+        private String firstName;
+
+        @JsonProperty("last_name")
+        private String lastName;
+
+        @JsonProperty("image_url")
+        private String imageUrl;
+
+        // Epoch milliseconds
+        @JsonProperty("updated_at")
+        private Long updatedAt;
+
+        /** The primary email address, or the first one if none is marked primary. */
+        public String getPrimaryEmail() {
+            if (emailAddresses == null || emailAddresses.isEmpty()) {
+                return null;
+            }
+            for (EmailAddress address : emailAddresses) {
+                if (address.getId() != null && address.getId().equals(primaryEmailAddressId)) {
+                    return address.getEmailAddress();
+                }
+            }
+            return emailAddresses.get(0).getEmailAddress();
+        }
+
+        public String getFullName() {
+            if (firstName != null && lastName != null) {
+                return firstName + " " + lastName;
+            } else if (firstName != null) {
+                return firstName;
+            }
+            return lastName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public List<EmailAddress> getEmailAddresses() {
+            return emailAddresses;
+        }
+
+        public void setEmailAddresses(List<EmailAddress> emailAddresses) {
+            this.emailAddresses = emailAddresses;
+        }
+
+        public String getPrimaryEmailAddressId() {
+            return primaryEmailAddressId;
+        }
+
+        public void setPrimaryEmailAddressId(String primaryEmailAddressId) {
+            this.primaryEmailAddressId = primaryEmailAddressId;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public void setLastName(String lastName) {
+            this.lastName = lastName;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public void setImageUrl(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
+
+        public Long getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Long updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class EmailAddress {
+        private String id;
+
+        @JsonProperty("email_address")
+        private String emailAddress;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getEmailAddress() {
+            return emailAddress;
+        }
+
+        public void setEmailAddress(String emailAddress) {
+            this.emailAddress = emailAddress;
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public UserData getData() {
+        return data;
+    }
+
+    public void setData(UserData data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,59 @@
+package com.journai.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A journal draft's version and length. The text is included when the client
+ * needs to (re)start from it: when opening a draft and on a version conflict,
+ * but not in replies to accepted patches.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalDraftResponse {
+
+    private String journalId;
+    private long version;
+    private int length;
+    private String text;
+
+    public JournalDraftResponse() {
+    }
+
+    public JournalDraftResponse(String journalId, long version, int length, String text) {
+        this.journalId = journalId;
+        this.version = version;
+        this.length = length;
+        this.text = text;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public void setJournalId(String journalId) {
+        this.journalId = journalId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
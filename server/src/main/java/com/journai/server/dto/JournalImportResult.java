@@ -0,0 +1,113 @@
+package com.journai.server.dto;
+
+import java.util.List;
+
+public class JournalImportResult {
+
+    private String status;
+    private int processed;
+    private int imported;
+    private int failed;
+    private List<LineError> errors;
+    private boolean errorsTruncated;
+    private long durationMs;
+
+    public JournalImportResult() {
+    }
+
+    public JournalImportResult(String status, int processed, int imported, int failed, List<LineError> errors,
+            boolean errorsTruncated, long durationMs) {
+        this.status = status;
+        this.processed = processed;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+        this.durationMs = durationMs;
+    }
+
+    public static class LineError {
+        private int line;
+        private String message;
+
+        public LineError() {
+        }
+
+        public LineError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<LineError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
@@ -1,11 +1,14 @@
 package com.journai.server.dto;
 
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.journai.server.model.Journal;
 import com.journai.server.model.Mood;
+import com.journai.server.repository.JournalListView;
+import com.journai.server.service.JournalTextAnalyzer;
 
 public class JournalResponse {
 
@@ -18,6 +21,9 @@ public class JournalResponse {
     @JsonProperty("createdAt")
     private String createdAt;
     private int wordCount;
+    private String excerpt;
+    // Cosine similarity to the entry a similarity search started from
+    private Float similarity;
 
     public JournalResponse() {
     }
@@ -37,16 +43,15 @@ public class JournalResponse {
     // Static factory method to create from Journal entity
     public static JournalResponse fromJournal(Journal journal) {
 
-        // Format createdAt to ISO string with Z suffix
-        String createdAtString = journal.getCreatedAt() != null
-                ? journal.getCreatedAt().atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT)
-                : "";
+        String createdAtString = formatCreatedAt(journal.getCreatedAt());
 
-        // Calculate word count from content
-        int wordCount = calculateWordCount(journal.getContent());
+        // Prefer the stored word count, falling back for rows saved before it existed
+        int wordCount = journal.getWordCount() != null
+                ? journal.getWordCount()
+                : JournalTextAnalyzer.countWords(journal.getContent());
 
         return new JournalResponse(
-                journal.getId(),
+                journal.getId().toString(),
                 journal.getTitle(),
                 journal.getContent(),
                 journal.getMood(),
@@ -56,14 +61,26 @@ public class JournalResponse {
                 wordCount);
     }
 
-    private static int calculateWordCount(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return 0;
-        }
-        // Remove HTML tags and count words
-        String textOnly = content.replaceAll("<[^>]*>", " ");
-        String[] words = textOnly.trim().split("\\s+");
-        return words.length;
+    // List views carry an excerpt instead of the full content
+    public static JournalResponse fromListView(JournalListView view) {
+        JournalResponse response = new JournalResponse(
+                view.getId().toString(),
+                view.getTitle(),
+                null,
+                view.getMood(),
+                view.getSummary() != null ? view.getSummary() : "",
+                "",
+                formatCreatedAt(view.getCreatedAt()),
+                view.getWordCount() != null ? view.getWordCount() : 0);
+        response.setExcerpt(view.getExcerpt());
+        return response;
+    }
+
+    public static String formatCreatedAt(LocalDateTime createdAt) {
+        // Format createdAt to ISO string with Z suffix
+        return createdAt != null
+                ? createdAt.atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT)
+                : "";
     }
 
     public String getId() {
@@ -129,4 +146,20 @@ public class JournalResponse {
     public void setWordCount(int wordCount) {
         this.wordCount = wordCount;
     }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public Float getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(Float similarity) {
+        this.similarity = similarity;
+    }
 }
@@ -0,0 +1,97 @@
+package com.journai.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.journai.server.model.Mood;
+
+public class JournalSearchResult {
+
+    private String id;
+    private String title;
+    private Mood mood;
+    private String summary;
+    @JsonProperty("createdAt")
+    private String createdAt;
+    private int wordCount;
+    // Matched fragments with hits wrapped in <mark></mark>
+    private String snippet;
+    private float rank;
+
+    public JournalSearchResult() {
+    }
+
+    public JournalSearchResult(String id, String title, Mood mood, String summary, String createdAt,
+            int wordCount, String snippet, float rank) {
+        this.id = id;
+        this.title = title;
+        this.mood = mood;
+        this.summary = summary;
+        this.createdAt = createdAt;
+        this.wordCount = wordCount;
+        this.snippet = snippet;
+        this.rank = rank;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Mood getMood() {
+        return mood;
+    }
+
+    public void setMood(Mood mood) {
+        this.mood = mood;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(int wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public void setRank(float rank) {
+        this.rank = rank;
+    }
+}
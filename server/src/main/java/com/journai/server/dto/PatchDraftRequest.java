@@ -0,0 +1,85 @@
+package com.journai.server.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Edits to a journal draft, made against the draft version the client last
+ * saw. Edits apply in order, each to the text left by the one before it.
+ * Offsets count UTF-16 code units, as JavaScript string indexes do.
+ */
+public class PatchDraftRequest {
+
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotEmpty(message = "At least one edit is required")
+    @Size(max = 500, message = "At most 500 edits per request")
+    private List<@Valid Edit> edits;
+
+    public static class Edit {
+        @PositiveOrZero
+        private int offset;
+
+        // Characters removed at offset before insert is placed there
+        @PositiveOrZero
+        private int remove;
+
+        @Size(max = 10000)
+        private String insert;
+
+        public Edit() {
+        }
+
+        public Edit(int offset, int remove, String insert) {
+            this.offset = offset;
+            this.remove = remove;
+            this.insert = insert;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public void setOffset(int offset) {
+            this.offset = offset;
+        }
+
+        public int getRemove() {
+            return remove;
+        }
+
+        public void setRemove(int remove) {
+            this.remove = remove;
+        }
+
+        public String getInsert() {
+            return insert;
+        }
+
+        public void setInsert(String insert) {
+            this.insert = insert;
+        }
+    }
+
+    public Long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public List<Edit> getEdits() {
+        return edits;
+    }
+
+    public void setEdits(List<Edit> edits) {
+        this.edits = edits;
+    }
+}
@@ -0,0 +1,48 @@
+package com.journai.server.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position in ranked search results: the (rank, id) of the
+ * last hit the client has seen. The rank is carried as its exact float bits
+ * so the equality half of the seek predicate matches in Postgres.
+ */
+public final class SearchCursor {
+
+    private final float rank;
+    private final UUID id;
+
+    public SearchCursor(float rank, UUID id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            float rank = Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16));
+            return new SearchCursor(rank, UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -5,8 +5,10 @@ import java.util.UUID;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
@@ -19,18 +21,25 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 @Entity
+// Schema is managed by Flyway (db/migration); indexes are listed for reference.
+// The table is partitioned by created_at month, so its primary key is (id, created_at).
 @Table(name = "journals", indexes = {
-        @Index(name = "idx_journal_user_id", columnList = "user_id"),
-        @Index(name = "idx_journal_created_at", columnList = "created_at")
+        @Index(name = "idx_journal_user_created_at", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_journal_user_mood_created_at", columnList = "user_id, mood, created_at")
 })
 @EntityListeners(AuditingEntityListener.class)
-public class Journal {
+public class Journal implements Persistable<UUID> {
 
     @Id
-    private String id;
+    @Column(columnDefinition = "uuid")
+    private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -51,6 +60,16 @@ public class Journal {
     @Column(columnDefinition = "TEXT")
     private String summary;
 
+    @Column(name = "word_count")
+    private Integer wordCount;
+
+    // Plain-text preview for list views, so listings never read content
+    @Column(length = 200)
+    private String excerpt;
+
+    // JournalEmbedder output as little-endian float32s, used for similarity search
+    private byte[] embedding;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -59,9 +78,21 @@ public class Journal {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped on every content write. Updates and deletes can be made
+    // conditional on it (If-Match), and drafts are only written back over
+    // the version they started from.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // The id is assigned up front, so save() would otherwise SELECT to tell
+    // a new entry from an existing one before inserting
+    @Transient
+    private boolean isNew = true;
+
     // Constructors
     public Journal() {
-        this.id = UUID.randomUUID().toString();
+        this.id = UuidV7.randomUuid();
     }
 
     public Journal(User user, String title, String content, Mood mood, String summary) {
@@ -73,12 +104,25 @@ public class Journal {
         this.summary = summary;
     }
 
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     // Getters and Setters
-    public String getId() {
+    @Override
+    public UUID getId() {
         return id;
     }
 
-    public void setId(String id) {
+    public void setId(UUID id) {
         this.id = id;
     }
 
@@ -133,6 +177,30 @@ public class Journal {
         this.summary = summary;
     }
 
+    public Integer getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(Integer wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public byte[] getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(byte[] embedding) {
+        this.embedding = embedding;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -148,4 +216,12 @@ public class Journal {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -2,17 +2,24 @@ package com.journai.server.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+// Rows only change through Clerk webhooks, so lookups are served from the
+// second-level cache (hibernate-cache.conf); UserService evicts on change
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 @EntityListeners(AuditingEntityListener.class)
 public class User {
@@ -28,6 +35,17 @@ public class User {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Bumped on every journal write; drives ETags for the user's listings and insights.
+    // Only ever changed by UserRepository.incrementDataVersion, so a cached User
+    // may hold an older value: read it through findDataVersionById instead.
+    @Column(name = "data_version", insertable = false, updatable = false)
+    private Long dataVersion;
+
+    // Clerk's updated_at (UTC) of the state last written; only UserRepository's
+    // upserts write it, and only ever forwards (see UserService.eventTime)
+    @Column(name = "last_event_at", insertable = false, updatable = false)
+    private LocalDateTime lastEventAt;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -85,6 +103,22 @@ public class User {
         this.imageUrl = imageUrl;
     }
 
+    public Long getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(Long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    public LocalDateTime getLastEventAt() {
+        return lastEventAt;
+    }
+
+    public void setLastEventAt(LocalDateTime lastEventAt) {
+        this.lastEventAt = lastEventAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
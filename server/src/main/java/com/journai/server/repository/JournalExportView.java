@@ -0,0 +1,29 @@
+package com.journai.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.journai.server.model.Mood;
+
+/**
+ * Columns written by the journal export. Embeddings and excerpts are derived
+ * data and are left out of backups.
+ */
+public interface JournalExportView {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getContent();
+
+    Mood getMood();
+
+    String getSummary();
+
+    Integer getWordCount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,27 @@
+package com.journai.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.journai.server.model.Mood;
+
+/**
+ * Content-free projection of a journal for list views. Only the columns named
+ * here are selected, so the content TEXT column is never read for listings.
+ */
+public interface JournalListView {
+
+    UUID getId();
+
+    String getTitle();
+
+    Mood getMood();
+
+    String getSummary();
+
+    LocalDateTime getCreatedAt();
+
+    Integer getWordCount();
+
+    String getExcerpt();
+}
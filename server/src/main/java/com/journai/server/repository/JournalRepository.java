@@ -3,27 +3,154 @@ package com.journai.server.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.journai.server.model.Journal;
 import com.journai.server.model.Mood;
 
 @Repository
-public interface JournalRepository extends JpaRepository<Journal, String> {
+public interface JournalRepository extends JpaRepository<Journal, UUID> {
+
+        // Columns of JournalListView; content is only read as a fallback excerpt
+        // for rows saved before excerpts existed
+        String LIST_VIEW_SELECT = "SELECT j.id AS id, j.title AS title, j.mood AS mood, j.summary AS summary,"
+                        + " j.createdAt AS createdAt, j.wordCount AS wordCount,"
+                        + " COALESCE(j.excerpt, SUBSTRING(j.content, 1, 160)) AS excerpt";
 
         List<Journal> findByUser_IdOrderByCreatedAtDesc(String userId);
 
         Page<Journal> findByUser_IdOrderByCreatedAtDesc(String userId, Pageable pageable);
 
-        Optional<Journal> findByIdAndUser_Id(String id, String userId);
+        // By-id lookups and writes take a created_at window (see
+        // JournalService.byId) so that only the partition holding the id's
+        // month is probed instead of every monthly partition.
+        Optional<Journal> findByIdAndUser_IdAndCreatedAtBetween(UUID id, String userId, LocalDateTime createdFrom,
+                        LocalDateTime createdTo);
+
+        // Server-side cursor over a user's full history for export. Postgres
+        // only honours the fetch size inside a transaction, so callers must
+        // consume the stream within a read-only @Transactional method.
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        })
+        @Query("SELECT j.id AS id, j.title AS title, j.content AS content, j.mood AS mood, j.summary AS summary,"
+                        + " j.wordCount AS wordCount, j.createdAt AS createdAt, j.updatedAt AS updatedAt"
+                        + " FROM Journal j WHERE j.user.id = :userId ORDER BY j.createdAt ASC, j.id ASC")
+        Stream<JournalExportView> streamExportRowsByUserId(@Param("userId") String userId);
 
-        void deleteByIdAndUser_Id(String id, String userId);
+        @Query("SELECT j.version FROM Journal j WHERE j.id = :id AND j.user.id = :userId"
+                        + " AND j.createdAt BETWEEN :createdFrom AND :createdTo")
+        Optional<Long> findVersionByIdAndUserId(@Param("id") UUID id, @Param("userId") String userId,
+                        @Param("createdFrom") LocalDateTime createdFrom,
+                        @Param("createdTo") LocalDateTime createdTo);
+
+        // Conditional writes, one statement each. The row is locked, written
+        // only if its version lies in [minVersion, maxVersion] (minVersion < 0
+        // matches any), and the owner's data_version is bumped with it. One row
+        // comes back if the entry exists: its created_at, version, mood and word
+        // count before the write (content only where word_count was never set),
+        // then the new version or deleted id, null if the version check failed.
+        // No row means there is no such entry.
+        @Query(value = """
+                        WITH target AS (
+                            SELECT id, created_at, version, mood, word_count,
+                                   CASE WHEN word_count IS NULL THEN content END AS uncounted_content
+                            FROM journals
+                            WHERE id = :id AND user_id = :userId
+                              AND created_at BETWEEN :createdFrom AND :createdTo
+                            FOR UPDATE
+                        ), updated AS (
+                            UPDATE journals j
+                            SET title = :title, content = :content, mood = :mood, summary = :summary,
+                                word_count = :wordCount, excerpt = :excerpt, embedding = :embedding,
+                                updated_at = :updatedAt, version = GREATEST(c.version, :versionFloor) + 1
+                            FROM target c
+                            WHERE j.id = c.id AND j.created_at = c.created_at
+                              AND j.created_at BETWEEN :createdFrom AND :createdTo
+                              AND (:minVersion < 0 OR c.version BETWEEN :minVersion AND :maxVersion)
+                            RETURNING j.version
+                        ), data_version AS (
+                            UPDATE users SET data_version = COALESCE(data_version, 0) + 1
+                            WHERE id = :userId AND EXISTS (SELECT 1 FROM updated)
+                        )
+                        SELECT c.created_at, c.version, c.mood, c.word_count, c.uncounted_content, u.version
+                        FROM target c LEFT JOIN updated u ON true
+                        """, nativeQuery = true)
+        List<Object[]> updateIfVersion(@Param("id") UUID id,
+                        @Param("userId") String userId,
+                        @Param("createdFrom") LocalDateTime createdFrom,
+                        @Param("createdTo") LocalDateTime createdTo,
+                        @Param("minVersion") long minVersion,
+                        @Param("maxVersion") long maxVersion,
+                        @Param("versionFloor") long versionFloor,
+                        @Param("title") String title,
+                        @Param("content") String content,
+                        @Param("mood") String mood,
+                        @Param("summary") String summary,
+                        @Param("wordCount") int wordCount,
+                        @Param("excerpt") String excerpt,
+                        @Param("embedding") byte[] embedding,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+        @Query(value = """
+                        WITH target AS (
+                            SELECT id, created_at, version, mood, word_count,
+                                   CASE WHEN word_count IS NULL THEN content END AS uncounted_content
+                            FROM journals
+                            WHERE id = :id AND user_id = :userId
+                              AND created_at BETWEEN :createdFrom AND :createdTo
+                            FOR UPDATE
+                        ), deleted AS (
+                            DELETE FROM journals j
+                            USING target c
+                            WHERE j.id = c.id AND j.created_at = c.created_at
+                              AND j.created_at BETWEEN :createdFrom AND :createdTo
+                              AND (:minVersion < 0 OR c.version BETWEEN :minVersion AND :maxVersion)
+                            RETURNING j.id
+                        ), data_version AS (
+                            UPDATE users SET data_version = COALESCE(data_version, 0) + 1
+                            WHERE id = :userId AND EXISTS (SELECT 1 FROM deleted)
+                        )
+                        SELECT c.created_at, c.version, c.mood, c.word_count, c.uncounted_content, d.id
+                        FROM target c LEFT JOIN deleted d ON true
+                        """, nativeQuery = true)
+        List<Object[]> deleteIfVersion(@Param("id") UUID id,
+                        @Param("userId") String userId,
+                        @Param("createdFrom") LocalDateTime createdFrom,
+                        @Param("createdTo") LocalDateTime createdTo,
+                        @Param("minVersion") long minVersion,
+                        @Param("maxVersion") long maxVersion);
+
+        // Keyset page: entries strictly before (cursorCreatedAt, cursorId) in
+        // (createdAt DESC, id DESC) order. Slice fetches limit + 1 rows instead
+        // of issuing a COUNT query.
+        @Query(LIST_VIEW_SELECT
+                        + " FROM Journal j WHERE j.user.id = :userId AND j.createdAt >= :startDate AND j.createdAt <= :endDate"
+                        + " AND j.createdAt <= :cursorCreatedAt"
+                        + " AND (j.createdAt < :cursorCreatedAt OR j.id < :cursorId)"
+                        + " ORDER BY j.createdAt DESC, j.id DESC")
+        Slice<JournalListView> findKeysetPage(@Param("userId") String userId,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                        @Param("cursorId") UUID cursorId,
+                        Pageable pageable);
 
         @Query("SELECT j FROM Journal j WHERE j.user.id = :userId AND j.createdAt >= :startDate AND j.createdAt <= :endDate ORDER BY j.createdAt DESC")
         List<Journal> findByUserIdAndDateRange(@Param("userId") String userId,
@@ -52,4 +179,56 @@ public interface JournalRepository extends JpaRepository<Journal, String> {
         List<Object[]> getMoodDistribution(@Param("userId") String userId,
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate);
+
+        @Query("SELECT j.createdAt, j.mood, j.wordCount FROM Journal j WHERE j.user.id = :userId ORDER BY j.createdAt ASC")
+        List<Object[]> findStatsRowsByUserId(@Param("userId") String userId);
+
+        @Query("SELECT j FROM Journal j WHERE j.user.id = :userId AND j.wordCount IS NULL")
+        List<Journal> findByUserIdWithoutWordCount(@Param("userId") String userId);
+
+        @Modifying
+        @Query("UPDATE Journal j SET j.wordCount = :wordCount WHERE j.id = :id")
+        int updateWordCount(@Param("id") UUID id, @Param("wordCount") int wordCount);
+
+        // Ranked full-text search over the generated search_vector column (see
+        // db/migration/V3__journal_search_vector.sql). The inner query seeks and
+        // limits on (rank, id) so ts_headline only runs for the rows on the page,
+        // and carries created_at so each page row is fetched from its own partition.
+        @Query(value = """
+                        SELECT j.id, j.title, j.mood, j.summary, j.created_at, j.word_count,
+                               ts_headline('english', regexp_replace(j.content, '<[^>]*>', ' ', 'g'),
+                                           websearch_to_tsquery('english', :query),
+                                           'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MinWords=5, MaxWords=20'),
+                               page.rank
+                        FROM (
+                            SELECT s.id, s.created_at, ts_rank(s.search_vector, q) AS rank
+                            FROM journals s, websearch_to_tsquery('english', :query) q
+                            WHERE s.user_id = :userId
+                              AND s.search_vector @@ q
+                              AND (ts_rank(s.search_vector, q) < CAST(:cursorRank AS real)
+                                   OR (ts_rank(s.search_vector, q) = CAST(:cursorRank AS real) AND s.id < :cursorId))
+                            ORDER BY rank DESC, s.id DESC
+                            LIMIT :limit
+                        ) page
+                        JOIN journals j ON j.id = page.id AND j.created_at = page.created_at
+                        ORDER BY page.rank DESC, page.id DESC
+                        """, nativeQuery = true)
+        List<Object[]> searchByUserId(@Param("userId") String userId,
+                        @Param("query") String query,
+                        @Param("cursorRank") float cursorRank,
+                        @Param("cursorId") UUID cursorId,
+                        @Param("limit") int limit);
+
+        @Query(LIST_VIEW_SELECT + " FROM Journal j WHERE j.user.id = :userId AND j.id IN :ids")
+        List<JournalListView> findListViewsByIds(@Param("userId") String userId, @Param("ids") List<UUID> ids);
+
+        @Query("SELECT j.id, j.embedding FROM Journal j WHERE j.user.id = :userId AND j.embedding IS NOT NULL")
+        List<Object[]> findEmbeddingsByUserId(@Param("userId") String userId);
+
+        @Query("SELECT j.id, j.content FROM Journal j WHERE j.user.id = :userId AND j.embedding IS NULL")
+        List<Object[]> findContentWithoutEmbedding(@Param("userId") String userId);
+
+        @Modifying
+        @Query("UPDATE Journal j SET j.embedding = :embedding WHERE j.id = :id")
+        int updateEmbedding(@Param("id") UUID id, @Param("embedding") byte[] embedding);
 }
@@ -1,13 +1,95 @@
 package com.journai.server.repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.journai.server.model.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT COALESCE(u.dataVersion, 0) FROM User u WHERE u.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") String id);
+
+    // Native with its own query space: a JPQL bulk update would evict every
+    // cached User on each journal write, though only data_version changes
+    @Modifying
+    @Query(value = "UPDATE users SET data_version = COALESCE(data_version, 0) + 1 WHERE id = :id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_data_version"))
+    int incrementDataVersion(@Param("id") String id);
+
+    // Webhook writes are single statements, so a redelivered event is a no-op
+    // rather than a failure. Like incrementDataVersion they use their own query
+    // space; UserService evicts the one cached User after commit. With an
+    // eventAt (Clerk's updated_at), the write only happens if the user has not
+    // already been written from a newer state.
+    @Modifying
+    @Query(value = """
+            INSERT INTO users (id, email, name, image_url, created_at, updated_at, last_event_at)
+            VALUES (:id, :email, :name, :imageUrl, now(), now(), CAST(:eventAt AS timestamp))
+            ON CONFLICT (id) DO UPDATE
+            SET email = EXCLUDED.email,
+                name = COALESCE(EXCLUDED.name, users.name),
+                image_url = COALESCE(EXCLUDED.image_url, users.image_url),
+                updated_at = EXCLUDED.updated_at,
+                last_event_at = COALESCE(EXCLUDED.last_event_at, users.last_event_at)
+            WHERE EXCLUDED.last_event_at IS NULL OR users.last_event_at IS NULL
+               OR users.last_event_at <= EXCLUDED.last_event_at
+            """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_webhook"))
+    int upsert(@Param("id") String id, @Param("email") String email, @Param("name") String name,
+            @Param("imageUrl") String imageUrl, @Param("eventAt") LocalDateTime eventAt);
+
+    // For updates that carry no email address, which cannot create a user
+    @Modifying
+    @Query(value = "UPDATE users SET name = COALESCE(:name, name), image_url = COALESCE(:imageUrl, image_url),"
+            + " updated_at = now(), last_event_at = COALESCE(CAST(:eventAt AS timestamp), last_event_at)"
+            + " WHERE id = :id AND (CAST(:eventAt AS timestamp) IS NULL OR last_event_at IS NULL"
+            + " OR last_event_at <= CAST(:eventAt AS timestamp))", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_webhook"))
+    int updateProfile(@Param("id") String id, @Param("name") String name, @Param("imageUrl") String imageUrl,
+            @Param("eventAt") LocalDateTime eventAt);
+
+    // Reconciliation writes a page of Clerk users at once; the arrays are
+    // parallel, one element per user, with values already merged by the caller.
+    // A user a webhook has since written from a newer state is left alone.
+    @Modifying
+    @Query(value = """
+            INSERT INTO users (id, email, name, image_url, created_at, updated_at, last_event_at)
+            SELECT u.id, u.email, u.name, u.image_url, now(), now(), u.event_at
+            FROM unnest(CAST(:ids AS varchar[]), CAST(:emails AS varchar[]), CAST(:names AS varchar[]),
+                        CAST(:imageUrls AS varchar[]), CAST(:eventAts AS timestamp[]))
+                 AS u(id, email, name, image_url, event_at)
+            ON CONFLICT (id) DO UPDATE
+            SET email = EXCLUDED.email,
+                name = EXCLUDED.name,
+                image_url = EXCLUDED.image_url,
+                updated_at = EXCLUDED.updated_at,
+                last_event_at = COALESCE(EXCLUDED.last_event_at, users.last_event_at)
+            WHERE EXCLUDED.last_event_at IS NULL OR users.last_event_at IS NULL
+               OR users.last_event_at <= EXCLUDED.last_event_at
+            """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_webhook"))
+    int upsertAll(@Param("ids") String[] ids, @Param("emails") String[] emails, @Param("names") String[] names,
+            @Param("imageUrls") String[] imageUrls, @Param("eventAts") LocalDateTime[] eventAts);
+
+    // Only once the user's journals are gone (see UserPurgeService)
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id AND NOT EXISTS (SELECT 1 FROM journals WHERE user_id = :id)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_webhook"))
+    int deleteIfExists(@Param("id") String id);
 }
@@ -0,0 +1,37 @@
+package com.journai.server.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.journai.server.config.AppProperties;
+
+/**
+ * Checks the "Authorization: Bearer ..." header on /actuator/jfr against
+ * app.profiling.token. The endpoint can pause a request thread for minutes
+ * and reveals code paths, so Clerk users are not enough; without a
+ * configured token nothing verifies.
+ */
+@Component
+public class ProfilingTokenVerifier {
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private AppProperties appProperties;
+
+    public boolean verify(String authorization) {
+        return verify(appProperties.getProfiling().getToken(), authorization);
+    }
+
+    static boolean verify(String token, String authorization) {
+        if (token == null || token.isBlank() || authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+        // Constant time, so the token cannot be guessed a byte at a time
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8));
+    }
+}
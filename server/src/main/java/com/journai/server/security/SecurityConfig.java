@@ -3,12 +3,15 @@ package com.journai.server.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -16,12 +19,22 @@ public class SecurityConfig {
     @Autowired
     private ClerkAuthenticationFilter clerkAuthenticationFilter;
 
+    @Autowired
+    private ProfilingTokenVerifier profilingTokenVerifier;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Streamed responses complete on an async dispatch that
+                        // carries no token; the original request was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/", "/health", "/api/analyze-journal").permitAll()
+                        // On-demand profiling takes the ops token, not a Clerk session
+                        .requestMatchers("/actuator/jfr/**").access((authentication, context) ->
+                                new AuthorizationDecision(profilingTokenVerifier.verify(
+                                        context.getRequest().getHeader("Authorization"))))
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/webhooks/**", "/api/webhooks/**").permitAll()
                         .anyRequest().authenticated())
@@ -0,0 +1,306 @@
+package com.journai.server.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.dto.ClerkWebhookEvent;
+import com.journai.server.model.User;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reconciles the users table with Clerk for when webhooks were missed. A run
+ * pages through the Backend API's user list newest update first,
+ * app.clerk-sync.concurrency pages at a time, and stops at the first user
+ * older than the watermark of the last completed run. Each page is diffed
+ * against the users table in one query, and only the users that are missing
+ * or differ are written, with one multi-row upsert. Users whose purge was
+ * requested are left alone, as are users a webhook has meanwhile written from
+ * a newer Clerk state (both order by Clerk's updated_at). Users updated in Clerk while a run pages only
+ * move towards the front of the list, so they are seen twice or by the next
+ * run, never skipped.
+ */
+@Service
+public class ClerkUserSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClerkUserSyncService.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE clerk_sync SET locked_until = now() + make_interval(secs => ?)
+            WHERE id = 1 AND (locked_until IS NULL OR locked_until < now())
+            RETURNING watermark
+            """;
+
+    private static final String RENEW_SQL =
+            "UPDATE clerk_sync SET locked_until = now() + make_interval(secs => ?) WHERE id = 1";
+
+    private static final String COMPLETE_SQL = """
+            UPDATE clerk_sync
+            SET watermark = GREATEST(watermark, ?), locked_until = NULL, last_run_at = now(),
+                last_run_users = ?, last_run_millis = ?
+            WHERE id = 1
+            """;
+
+    private static final String RELEASE_SQL = "UPDATE clerk_sync SET locked_until = NULL WHERE id = 1";
+
+    // Read from the primary: a lagging replica would report just-created users as missing
+    private static final String DIFF_SQL = """
+            SELECT ids.id, u.email, u.name, u.image_url, p.user_id IS NOT NULL AS purged
+            FROM unnest(CAST(? AS varchar[])) AS ids(id)
+            LEFT JOIN users u ON u.id = ids.id
+            LEFT JOIN user_purges p ON p.user_id = ids.id
+            """;
+
+    @Autowired
+    private WebClient webClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    public record SyncResult(int fetched, int created, int updated, int unchanged, int skipped, long elapsedMillis) {
+
+        public double usersPerSecond() {
+            return elapsedMillis > 0 ? fetched * 1000.0 / elapsedMillis : fetched;
+        }
+    }
+
+    private record StoredUser(String email, String name, String imageUrl, boolean purged) {
+    }
+
+    private static final class Counts {
+        int fetched;
+        int created;
+        int updated;
+        int unchanged;
+        int skipped;
+        long watermark;
+    }
+
+    @Scheduled(cron = "${app.clerk-sync.cron:0 20 * * * *}")
+    public void reconcileChanges() {
+        String secretKey = appProperties.getClerk().getSecretKey();
+        if (secretKey == null || secretKey.isBlank()) {
+            logger.debug("Clerk secret key not configured, skipping user reconciliation");
+            return;
+        }
+        try {
+            reconcile(false);
+        } catch (RuntimeException e) {
+            logger.error("Clerk user reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Runs a reconciliation now: only users changed since the last completed
+     * run, or every user when full is set. Returns null if another instance is
+     * running one. The watermark only advances when the run completes, so a
+     * failed run is repeated in full by the next.
+     */
+    public SyncResult reconcile(boolean full) {
+        AppProperties.ClerkSync settings = appProperties.getClerkSync();
+        List<Long> claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> (Long) rs.getObject("watermark"),
+                settings.getLeaseSeconds());
+        if (claimed.isEmpty()) {
+            logger.info("Clerk user reconciliation already running elsewhere");
+            return null;
+        }
+        Long watermark = full ? null : claimed.get(0);
+
+        long start = System.nanoTime();
+        Counts counts = new Counts();
+        try {
+            syncPages(watermark, settings, counts);
+        } catch (RuntimeException e) {
+            try {
+                jdbcTemplate.update(RELEASE_SQL);
+            } catch (DataAccessException releaseFailure) {
+                logger.error("Releasing the Clerk reconciliation lease failed", releaseFailure);
+            }
+            throw e;
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        jdbcTemplate.update(COMPLETE_SQL, counts.watermark, counts.fetched, elapsedMillis);
+
+        SyncResult result = new SyncResult(counts.fetched, counts.created, counts.updated, counts.unchanged,
+                counts.skipped, elapsedMillis);
+        logger.info("Reconciled {} Clerk users in {} ms ({} users/s, {}): {} created, {} updated, {} unchanged,"
+                + " {} skipped", result.fetched(), elapsedMillis, String.format("%.1f", result.usersPerSecond()),
+                full ? "full" : watermark == null ? "first run" : "since " + watermark, result.created(),
+                result.updated(), result.unchanged(), result.skipped());
+        return result;
+    }
+
+    private void syncPages(Long watermark, AppProperties.ClerkSync settings, Counts counts) {
+        int pageSize = settings.getPageSize();
+        int concurrency = Math.max(1, settings.getConcurrency());
+        int offset = 0;
+
+        while (true) {
+            List<Integer> offsets = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                offsets.add(offset + i * pageSize);
+            }
+            offset += concurrency * pageSize;
+
+            // In order of offset, however the responses arrive
+            List<List<ClerkWebhookEvent.UserData>> pages = Flux.fromIterable(offsets)
+                    .flatMapSequential(pageOffset -> fetchPage(pageOffset, pageSize), concurrency)
+                    .collectList()
+                    .block();
+
+            for (List<ClerkWebhookEvent.UserData> page : pages) {
+                List<ClerkWebhookEvent.UserData> changed = new ArrayList<>(page.size());
+                boolean reachedWatermark = false;
+                for (ClerkWebhookEvent.UserData user : page) {
+                    long updatedAt = user.getUpdatedAt() != null ? user.getUpdatedAt() : 0;
+                    if (watermark != null && updatedAt < watermark) {
+                        reachedWatermark = true;
+                        break;
+                    }
+                    counts.watermark = Math.max(counts.watermark, updatedAt);
+                    changed.add(user);
+                }
+                applyPage(changed, counts);
+
+                if (reachedWatermark || page.size() < pageSize) {
+                    return;
+                }
+            }
+            jdbcTemplate.update(RENEW_SQL, settings.getLeaseSeconds());
+        }
+    }
+
+    private Mono<List<ClerkWebhookEvent.UserData>> fetchPage(int offset, int limit) {
+        AppProperties.Clerk clerk = appProperties.getClerk();
+        return webClient.get()
+                .uri(clerk.getApiUrl() + "/users?limit={limit}&offset={offset}&order_by=-updated_at", limit, offset)
+                .header("Authorization", "Bearer " + clerk.getSecretKey())
+                .retrieve()
+                .bodyToFlux(ClerkWebhookEvent.UserData.class)
+                .collectList();
+    }
+
+    private void applyPage(List<ClerkWebhookEvent.UserData> page, Counts counts) {
+        counts.fetched += page.size();
+        List<String> ids = new ArrayList<>(page.size());
+        for (ClerkWebhookEvent.UserData user : page) {
+            if (user.getId() != null) {
+                ids.add(user.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            counts.skipped += page.size();
+            return;
+        }
+
+        Map<String, StoredUser> stored = new HashMap<>();
+        jdbcTemplate.query(DIFF_SQL, rs -> {
+            boolean purged = rs.getBoolean("purged");
+            if (purged || rs.getString("email") != null) {
+                stored.put(rs.getString("id"), new StoredUser(rs.getString("email"), rs.getString("name"),
+                        rs.getString("image_url"), purged));
+            }
+        }, (Object) ids.toArray(String[]::new));
+
+        List<User> upserts = new ArrayList<>();
+        Set<String> missing = new HashSet<>();
+        for (ClerkWebhookEvent.UserData user : page) {
+            if (user.getId() == null) {
+                counts.skipped++;
+                continue;
+            }
+            StoredUser current = stored.get(user.getId());
+            if (current != null && current.purged()) {
+                counts.skipped++;
+                continue;
+            }
+
+            // Missing fields keep what is stored, as they do for webhooks
+            String email = user.getPrimaryEmail() != null ? user.getPrimaryEmail()
+                    : current != null ? current.email() : null;
+            String name = user.getFullName() != null ? user.getFullName() : current != null ? current.name() : null;
+            String imageUrl = user.getImageUrl() != null ? user.getImageUrl()
+                    : current != null ? current.imageUrl() : null;
+            if (email == null) {
+                counts.skipped++;
+            } else if (current == null) {
+                upserts.add(clerkUser(user, email, name, imageUrl));
+                missing.add(user.getId());
+            } else if (!email.equals(current.email()) || !Objects.equals(name, current.name())
+                    || !Objects.equals(imageUrl, current.imageUrl())) {
+                upserts.add(clerkUser(user, email, name, imageUrl));
+            } else {
+                counts.unchanged++;
+            }
+        }
+
+        Set<String> failed = upsertAll(upserts);
+        for (User user : upserts) {
+            if (failed.contains(user.getId())) {
+                counts.skipped++;
+            } else if (missing.contains(user.getId())) {
+                counts.created++;
+            } else {
+                counts.updated++;
+            }
+        }
+    }
+
+    // Carries Clerk's updated_at, so a page read before a newer webhook cannot undo it
+    private static User clerkUser(ClerkWebhookEvent.UserData user, String email, String name, String imageUrl) {
+        User merged = new User(user.getId(), email, name, imageUrl);
+        merged.setLastEventAt(UserService.eventTime(user.getUpdatedAt()));
+        return merged;
+    }
+
+    /**
+     * One statement for the page; if it breaks the unique email constraint
+     * (two users swapped addresses, say) the users are written one at a time
+     * so only the conflicting ones are left for a later run. Returns the ids
+     * of those.
+     */
+    private Set<String> upsertAll(List<User> users) {
+        try {
+            userService.upsertUsers(users);
+            return Set.of();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batched upsert of {} Clerk users failed, writing them one by one: {}", users.size(),
+                    e.getMessage());
+        }
+        Set<String> failed = new HashSet<>();
+        for (User user : users) {
+            try {
+                userService.upsertUser(user.getId(), user.getEmail(), user.getName(), user.getImageUrl(),
+                        user.getLastEventAt());
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Reconciling Clerk user {} failed: {}", user.getId(), e.getMessage());
+                failed.add(user.getId());
+            }
+        }
+        return failed;
+    }
+}
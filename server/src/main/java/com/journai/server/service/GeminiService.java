@@ -12,9 +12,14 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.journai.server.config.AppProperties;
+import com.journai.server.config.SampledLogFilter;
 import com.journai.server.dto.GeminiAnalysisResult;
 import com.journai.server.model.Mood;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
 @Service
 public class GeminiService {
 
@@ -26,45 +31,75 @@ public class GeminiService {
     @Autowired
     private WebClient webClient;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Observed as journai.gemini.analysis (a timer, and a span that parents
+     * the WebClient call), tagged outcome=analyzed or outcome=fallback; each
+     * fallback also counts journai.gemini.fallbacks by reason.
+     */
     public GeminiAnalysisResult analyzeJournal(String journalText) {
-        try {
+        Observation observation = Observation.createNotStarted("journai.gemini.analysis", observationRegistry)
+                .contextualName("gemini analysis")
+                .start();
+        String outcome = "fallback";
+        String fallbackReason = "request_failed";
+        try (Observation.Scope scope = observation.openScope()) {
             String apiKey = appProperties.getGemini().getApiKey();
             String model = appProperties.getGemini().getModel();
 
             if (apiKey == null || apiKey.isEmpty()) {
+                fallbackReason = "not_configured";
                 throw new RuntimeException("Gemini API key not configured");
             }
 
-            logger.info("Sending journal analysis request to Gemini, text length: {}, model: {}",
+            logger.info(SampledLogFilter.SAMPLED, "Sending journal analysis request to Gemini, text length: {}, model: {}",
                     journalText.length(), model);
 
             String prompt = createAnalysisPrompt(journalText);
             Map<String, Object> requestBody = createRequestBody(prompt);
 
+            // A URI template, so the client metrics' uri tag carries neither the key nor the model
             String response = webClient.post()
-                    .uri("https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key="
-                            + apiKey)
+                    .uri("https://generativelanguage.googleapis.com/v1beta/models/{model}:generateContent?key={key}",
+                            model, apiKey)
                     .header("Content-Type", "application/json")
                     .bodyValue(requestBody)
                     .retrieve()
                     .bodyToMono(String.class)
                     .block();
 
-            logger.info("Received response from Gemini, response length: {}",
+            logger.info(SampledLogFilter.SAMPLED, "Received response from Gemini, response length: {}",
                     response != null ? response.length() : 0);
 
-            return parseGeminiResponse(response);
+            GeminiAnalysisResult result = parseGeminiResponse(response);
+            if (result == null) {
+                fallbackReason = "unusable_response";
+                return createDefaultAnalysis();
+            }
+            outcome = "analyzed";
+            return result;
 
         } catch (Exception e) {
             logger.error("Gemini analysis failed", e);
+            observation.error(e);
 
             // Return default analysis
             return new GeminiAnalysisResult(
                     Mood.NEUTRAL,
                     "Please share your journal thoughts and experiences for analysis",
                     "Unable to analyze the provided content. Please write about your day, feelings, or experiences.");
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+            if (outcome.equals("fallback")) {
+                meterRegistry.counter("journai.gemini.fallbacks", "reason", fallbackReason).increment();
+            }
         }
     }
 
@@ -114,6 +149,8 @@ public class GeminiService {
         return requestBody;
     }
 
+    // Null when the response holds no analysis at all; parse failures are
+    // counted as journai.gemini.parse.failures by stage
     private GeminiAnalysisResult parseGeminiResponse(String response) {
         try {
             JsonNode rootNode = objectMapper.readTree(response);
@@ -136,20 +173,26 @@ public class GeminiService {
                                 analysisNode.path("reason").asText(""));
                     } catch (Exception e) {
                         // If JSON parsing fails, extract values manually
+                        countParseFailure("analysis_json");
                         return extractAnalysisFromText(textContent);
                     }
                 }
             }
 
             // Fallback
-            return createDefaultAnalysis();
+            return null;
 
         } catch (Exception e) {
             logger.error("Failed to parse Gemini response", e);
-            return createDefaultAnalysis();
+            countParseFailure("response");
+            return null;
         }
     }
 
+    private void countParseFailure(String stage) {
+        meterRegistry.counter("journai.gemini.parse.failures", "stage", stage).increment();
+    }
+
     private GeminiAnalysisResult extractAnalysisFromText(String text) {
         Mood mood = Mood.NEUTRAL;
         String summary = "";
@@ -0,0 +1,413 @@
+package com.journai.server.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.config.ReplicaRoutingDataSource;
+import com.journai.server.dto.PatchDraftRequest;
+import com.journai.server.model.Mood;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server side of editor autosave. Instead of PUTting the whole entry, the
+ * editor sends small text edits against the draft version it last saw.
+ * Drafts of entries being edited stay in memory and are written back
+ * together every app.drafts.flush-interval, so a burst of autosaves costs one
+ * row update (and one content rewrite) instead of one per request.
+ *
+ * Versions are the journal's version column: each accepted patch bumps the
+ * draft's version, and a patch against any other version is refused with the
+ * current text so the client can rebase. A flush only writes if the row is
+ * still at the version the draft was loaded from, so a full update made
+ * elsewhere is never overwritten. Drafts live on the instance serving them,
+ * like the other in-memory indexes.
+ */
+@Service
+public class JournalDraftService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalDraftService.class);
+
+    public static final int MAX_CONTENT_LENGTH = 10_000;
+
+    // Read-write, so the draft starts from the primary's copy and version. The
+    // created_at window comes from the id, as for JournalService's by-id lookups
+    private static final String LOAD_SQL = "SELECT content, version, mood, word_count, created_at FROM journals"
+            + " WHERE id = ? AND user_id = ? AND created_at BETWEEN ? AND ?";
+
+    // created_at pins the update to one partition
+    private static final String FLUSH_SQL = "UPDATE journals SET title = ?, content = ?, word_count = ?, excerpt = ?,"
+            + " embedding = ?, updated_at = ?, version = ?"
+            + " WHERE id = ? AND user_id = ? AND created_at = ? AND version = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JournalEmbedder journalEmbedder;
+
+    @Autowired
+    private JournalStatsIndex journalStatsIndex;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final ConcurrentHashMap<UUID, Draft> drafts = new ConcurrentHashMap<>();
+
+    private static final class Draft {
+        final UUID journalId;
+        final String userId;
+        final LocalDateTime createdAt;
+        final Mood mood;
+        String text;
+        long version;
+        // Version and word count of the row as last written
+        long storedVersion;
+        int storedWordCount;
+        long touchedAt = System.nanoTime();
+        boolean closed;
+
+        Draft(UUID journalId, String userId, LocalDateTime createdAt, Mood mood, String text, long version,
+                int wordCount) {
+            this.journalId = journalId;
+            this.userId = userId;
+            this.createdAt = createdAt;
+            this.mood = mood;
+            this.text = text;
+            this.version = version;
+            this.storedVersion = version;
+            this.storedWordCount = wordCount;
+        }
+    }
+
+    /** A draft's state as returned to the client. */
+    public static final class DraftState {
+        public final UUID journalId;
+        public final long version;
+        public final int length;
+        // Null in replies to accepted patches
+        public final String text;
+        public final boolean conflict;
+
+        DraftState(UUID journalId, long version, int length, String text, boolean conflict) {
+            this.journalId = journalId;
+            this.version = version;
+            this.length = length;
+            this.text = text;
+            this.conflict = conflict;
+        }
+    }
+
+    /** The draft a full update or delete found, as returned by {@link #discard}. */
+    public static final class Superseded {
+        // Versions the draft handed out; the row must move past them
+        public final long version;
+        // The row's version as the draft last loaded or wrote it
+        public final long storedVersion;
+        public final boolean conflict;
+
+        Superseded(long version, long storedVersion, boolean conflict) {
+            this.version = version;
+            this.storedVersion = storedVersion;
+            this.conflict = conflict;
+        }
+    }
+
+    private static final class PendingFlush {
+        final Draft draft;
+        final String text;
+        final long version;
+        final long storedVersion;
+        final JournalTextAnalyzer.Analysis analysis;
+        final float[] embedding;
+
+        PendingFlush(Draft draft, String text, long version, long storedVersion,
+                JournalTextAnalyzer.Analysis analysis, float[] embedding) {
+            this.draft = draft;
+            this.text = text;
+            this.version = version;
+            this.storedVersion = storedVersion;
+            this.analysis = analysis;
+            this.embedding = embedding;
+        }
+    }
+
+    /**
+     * The current draft of a journal, opening it if needed, or null if there
+     * is no such journal. Opening a draft while app.drafts.max-drafts are
+     * open fails with IllegalStateException, here and in applyPatch.
+     */
+    public DraftState getDraft(String userId, String journalId) {
+        while (true) {
+            Draft draft = open(userId, journalId);
+            if (draft == null) {
+                return null;
+            }
+            synchronized (draft) {
+                if (!draft.closed) {
+                    draft.touchedAt = System.nanoTime();
+                    return new DraftState(draft.journalId, draft.version, draft.text.length(), draft.text, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies edits made against {@code baseVersion}. Returns the new version
+     * (without text), the current state with {@code conflict} set if the draft
+     * has moved on, or null if there is no such journal. Edits that fall
+     * outside the text or leave it empty or too long are rejected with
+     * IllegalArgumentException.
+     */
+    public DraftState applyPatch(String userId, String journalId, long baseVersion,
+            List<PatchDraftRequest.Edit> edits) {
+        while (true) {
+            Draft draft = open(userId, journalId);
+            if (draft == null) {
+                return null;
+            }
+            synchronized (draft) {
+                if (draft.closed) {
+                    continue;
+                }
+                if (baseVersion != draft.version) {
+                    return new DraftState(draft.journalId, draft.version, draft.text.length(), draft.text, true);
+                }
+                String text = applyEdits(draft.text, edits);
+                draft.text = text;
+                draft.version++;
+                draft.touchedAt = System.nanoTime();
+                return new DraftState(draft.journalId, draft.version, text.length(), null, false);
+            }
+        }
+    }
+
+    static String applyEdits(String text, List<PatchDraftRequest.Edit> edits) {
+        StringBuilder result = new StringBuilder(text);
+        for (PatchDraftRequest.Edit edit : edits) {
+            int offset = edit.getOffset();
+            int remove = edit.getRemove();
+            if (offset < 0 || remove < 0 || offset > result.length() || remove > result.length() - offset) {
+                throw new IllegalArgumentException("Edit at " + offset + " removing " + remove
+                        + " is outside the text (" + result.length() + " characters)");
+            }
+            String insert = edit.getInsert() != null ? edit.getInsert() : "";
+            result.replace(offset, offset + remove, insert);
+        }
+        if (result.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Text would exceed " + MAX_CONTENT_LENGTH + " characters");
+        }
+        String patched = result.toString();
+        if (patched.isBlank()) {
+            throw new IllegalArgumentException("Journal content cannot be empty");
+        }
+        return patched;
+    }
+
+    /**
+     * Drops any draft of the journal without writing it, because a full
+     * update or a delete supersedes it. Returns null if there was none. If
+     * the caller expected a version other than the draft's (and not
+     * {@code expectedVersion < 0}, any version), the draft is kept and the
+     * result has {@code conflict} set.
+     */
+    public Superseded discard(String userId, UUID journalId, long expectedVersion) {
+        Draft draft = drafts.get(journalId);
+        if (draft == null || !draft.userId.equals(userId)) {
+            return null;
+        }
+        synchronized (draft) {
+            if (!draft.closed && expectedVersion >= 0 && expectedVersion != draft.version) {
+                return new Superseded(draft.version, draft.storedVersion, true);
+            }
+            draft.closed = true;
+            drafts.remove(journalId, draft);
+            return new Superseded(draft.version, draft.storedVersion, false);
+        }
+    }
+
+    private Draft open(String userId, String journalId) {
+        UUID id = JournalService.parseJournalId(journalId);
+        if (id == null) {
+            return null;
+        }
+        Draft draft = drafts.get(id);
+        if (draft == null) {
+            if (drafts.size() >= appProperties.getDrafts().getMaxDrafts()) {
+                // Refused rather than making room here; the next scheduled flush does that
+                throw new IllegalStateException("Too many drafts are open, retry shortly");
+            }
+            draft = load(userId, id);
+            if (draft == null) {
+                return null;
+            }
+            Draft existing = drafts.putIfAbsent(id, draft);
+            draft = existing != null ? existing : draft;
+        }
+        return draft.userId.equals(userId) ? draft : null;
+    }
+
+    private Draft load(String userId, UUID id) {
+        RowMapper<Draft> mapper = (rs, rowNum) -> {
+            String content = rs.getString("content");
+            int wordCount = rs.getInt("word_count");
+            if (rs.wasNull()) {
+                wordCount = JournalTextAnalyzer.countWords(content);
+            }
+            return new Draft(id, userId, rs.getTimestamp("created_at").toLocalDateTime(),
+                    Mood.valueOf(rs.getString("mood")), content, rs.getLong("version"), wordCount);
+        };
+        List<Draft> rows = JournalService.byId(id, (createdFrom, createdTo) -> jdbcTemplate.query(LOAD_SQL, mapper,
+                id, userId, Timestamp.valueOf(createdFrom), Timestamp.valueOf(createdTo)));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** Writes back every draft with unsaved edits, then forgets drafts left idle. */
+    @Scheduled(fixedDelayString = "${app.drafts.flush-interval:5000}")
+    public synchronized void flushDrafts() {
+        List<PendingFlush> batch = new ArrayList<>();
+        for (Draft draft : drafts.values()) {
+            String text;
+            long version;
+            long storedVersion;
+            synchronized (draft) {
+                if (draft.closed || draft.version == draft.storedVersion) {
+                    continue;
+                }
+                text = draft.text;
+                version = draft.version;
+                storedVersion = draft.storedVersion;
+            }
+            // Derived fields are computed outside the lock so patches are never held up
+            batch.add(new PendingFlush(draft, text, version, storedVersion, JournalTextAnalyzer.analyze(text),
+                    journalEmbedder.embed(text)));
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+        AppProperties.Drafts settings = appProperties.getDrafts();
+        // At the cap new drafts are refused, so make room by dropping every written-back draft, however recent
+        evictIdle(drafts.size() >= settings.getMaxDrafts() ? 0 : TimeUnit.SECONDS.toNanos(settings.getIdleSeconds()));
+    }
+
+    @PreDestroy
+    void stop() {
+        flushDrafts();
+    }
+
+    private void flush(List<PendingFlush> batch) {
+        // Sorted, so concurrent writers lock users rows in one order
+        TreeSet<String> userIds = new TreeSet<>();
+        for (PendingFlush pending : batch) {
+            userIds.add(pending.draft.userId);
+            journalStatsIndex.beginWrite(pending.draft.userId);
+            similarityIndex.beginWrite(pending.draft.userId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[][] updated = jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batch.size(), (statement, pending) -> {
+                    Draft draft = pending.draft;
+                    statement.setString(1, pending.analysis.getTitle());
+                    statement.setString(2, pending.text);
+                    statement.setInt(3, pending.analysis.getWordCount());
+                    statement.setString(4, pending.analysis.getExcerpt());
+                    statement.setBytes(5, JournalEmbedder.toBytes(pending.embedding));
+                    statement.setTimestamp(6, Timestamp.valueOf(now));
+                    statement.setLong(7, pending.version);
+                    statement.setObject(8, draft.journalId);
+                    statement.setString(9, draft.userId);
+                    statement.setTimestamp(10, Timestamp.valueOf(draft.createdAt));
+                    statement.setLong(11, pending.storedVersion);
+                });
+                jdbcTemplate.batchUpdate(JournalWriteBuffer.DATA_VERSION_SQL, new ArrayList<>(userIds),
+                        userIds.size(), (statement, userId) -> statement.setString(1, userId));
+                return updated;
+            });
+        } catch (RuntimeException e) {
+            for (PendingFlush pending : batch) {
+                journalStatsIndex.completeWrite(pending.draft.userId, null);
+                similarityIndex.completeWrite(pending.draft.userId);
+            }
+            if (batch.size() == 1) {
+                // The draft stays dirty and is retried on the next flush
+                logger.error("Draft flush failed for journal: {}", batch.get(0).draft.journalId, e);
+                return;
+            }
+            logger.warn("Flushing {} drafts failed, retrying individually", batch.size(), e);
+            for (PendingFlush pending : batch) {
+                flush(List.of(pending));
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingFlush pending = batch.get(i);
+            Draft draft = pending.draft;
+            if (counts[0][i] == 0) {
+                // The row moved on without us (another instance, or a full update that raced the flush)
+                journalStatsIndex.completeWrite(draft.userId, null);
+                similarityIndex.completeWrite(draft.userId);
+                synchronized (draft) {
+                    draft.closed = true;
+                    drafts.remove(draft.journalId, draft);
+                }
+                logger.warn("Draft for journal {} was superseded at version {}, dropping it",
+                        draft.journalId, pending.storedVersion);
+                continue;
+            }
+
+            int previousWordCount;
+            synchronized (draft) {
+                previousWordCount = draft.storedWordCount;
+                draft.storedVersion = pending.version;
+                draft.storedWordCount = pending.analysis.getWordCount();
+            }
+            journalStatsIndex.completeWrite(draft.userId, JournalStatsIndex.Patch.replaced(draft.createdAt,
+                    draft.mood, previousWordCount, draft.mood, pending.analysis.getWordCount()));
+            similarityIndex.completeWrite(draft.userId);
+            similarityIndex.put(draft.userId, draft.journalId.toString(), pending.embedding);
+            replicaRoutingDataSource.markWritten(draft.userId);
+        }
+        logger.debug("Flushed {} journal drafts for {} users", batch.size(), userIds.size());
+    }
+
+    private void evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        for (Draft draft : drafts.values()) {
+            synchronized (draft) {
+                if (draft.version == draft.storedVersion && now - draft.touchedAt >= idleNanos) {
+                    draft.closed = true;
+                    drafts.remove(draft.journalId, draft);
+                }
+            }
+        }
+    }
+}
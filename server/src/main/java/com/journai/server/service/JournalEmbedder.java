@@ -0,0 +1,113 @@
+package com.journai.server.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Embeds journal text into a fixed-dimension, L2-normalised float vector
+ * entirely in-process. Words and their character trigrams are feature-hashed
+ * into {@link #DIMENSIONS} signed buckets, so similar vocabulary (including
+ * inflections such as "walk"/"walking") lands close together without any
+ * model download or external API call.
+ */
+@Component
+public class JournalEmbedder {
+
+    public static final int DIMENSIONS = 128;
+
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "had", "has", "have", "i",
+            "if", "in", "is", "it", "its", "me", "my", "of", "on", "or", "so", "that", "the", "then", "there",
+            "this", "to", "was", "we", "were", "with", "you", "your");
+
+    public float[] embed(String text) {
+        float[] vector = new float[DIMENSIONS];
+        if (text == null || text.isEmpty()) {
+            return vector;
+        }
+
+        StringBuilder word = new StringBuilder();
+        boolean inTag = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (c == '<') {
+                inTag = true;
+            } else if (c == '>' && inTag) {
+                inTag = false;
+                c = ' ';
+            }
+            if (inTag) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                addWord(vector, word);
+                word.setLength(0);
+            }
+        }
+
+        normalize(vector);
+        return vector;
+    }
+
+    private static void addWord(float[] vector, StringBuilder word) {
+        if (word.length() < 2 || STOP_WORDS.contains(word.toString())) {
+            return;
+        }
+        addFeature(vector, hash(word, 0, word.length(), 0x811c9dc5), 1f);
+
+        // Trigrams of "^word$" so shared stems still overlap
+        int length = word.length();
+        word.insert(0, '^').append('$');
+        for (int i = 0; i + 3 <= length + 2; i++) {
+            addFeature(vector, hash(word, i, i + 3, 0x01000193), TRIGRAM_WEIGHT);
+        }
+    }
+
+    private static void addFeature(float[] vector, int hash, float weight) {
+        int bucket = (hash >>> 1) % DIMENSIONS;
+        vector[bucket] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    // FNV-1a, seeded so words and trigrams hash independently
+    private static int hash(CharSequence text, int from, int to, int seed) {
+        int hash = seed;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    private static void normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (sumOfSquares == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
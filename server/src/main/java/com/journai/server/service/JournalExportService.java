@@ -0,0 +1,175 @@
+package com.journai.server.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journai.server.dto.JournalResponse;
+import com.journai.server.repository.JournalExportView;
+import com.journai.server.repository.JournalRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes a user's full journal history as NDJSON or CSV. Rows are pulled from
+ * a server-side cursor and written one at a time, so heap use does not grow
+ * with the size of the history.
+ */
+@Service
+public class JournalExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalExportService.class);
+
+    private static final String[] CSV_HEADER = { "id", "title", "mood", "summary", "word_count", "created_at",
+            "updated_at", "content" };
+
+    // Rows between flushes to the client; also bounds the persistence context
+    private static final int FLUSH_INTERVAL = 500;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromString(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    @Autowired
+    private JournalRepository journalRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Transactional(readOnly = true)
+    public long exportJournals(String userId, Format format, OutputStream out) throws IOException {
+        try (Stream<JournalExportView> rows = journalRepository.streamExportRowsByUserId(userId)) {
+            long written = writeRows(rows, format, out, objectMapper, entityManager::clear);
+            logger.info("Exported {} journal entries as {} for user: {}", written, format, userId);
+            return written;
+        }
+    }
+
+    /**
+     * Writes every row to {@code out} without retaining any of them, calling
+     * {@code onFlush} each time a batch has been flushed downstream.
+     */
+    static long writeRows(Stream<JournalExportView> rows, Format format, OutputStream out,
+            ObjectMapper objectMapper, Runnable onFlush) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            // One object per line, terminated by '\n' rather than space-separated
+            json.setRootValueSeparator(null);
+        }
+        if (format == Format.CSV) {
+            writeCsvLine(writer, CSV_HEADER);
+        }
+
+        long written = 0;
+        var iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            JournalExportView row = iterator.next();
+            if (json != null) {
+                writeJsonLine(json, row);
+            } else {
+                writeCsvLine(writer, new String[] {
+                        row.getId().toString(),
+                        row.getTitle(),
+                        row.getMood() != null ? row.getMood().name().toLowerCase() : null,
+                        row.getSummary(),
+                        row.getWordCount() != null ? row.getWordCount().toString() : null,
+                        JournalResponse.formatCreatedAt(row.getCreatedAt()),
+                        JournalResponse.formatCreatedAt(row.getUpdatedAt()),
+                        row.getContent() });
+            }
+            if (++written % FLUSH_INTERVAL == 0) {
+                if (json != null) {
+                    json.flush();
+                }
+                writer.flush();
+                onFlush.run();
+            }
+        }
+
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+        return written;
+    }
+
+    private static void writeJsonLine(JsonGenerator json, JournalExportView row) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", row.getId().toString());
+        json.writeStringField("title", row.getTitle());
+        json.writeStringField("content", row.getContent());
+        json.writeStringField("mood", row.getMood() != null ? row.getMood().name().toLowerCase() : null);
+        json.writeStringField("summary", row.getSummary());
+        if (row.getWordCount() != null) {
+            json.writeNumberField("word_count", row.getWordCount());
+        }
+        json.writeStringField("created_at", JournalResponse.formatCreatedAt(row.getCreatedAt()));
+        json.writeStringField("updated_at", JournalResponse.formatCreatedAt(row.getUpdatedAt()));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static void writeCsvLine(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+                    || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
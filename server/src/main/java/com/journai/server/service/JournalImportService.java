@@ -0,0 +1,394 @@
+package com.journai.server.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journai.server.config.AppProperties;
+import com.journai.server.dto.JournalImportResult;
+import com.journai.server.model.Mood;
+import com.journai.server.model.UuidV7;
+import com.journai.server.repository.UserRepository;
+
+/**
+ * Bulk NDJSON import. Lines are parsed, validated and given derived fields
+ * (title, word count, excerpt, embedding) one at a time, then written in
+ * fixed-size batches, each in its own transaction, with batched INSERTs for
+ * small files and COPY once an import turns out to be large. Invalid lines
+ * and failed batches are reported without aborting the rest of the import.
+ */
+@Service
+public class JournalImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalImportService.class);
+
+    // Same limits as SaveJournalRequest and the journals.title column
+    private static final int MAX_CONTENT_LENGTH = 10000;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Each month of created_at is a partition; earlier dates are typos or garbage
+    private static final LocalDateTime EARLIEST_CREATED_AT = LocalDate.of(1970, 1, 1).atStartOfDay();
+
+    static final String INSERT_SQL = "INSERT INTO journals"
+            + " (id, user_id, title, content, mood, summary, word_count, excerpt, embedding, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COPY_SQL = "COPY journals"
+            + " (id, user_id, title, content, mood, summary, word_count, excerpt, embedding, created_at, updated_at)"
+            + " FROM STDIN WITH (FORMAT csv)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JournalEmbedder journalEmbedder;
+
+    @Autowired
+    private JournalStatsIndex journalStatsIndex;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private JournalPartitionMaintenance journalPartitionMaintenance;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // At most one running import per user, readable by the progress endpoint
+    private final ConcurrentHashMap<String, Progress> running = new ConcurrentHashMap<>();
+
+    private static class ImportRow {
+        final int line;
+        final String title;
+        final String content;
+        final Mood mood;
+        final String summary;
+        final LocalDateTime createdAt;
+        final int wordCount;
+        final String excerpt;
+
+        ImportRow(int line, String title, String content, Mood mood, String summary, LocalDateTime createdAt,
+                int wordCount, String excerpt) {
+            this.line = line;
+            this.title = title;
+            this.content = content;
+            this.mood = mood;
+            this.summary = summary;
+            this.createdAt = createdAt;
+            this.wordCount = wordCount;
+            this.excerpt = excerpt;
+        }
+    }
+
+    private static class Progress {
+        final long startedAt = System.currentTimeMillis();
+        final List<JournalImportResult.LineError> errors = new CopyOnWriteArrayList<>();
+        // Months this import needs a new partition for, bounded by max-new-partitions
+        final Set<YearMonth> newPartitionMonths = new HashSet<>();
+        volatile int processed;
+        volatile int imported;
+        volatile int failed;
+        volatile boolean errorsTruncated;
+
+        void addError(int line, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new JournalImportResult.LineError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        JournalImportResult toResult(String status) {
+            return new JournalImportResult(status, processed, imported, failed, List.copyOf(errors),
+                    errorsTruncated, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    public JournalImportResult getProgress(String userId) {
+        Progress progress = running.get(userId);
+        return progress != null ? progress.toResult("running") : null;
+    }
+
+    public JournalImportResult importJournals(String userId, InputStream body) throws IOException {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+
+        Progress progress = new Progress();
+        if (running.putIfAbsent(userId, progress) != null) {
+            throw new IllegalStateException("An import is already running for this user");
+        }
+
+        AppProperties.Import settings = appProperties.getImport();
+        // Maintenance keeps partitions created this far ahead
+        LocalDate latestCreatedAt = LocalDate.now().plusMonths(appProperties.getPartitions().getMonthsAhead());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<ImportRow> batch = new ArrayList<>(settings.getBatchSize());
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (progress.processed >= settings.getMaxEntries()) {
+                    progress.addError(lineNumber, "Import limit of " + settings.getMaxEntries() + " entries reached");
+                    break;
+                }
+                progress.processed++;
+
+                try {
+                    ImportRow row = parseLine(lineNumber, line, latestCreatedAt);
+                    reservePartition(YearMonth.from(row.createdAt), progress);
+                    batch.add(row);
+                } catch (IllegalArgumentException e) {
+                    progress.failed++;
+                    progress.addError(lineNumber, e.getMessage());
+                }
+
+                if (batch.size() == settings.getBatchSize()) {
+                    writeBatch(userId, batch, progress.processed > settings.getCopyThreshold(), progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(userId, batch, progress.processed > settings.getCopyThreshold(), progress);
+            }
+
+            JournalImportResult result = progress.toResult("completed");
+            logger.info("Journal import finished for user: {}, imported: {}, failed: {}, durationMs: {}",
+                    userId, result.getImported(), result.getFailed(), result.getDurationMs());
+            return result;
+        } finally {
+            running.remove(userId);
+        }
+    }
+
+    private ImportRow parseLine(int lineNumber, String line, LocalDate latestCreatedAt) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+
+        String content = text(node, "content", "text");
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("content is required");
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("content exceeds " + MAX_CONTENT_LENGTH + " characters");
+        }
+
+        JournalTextAnalyzer.Analysis analysis = JournalTextAnalyzer.analyze(content);
+        String title = text(node, "title", null);
+        if (title == null || title.isBlank()) {
+            title = analysis.getTitle();
+        } else if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title exceeds " + MAX_TITLE_LENGTH + " characters");
+        }
+
+        LocalDateTime createdAt = parseCreatedAt(text(node, "created_at", "createdAt"));
+        if (createdAt.isBefore(EARLIEST_CREATED_AT) || createdAt.toLocalDate().isAfter(latestCreatedAt)) {
+            throw new IllegalArgumentException("created_at must be between " + EARLIEST_CREATED_AT.toLocalDate()
+                    + " and " + latestCreatedAt);
+        }
+
+        return new ImportRow(lineNumber, title, content,
+                JournalService.mapMoodToEnum(text(node, "mood", null)),
+                text(node, "summary", null),
+                createdAt,
+                analysis.getWordCount(), analysis.getExcerpt());
+    }
+
+    // Each month without a partition costs a CREATE TABLE, so one import may only add so many
+    private void reservePartition(YearMonth month, Progress progress) {
+        if (progress.newPartitionMonths.contains(month) || journalPartitionMaintenance.hasPartition(month)) {
+            return;
+        }
+        int maxNewPartitions = appProperties.getImport().getMaxNewPartitions();
+        if (progress.newPartitionMonths.size() >= maxNewPartitions) {
+            throw new IllegalArgumentException("created_at month " + month
+                    + " has no partition and this import already adds the limit of " + maxNewPartitions);
+        }
+        progress.newPartitionMonths.add(month);
+    }
+
+    private static String text(JsonNode node, String field, String alias) {
+        JsonNode value = node.get(field);
+        if ((value == null || value.isNull()) && alias != null) {
+            value = node.get(alias);
+        }
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Accepts the export's ISO instants as well as local date-times and dates
+    private static LocalDateTime parseCreatedAt(String value) {
+        if (value == null || value.isBlank()) {
+            return LocalDateTime.now();
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            if (value.endsWith("Z") || value.lastIndexOf('+') > 10 || value.lastIndexOf('-') > 10) {
+                return OffsetDateTime.parse(value).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid created_at: " + value);
+        }
+    }
+
+    private void writeBatch(String userId, List<ImportRow> rows, boolean useCopy, Progress progress) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<YearMonth> months = new TreeSet<>();
+        for (ImportRow row : rows) {
+            months.add(YearMonth.from(row.createdAt));
+        }
+
+        journalStatsIndex.beginWrite(userId);
+        try {
+            // Historic entries may predate every existing monthly partition; created up front so the
+            // partition lock is not held for the whole batch
+            journalPartitionMaintenance.ensurePartitions(months);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (useCopy) {
+                    copyRows(userId, rows, now);
+                } else {
+                    insertRows(userId, rows, now);
+                }
+                userRepository.incrementDataVersion(userId);
+            });
+            progress.imported += rows.size();
+        } catch (RuntimeException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Journal import batch failed for user: {}, lines {}-{}: {}",
+                    userId, rows.get(0).line, rows.get(rows.size() - 1).line, reason);
+            progress.failed += rows.size();
+            progress.addError(rows.get(0).line, "Batch of " + rows.size() + " entries through line "
+                    + rows.get(rows.size() - 1).line + " was not saved: " + reason);
+        } finally {
+            // The in-memory indexes rebuild from the database on next use
+            journalStatsIndex.completeWrite(userId, null);
+            journalStatsIndex.evict(userId);
+            similarityIndex.evict(userId);
+        }
+    }
+
+    private void insertRows(String userId, List<ImportRow> rows, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setObject(1, UuidV7.forCreatedAt(row.createdAt));
+            statement.setString(2, userId);
+            statement.setString(3, row.title);
+            statement.setString(4, row.content);
+            statement.setString(5, row.mood.name());
+            if (row.summary != null) {
+                statement.setString(6, row.summary);
+            } else {
+                statement.setNull(6, Types.VARCHAR);
+            }
+            statement.setInt(7, row.wordCount);
+            statement.setString(8, row.excerpt);
+            statement.setBytes(9, JournalEmbedder.toBytes(journalEmbedder.embed(row.content)));
+            statement.setTimestamp(10, Timestamp.valueOf(row.createdAt));
+            statement.setTimestamp(11, Timestamp.valueOf(now));
+        });
+    }
+
+    private void copyRows(String userId, List<ImportRow> rows, LocalDateTime now) {
+        StringBuilder csv = new StringBuilder(rows.size() * 1024);
+        HexFormat hex = HexFormat.of();
+        for (ImportRow row : rows) {
+            csv.append(UuidV7.forCreatedAt(row.createdAt)).append(',');
+            appendCsv(csv, userId).append(',');
+            appendCsv(csv, row.title).append(',');
+            appendCsv(csv, row.content).append(',');
+            csv.append(row.mood.name()).append(',');
+            appendCsv(csv, row.summary).append(',');
+            csv.append(row.wordCount).append(',');
+            appendCsv(csv, row.excerpt).append(',');
+            csv.append("\\x").append(hex.formatHex(JournalEmbedder.toBytes(journalEmbedder.embed(row.content))))
+                    .append(',');
+            csv.append(row.createdAt).append(',');
+            csv.append(now).append('\n');
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("COPY into journals failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // Quoted so empty strings stay distinct from NULL, which COPY writes as nothing
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
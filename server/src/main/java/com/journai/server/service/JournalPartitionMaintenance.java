@@ -0,0 +1,106 @@
+package com.journai.server.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.journai.server.config.AppProperties;
+
+/**
+ * Keeps the monthly journal partitions (see
+ * db/migration/V5__partition_journals_by_month.sql) created ahead of the
+ * writes that need them. Runs at startup and then daily; the SQL functions
+ * are idempotent and serialise themselves, so every instance may run it.
+ */
+@Component
+public class JournalPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalPartitionMaintenance.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'journals_y'uuuu'm'MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    // Months that have a partition, as last read from the catalog
+    private volatile Set<YearMonth> partitionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        AppProperties.Partitions settings = appProperties.getPartitions();
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT journal_partition_maintenance(?)",
+                    Integer.class, settings.getMonthsAhead());
+            logger.info("Journal partition maintenance finished, partitions created: {}", created);
+            loadPartitionMonths();
+        } catch (DataAccessException e) {
+            logger.error("Journal partition maintenance failed", e);
+        }
+    }
+
+    public boolean hasPartition(YearMonth month) {
+        Set<YearMonth> months = partitionMonths;
+        if (months == null) {
+            months = loadPartitionMonths();
+        }
+        return months.contains(month);
+    }
+
+    /**
+     * Creates any missing partitions for the given months, and only those:
+     * months in between are left alone. Used by writers whose dates are not
+     * "now", such as bulk import of historic entries. Each month is created
+     * in its own short transaction, so call this before the transaction that
+     * writes the rows rather than inside it; months already known to have a
+     * partition cost nothing.
+     */
+    public int ensurePartitions(Collection<YearMonth> months) {
+        List<YearMonth> missing = months.stream().filter(month -> !hasPartition(month)).toList();
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        int created = 0;
+        for (YearMonth month : missing) {
+            LocalDate first = month.atDay(1);
+            created += transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                    "SELECT journal_ensure_partitions(?, ?)", Integer.class, first, first));
+        }
+        Set<YearMonth> known = new HashSet<>(partitionMonths);
+        known.addAll(missing);
+        partitionMonths = Set.copyOf(known);
+        return created;
+    }
+
+    private Set<YearMonth> loadPartitionMonths() {
+        Set<YearMonth> months = new HashSet<>();
+        for (String name : jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'journals'::regclass"
+                + " AND c.relname ~ '^journals_y[0-9]{4}m[0-9]{2}$'", String.class)) {
+            months.add(YearMonth.parse(name, PARTITION_NAME));
+        }
+        partitionMonths = Set.copyOf(months);
+        return partitionMonths;
+    }
+}
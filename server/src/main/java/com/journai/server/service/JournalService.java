@@ -1,39 +1,87 @@
 package com.journai.server.service;
 
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.Arrays;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journai.server.config.SampledLogFilter;
+import com.journai.server.dto.JournalCursor;
+import com.journai.server.dto.JournalPageResponse;
+import com.journai.server.dto.JournalResponse;
+import com.journai.server.dto.JournalSearchResult;
+import com.journai.server.dto.SearchCursor;
 import com.journai.server.model.Journal;
 import com.journai.server.model.Mood;
 import com.journai.server.model.User;
+import com.journai.server.model.UuidV7;
+import com.journai.server.repository.JournalListView;
 import com.journai.server.repository.JournalRepository;
 import com.journai.server.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
+
+// Every public method is timed, tagged by method name (see MetricsConfig)
 @Service
 @Transactional
+@Timed(value = "journai.journal.service", description = "JournalService calls")
 public class JournalService {
 
     private static final Logger logger = LoggerFactory.getLogger(JournalService.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 31;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Expected version of an unconditional update or delete
+    public static final long ANY_VERSION = -1;
+
+    // Open bounds for listings without a month filter or cursor
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
     @Autowired
     private JournalRepository journalRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JournalStatsIndex journalStatsIndex;
+
+    @Autowired
+    private JournalEmbedder journalEmbedder;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private JournalWriteBuffer journalWriteBuffer;
+
+    @Autowired
+    private JournalDraftService journalDraftService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public static class JournalData {
@@ -106,6 +154,25 @@ public class JournalService {
         }
     }
 
+    /** Outcome of a conditional update or delete. */
+    public static final class WriteResult {
+        public enum Status {
+            DONE, NOT_FOUND, CONFLICT
+        }
+
+        public final Status status;
+        // The entry as written, for updates that succeeded
+        public final Journal journal;
+        // The entry's version after the write, or its current version on conflict
+        public final long version;
+
+        private WriteResult(Status status, Journal journal, long version) {
+            this.status = status;
+            this.journal = journal;
+            this.version = version;
+        }
+    }
+
     // private Mood mapMoodToEnum(Mood mood) {
     // if (mood == null) {
     // return Mood.NEUTRAL;
@@ -114,7 +181,7 @@ public class JournalService {
     // return mood;
     // }
 
-    public Mood mapMoodToEnum(String mood) {
+    public static Mood mapMoodToEnum(String mood) {
         if (mood == null || mood.isEmpty()) {
             return Mood.NEUTRAL;
         }
@@ -136,68 +203,26 @@ public class JournalService {
         return moodMap.getOrDefault(mood.toLowerCase(), Mood.NEUTRAL);
     }
 
-    private String generateTitle(String text) {
-        // Remove HTML tags
-        String cleanText = text.replaceAll("<[^>]*>", "");
-
-        // Remove markdown formatting
-        cleanText = cleanText
-                .replaceAll("^#{1,6}\\s+", "")
-                .replaceAll("\\*\\*([^*]+)\\*\\*", "$1")
-                .replaceAll("\\*([^*]+)\\*", "$1")
-                .replaceAll("__([^_]+)__", "$1")
-                .replaceAll("_([^_]+)_", "$1")
-                .replaceAll("~~([^~]+)~~", "$1")
-                .replaceAll("```[\\s\\S]*?```", "")
-                .replaceAll("`([^`]+)`", "$1")
-                .replaceAll("\\[([^\\]]+)\\]\\([^)]+\\)", "$1")
-                .replaceAll("^\\s*[-*+]\\s+", "")
-                .replaceAll("^\\s*\\d+\\.\\s+", "")
-                .replaceAll("^\\s*>\\s+", "")
-                .replaceAll("\\s+", " ")
-                .trim();
-
-        String[] words = cleanText.split("\\s+");
-        List<String> titleWords = Arrays.asList(words).subList(0, Math.min(words.length, 8));
-        String title = String.join(" ", titleWords);
-
-        if (title.length() > 50) {
-            title = title.substring(0, 47) + "...";
-        }
-
-        return title.isEmpty() ? "Journal Entry" : title;
-    }
-
-    private int calculateWordCount(String content) {
-        if (content == null || content.trim().isEmpty()) {
-            return 0;
-        }
-        // Remove HTML tags and count words
-        String textOnly = content.replaceAll("<[^>]*>", " ");
-        String[] words = textOnly.trim().split("\\s+");
-        return words.length;
-    }
-
     public Journal saveJournal(JournalData journalData) {
         try {
             logger.debug("Saving journal for user: {}", journalData.getUserId());
 
-            // Ensure user exists
-            User user = userRepository.findById(journalData.getUserId())
-                    .orElseThrow(() -> new RuntimeException("User not found: " + journalData.getUserId()));
-
-            // Generate title if not provided
-            String title = journalData.getTitle() != null ? journalData.getTitle()
-                    : generateTitle(journalData.getText());
+            // A reference needs no SELECT; the foreign key still rejects unknown users
+            User user = userRepository.getReferenceById(journalData.getUserId());
 
-            // Convert mood to enum
-            Mood moodEnum = mapMoodToEnum(journalData.getMood());
+            Mood moodEnum = journalData.getMood() != null ? journalData.getMood() : Mood.NEUTRAL;
 
             String content = journalData.getText();
             if (content == null || content.isEmpty()) {
                 throw new IllegalArgumentException("Journal content cannot be empty");
             }
 
+            // Title (if not provided), word count and excerpt in one pass over the content
+            JournalTextAnalyzer.Analysis text = JournalTextAnalyzer.analyze(content);
+            String title = journalData.getTitle() != null ? journalData.getTitle() : text.getTitle();
+            int wordCount = text.getWordCount();
+            float[] embedding = journalEmbedder.embed(content);
+
             // Create and save journal
             Journal journal = new Journal();
             journal.setUser(user);
@@ -205,10 +230,29 @@ public class JournalService {
             journal.setContent(content);
             journal.setMood(moodEnum);
             journal.setSummary(journalData.getSummary());
+            journal.setWordCount(wordCount);
+            journal.setExcerpt(text.getExcerpt());
+            journal.setEmbedding(JournalEmbedder.toBytes(embedding));
+
+            if (journalWriteBuffer.isEnabled()) {
+                LocalDateTime now = LocalDateTime.now();
+                journal.setCreatedAt(now);
+                journal.setUpdatedAt(now);
+                // Waits for the batch to commit; this transaction never fetches a connection
+                CompletableFuture<Journal> pending = journalWriteBuffer.submit(journal, embedding);
+                Journal buffered = pending != null ? journalWriteBuffer.awaitCommit(pending) : null;
+                if (buffered != null) {
+                    return buffered;
+                }
+            }
 
             Journal savedJournal = journalRepository.save(journal);
+            recordJournalWrite(user.getId(),
+                    JournalStatsIndex.Patch.added(savedJournal.getCreatedAt(), moodEnum, wordCount));
+            trackSimilarityWrite(user.getId(), () -> similarityIndex.put(user.getId(), savedJournal.getId().toString(),
+                    embedding));
 
-            logger.info("Journal saved successfully for user: {}, journalId: {}",
+            logger.info(SampledLogFilter.SAMPLED, "Journal saved successfully for user: {}, journalId: {}",
                     journalData.getUserId(), savedJournal.getId());
 
             return savedJournal;
@@ -219,34 +263,71 @@ public class JournalService {
         }
     }
 
-    public Journal updateJournal(String journalId, String userId, JournalData journalData) {
+    /**
+     * Replaces an entry's content in one conditional UPDATE. With an
+     * {@code expectedVersion} other than {@link #ANY_VERSION}, the write only
+     * happens if the entry (or its open autosave draft) is still at that
+     * version.
+     */
+    public WriteResult updateJournal(String journalId, String userId, JournalData journalData,
+            long expectedVersion) {
         try {
-            Journal journal = journalRepository.findByIdAndUser_Id(journalId, userId)
-                    .orElse(null);
-
-            if (journal == null) {
-                return null;
+            UUID id = parseJournalId(journalId);
+            if (id == null) {
+                return new WriteResult(WriteResult.Status.NOT_FOUND, null, 0);
             }
 
-            // Update journal fields
-            String title = journalData.getTitle() != null ? journalData.getTitle()
-                    : generateTitle(journalData.getText());
-            Mood moodEnum = mapMoodToEnum(journalData.getMood());
+            Mood moodEnum = journalData.getMood() != null ? journalData.getMood() : Mood.NEUTRAL;
 
             String content = journalData.getText();
             if (content == null || content.isEmpty()) {
                 throw new IllegalArgumentException("Journal content cannot be empty");
             }
 
+            // A full update supersedes any autosave draft; versions it handed out are never reused
+            JournalDraftService.Superseded draft = journalDraftService.discard(userId, id, expectedVersion);
+            if (draft != null && draft.conflict) {
+                return new WriteResult(WriteResult.Status.CONFLICT, null, draft.version);
+            }
+            long[] versions = rowVersions(draft, expectedVersion);
+
+            JournalTextAnalyzer.Analysis text = JournalTextAnalyzer.analyze(content);
+            String title = journalData.getTitle() != null ? journalData.getTitle() : text.getTitle();
+            int wordCount = text.getWordCount();
+            float[] embedding = journalEmbedder.embed(content);
+            LocalDateTime now = LocalDateTime.now();
+
+            byte[] embeddingBytes = JournalEmbedder.toBytes(embedding);
+            List<Object[]> rows = byId(id, (createdFrom, createdTo) -> journalRepository.updateIfVersion(id, userId,
+                    createdFrom, createdTo, versions[0], versions[1], draft != null ? draft.version : -1, title,
+                    content, moodEnum.name(), journalData.getSummary(), wordCount, text.getExcerpt(), embeddingBytes,
+                    now));
+            if (rows.isEmpty()) {
+                return new WriteResult(WriteResult.Status.NOT_FOUND, null, 0);
+            }
+            Object[] row = rows.get(0);
+            if (row[5] == null) {
+                return new WriteResult(WriteResult.Status.CONFLICT, null, ((Number) row[1]).longValue());
+            }
+
+            Journal journal = new Journal();
+            journal.setId(id);
             journal.setTitle(title);
             journal.setContent(content);
             journal.setMood(moodEnum);
             journal.setSummary(journalData.getSummary());
+            journal.setWordCount(wordCount);
+            journal.setExcerpt(text.getExcerpt());
+            journal.setCreatedAt(toLocalDateTime(row[0]));
+            journal.setUpdatedAt(now);
+            journal.setVersion(((Number) row[5]).longValue());
 
-            Journal updatedJournal = journalRepository.save(journal);
+            trackStatsWrite(userId, JournalStatsIndex.Patch.replaced(journal.getCreatedAt(),
+                    Mood.valueOf((String) row[2]), previousWordCount(row), moodEnum, wordCount));
+            trackSimilarityWrite(userId, () -> similarityIndex.put(userId, id.toString(), embedding));
 
-            logger.info("Journal updated successfully: {}", journalId);
-            return updatedJournal;
+            logger.info(SampledLogFilter.SAMPLED, "Journal updated successfully: {}", journalId);
+            return new WriteResult(WriteResult.Status.DONE, journal, journal.getVersion());
 
         } catch (Exception e) {
             logger.error("Error updating journal: {}", journalId, e);
@@ -254,39 +335,122 @@ public class JournalService {
         }
     }
 
-    public List<Journal> getUserJournals(String userId, int limit, int offset, String selectedMonth) {
-        try {
-            Pageable pageable = PageRequest.of(offset / limit, limit);
-
-            if (selectedMonth != null && !selectedMonth.isEmpty()) {
-                YearMonth yearMonth = YearMonth.parse(selectedMonth);
-                LocalDateTime startDate = yearMonth.atDay(1).atStartOfDay();
-                LocalDateTime endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
+    @Transactional(readOnly = true)
+    public Slice<JournalListView> getUserJournals(String userId, String selectedMonth, String cursor, int limit) {
+        LocalDateTime startDate = EARLIEST;
+        LocalDateTime endDate = LATEST;
+        if (selectedMonth != null && !selectedMonth.isEmpty()) {
+            YearMonth yearMonth = YearMonth.parse(selectedMonth);
+            startDate = yearMonth.atDay(1).atStartOfDay();
+            endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
+        }
 
-                return journalRepository.findByUserIdAndDateRange(userId, startDate, endDate);
-            } else {
-                return journalRepository.findByUser_IdOrderByCreatedAtDesc(userId, pageable).getContent();
-            }
+        JournalCursor position = cursor != null && !cursor.isEmpty()
+                ? JournalCursor.decode(cursor)
+                : new JournalCursor(LATEST, MAX_ID);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
+        try {
+            return journalRepository.findKeysetPage(userId, startDate, endDate,
+                    position.getCreatedAt(), position.getId(), PageRequest.of(0, pageSize));
         } catch (Exception e) {
             logger.error("Error fetching user journals for user: {}", userId, e);
             throw new RuntimeException("Failed to fetch user journals", e);
         }
     }
 
+    @Transactional(readOnly = true)
+    public JournalPageResponse<JournalSearchResult> searchJournals(String userId, String query, String cursor,
+            int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+
+        SearchCursor position = cursor != null && !cursor.isEmpty()
+                ? SearchCursor.decode(cursor)
+                : new SearchCursor(Float.MAX_VALUE, MAX_ID);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Object[]> rows;
+        try {
+            // One extra row tells us whether another page exists
+            rows = journalRepository.searchByUserId(userId, query.trim(), position.getRank(), position.getId(),
+                    pageSize + 1);
+        } catch (Exception e) {
+            logger.error("Error searching journals for user: {}", userId, e);
+            throw new RuntimeException("Failed to search journals", e);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<JournalSearchResult> results = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (Object[] row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            results.add(new JournalSearchResult(
+                    row[0].toString(),
+                    (String) row[1],
+                    Mood.valueOf((String) row[2]),
+                    row[3] != null ? (String) row[3] : "",
+                    JournalResponse.formatCreatedAt(toLocalDateTime(row[4])),
+                    row[5] != null ? ((Number) row[5]).intValue() : 0,
+                    (String) row[6],
+                    ((Number) row[7]).floatValue()));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            JournalSearchResult last = results.get(results.size() - 1);
+            nextCursor = new SearchCursor(last.getRank(), UUID.fromString(last.getId())).encode();
+        }
+        return new JournalPageResponse<>(results, nextCursor, hasMore);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    @Transactional(readOnly = true)
     public Journal getJournalById(String journalId, String userId) {
-        return journalRepository.findByIdAndUser_Id(journalId, userId).orElse(null);
+        UUID id = parseJournalId(journalId);
+        if (id == null) {
+            return null;
+        }
+        return byId(id, (createdFrom, createdTo) -> journalRepository.findByIdAndUser_IdAndCreatedAtBetween(id,
+                userId, createdFrom, createdTo)).orElse(null);
     }
 
-    public void deleteJournal(String journalId, String userId) {
+    /**
+     * Deletes an entry in one conditional DELETE, under the same version
+     * rules as {@link #updateJournal}.
+     */
+    public WriteResult deleteJournal(String journalId, String userId, long expectedVersion) {
         try {
-            // Verify the journal exists and belongs to the user before deleting
-            journalRepository.findByIdAndUser_Id(journalId, userId)
-                    .orElseThrow(() -> new RuntimeException("Journal not found"));
+            UUID id = parseJournalId(journalId);
+            if (id == null) {
+                return new WriteResult(WriteResult.Status.NOT_FOUND, null, 0);
+            }
 
-            journalRepository.deleteByIdAndUser_Id(journalId, userId);
+            JournalDraftService.Superseded draft = journalDraftService.discard(userId, id, expectedVersion);
+            if (draft != null && draft.conflict) {
+                return new WriteResult(WriteResult.Status.CONFLICT, null, draft.version);
+            }
+            long[] versions = rowVersions(draft, expectedVersion);
 
-            logger.info("Journal deleted successfully: {}", journalId);
+            List<Object[]> rows = byId(id, (createdFrom, createdTo) -> journalRepository.deleteIfVersion(id, userId,
+                    createdFrom, createdTo, versions[0], versions[1]));
+            if (rows.isEmpty()) {
+                return new WriteResult(WriteResult.Status.NOT_FOUND, null, 0);
+            }
+            Object[] row = rows.get(0);
+            long version = ((Number) row[1]).longValue();
+            if (row[5] == null) {
+                return new WriteResult(WriteResult.Status.CONFLICT, null, version);
+            }
+
+            trackStatsWrite(userId, JournalStatsIndex.Patch.removed(toLocalDateTime(row[0]),
+                    Mood.valueOf((String) row[2]), previousWordCount(row)));
+            trackSimilarityWrite(userId, () -> similarityIndex.remove(userId, id.toString()));
+
+            logger.info(SampledLogFilter.SAMPLED, "Journal deleted successfully: {}", journalId);
+            return new WriteResult(WriteResult.Status.DONE, null, version);
 
         } catch (Exception e) {
             logger.error("Error deleting journal: {}", journalId, e);
@@ -294,15 +458,88 @@ public class JournalService {
         }
     }
 
+    /**
+     * Range of row versions a conditional write accepts. Without a draft that
+     * is just the expected version. A draft already matched the expected
+     * version, so the row may be anywhere from where the draft found it to
+     * what the draft has written back since.
+     */
+    private static long[] rowVersions(JournalDraftService.Superseded draft, long expectedVersion) {
+        if (expectedVersion == ANY_VERSION) {
+            return new long[] { ANY_VERSION, ANY_VERSION };
+        }
+        if (draft == null) {
+            return new long[] { expectedVersion, expectedVersion };
+        }
+        return new long[] { draft.storedVersion, draft.version };
+    }
+
+    // Word count of a row returned by updateIfVersion or deleteIfVersion, before the write
+    private static int previousWordCount(Object[] row) {
+        return row[3] != null ? ((Number) row[3]).intValue() : JournalTextAnalyzer.countWords((String) row[4]);
+    }
+
+    /**
+     * Version of everything a user's listings and insights are computed from.
+     */
+    @Transactional(readOnly = true)
+    public long getUserDataVersion(String userId) {
+        return userRepository.findDataVersionById(userId).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Long getJournalVersion(String journalId, String userId) {
+        UUID id = parseJournalId(journalId);
+        if (id == null) {
+            return null;
+        }
+        return byId(id, (createdFrom, createdTo) -> journalRepository.findVersionByIdAndUserId(id, userId,
+                createdFrom, createdTo)).orElse(null);
+    }
+
+    /**
+     * Runs a by-id query against the partition of the id's month only: rows
+     * get created_at when their UUIDv7 id is minted (imports mint it from
+     * created_at), so a day either side of the id's timestamp prunes every
+     * other partition. Ids from before UuidV7 carry no time and still probe
+     * all partitions.
+     */
+    static <T> T byId(UUID id, BiFunction<LocalDateTime, LocalDateTime, T> query) {
+        LocalDateTime minted = UuidV7.createdAt(id);
+        if (minted == null) {
+            return query.apply(EARLIEST, LATEST);
+        }
+        return query.apply(minted.minusDays(1), minted.plusDays(1));
+    }
+
+    /**
+     * Parses a journal id from a path or request, returning null for strings
+     * that are not UUIDs since they cannot match any journal.
+     */
+    public static UUID parseJournalId(String journalId) {
+        if (journalId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(journalId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Transactional(readOnly = true)
     public User getUserWithJournalIds(String userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
     }
 
+    @Transactional(readOnly = true)
     public long getUserJournalCount(String userId) {
         return journalRepository.countByUserId(userId);
     }
 
+    // Stays read-write: a cold stats load backfills word counts, and cached
+    // snapshots must be read from the primary rather than a lagging replica
     public Map<String, Object> getJournalInsights(String userId, String timeRange, Mood moodFilter) {
         try {
             LocalDateTime endDate = LocalDateTime.now();
@@ -316,109 +553,67 @@ public class JournalService {
                 default -> endDate.minusDays(30);
             }; // month
 
-            // Get all journals in the time range
-            List<Journal> journals;
-            if (moodFilter != null) {
-                journals = journalRepository.findByUserIdAndMoodAndDateRange(userId,
-                        moodFilter, startDate, endDate);
-            } else {
-                journals = journalRepository.findByUserIdAndDateRange(userId, startDate, endDate);
-            }
+            JournalStatsIndex.UserStats stats = journalStatsIndex.isEnabled()
+                    ? journalStatsIndex.get(userId, this::loadStats)
+                    : loadStats(userId);
 
-            // Calculate basic metrics
-            int totalEntries = journals.size();
-            int totalWords = 0;
-            Map<String, Integer> moodCounts = new HashMap<>();
-            Map<String, Map<String, Integer>> dailyData = new HashMap<>();
-            Map<String, Integer> weeklyActivity = new HashMap<>();
-
-            // Initialize weekly activity
-            weeklyActivity.put("Mon", 0);
-            weeklyActivity.put("Tue", 0);
-            weeklyActivity.put("Wed", 0);
-            weeklyActivity.put("Thu", 0);
-            weeklyActivity.put("Fri", 0);
-            weeklyActivity.put("Sat", 0);
-            weeklyActivity.put("Sun", 0);
-
-            // Process each journal entry
-            for (Journal journal : journals) {
-                // Calculate word count from content
-                int wordCount = calculateWordCount(journal.getContent());
-                totalWords += wordCount;
-
-                // Count moods
-                String mood = journal.getMood().toString().toLowerCase();
-                moodCounts.put(mood, moodCounts.getOrDefault(mood, 0) + 1);
-
-                // Group by date for trend analysis
-                String dateKey = journal.getCreatedAt().toLocalDate().toString();
-                dailyData.computeIfAbsent(dateKey, k -> new HashMap<>());
-                Map<String, Integer> dayData = dailyData.get(dateKey);
-                dayData.put("wordCount", dayData.getOrDefault("wordCount", 0) + wordCount);
-                dayData.put("entryCount", dayData.getOrDefault("entryCount", 0) + 1);
-
-                // Count by day of week
-                String dayOfWeek = journal.getCreatedAt().getDayOfWeek().toString().substring(0, 3);
-                dayOfWeek = dayOfWeek.substring(0, 1).toUpperCase() + dayOfWeek.substring(1).toLowerCase();
-                weeklyActivity.put(dayOfWeek, weeklyActivity.getOrDefault(dayOfWeek, 0) + 1);
-            }
+            JournalStatsIndex.RangeSummary summary = stats.summarize(
+                    JournalStatsIndex.toSecond(startDate),
+                    JournalStatsIndex.toSecond(endDate),
+                    moodFilter != null ? moodFilter.ordinal() : -1,
+                    endDate.toLocalDate().toEpochDay());
 
-            // Calculate averages
-            int averageWordsPerEntry = totalEntries > 0 ? Math.round((float) totalWords / totalEntries) : 0;
+            int totalEntries = summary.totalEntries;
 
-            // Calculate streaks (consecutive days with entries)
-            Map<String, Integer> streaks = calculateStreaks(journals);
-            int currentStreak = streaks.get("currentStreak");
-            int longestStreak = streaks.get("longestStreak");
+            // Calculate averages
+            int averageWordsPerEntry = totalEntries > 0 ? Math.round((float) summary.totalWords / totalEntries) : 0;
 
             // Prepare mood distribution
-            List<Map<String, Object>> moodDistribution = moodCounts.entrySet().stream()
-                    .map(entry -> {
-                        Map<String, Object> moodData = new HashMap<>();
-                        moodData.put("mood", entry.getKey());
-                        moodData.put("count", entry.getValue());
-                        moodData.put("percentage",
-                                totalEntries > 0 ? Math.round((entry.getValue() * 100.0) / totalEntries) : 0);
-                        return moodData;
-                    })
-                    .sorted((a, b) -> Integer.compare((Integer) b.get("count"), (Integer) a.get("count")))
-                    .toList();
-
-            // Prepare word count trend (last 30 days)
-            List<Map<String, Object>> wordCountTrend = dailyData.entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .limit(30)
-                    .map(entry -> {
-                        Map<String, Object> trendData = new HashMap<>();
-                        trendData.put("date", entry.getKey());
-                        trendData.put("wordCount", entry.getValue().get("wordCount"));
-                        trendData.put("entryCount", entry.getValue().get("entryCount"));
-                        return trendData;
-                    })
-                    .toList();
+            List<Map<String, Object>> moodDistribution = new ArrayList<>();
+            Mood[] moods = Mood.values();
+            for (int i = 0; i < moods.length; i++) {
+                int count = summary.moodCounts[i];
+                if (count == 0) {
+                    continue;
+                }
+                Map<String, Object> moodData = new HashMap<>();
+                moodData.put("mood", moods[i].name().toLowerCase());
+                moodData.put("count", count);
+                moodData.put("percentage", Math.round((count * 100.0) / totalEntries));
+                moodDistribution.add(moodData);
+            }
+            moodDistribution.sort((a, b) -> Integer.compare((Integer) b.get("count"), (Integer) a.get("count")));
+
+            // Prepare word count trend (first 30 days with entries)
+            List<Map<String, Object>> wordCountTrend = new ArrayList<>();
+            for (int i = 0; i < Math.min(summary.dayCount, 30); i++) {
+                Map<String, Object> trendData = new HashMap<>();
+                trendData.put("date", LocalDate.ofEpochDay(summary.days[i]).toString());
+                trendData.put("wordCount", summary.dayWords[i]);
+                trendData.put("entryCount", summary.dayEntries[i]);
+                wordCountTrend.add(trendData);
+            }
 
             // Prepare weekly activity
-            List<Map<String, Object>> weeklyActivityArray = weeklyActivity.entrySet().stream()
-                    .map(entry -> {
-                        Map<String, Object> activityData = new HashMap<>();
-                        activityData.put("day", entry.getKey());
-                        activityData.put("entries", entry.getValue());
-                        return activityData;
-                    })
-                    .toList();
+            List<Map<String, Object>> weeklyActivityArray = new ArrayList<>();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                Map<String, Object> activityData = new HashMap<>();
+                activityData.put("day", day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+                activityData.put("entries", summary.weekdayCounts[day.ordinal()]);
+                weeklyActivityArray.add(activityData);
+            }
 
             // Build final insights response
             Map<String, Object> insights = new HashMap<>();
             insights.put("totalEntries", totalEntries);
             insights.put("averageWordsPerEntry", averageWordsPerEntry);
-            insights.put("longestStreak", longestStreak);
-            insights.put("currentStreak", currentStreak);
+            insights.put("longestStreak", summary.longestStreak);
+            insights.put("currentStreak", summary.currentStreak);
             insights.put("moodDistribution", moodDistribution);
             insights.put("wordCountTrend", wordCountTrend);
             insights.put("weeklyActivity", weeklyActivityArray);
 
-            logger.info("Generated insights for user: {}, totalEntries: {}, timeRange: {}, moodFilter: {}",
+            logger.info(SampledLogFilter.SAMPLED, "Generated insights for user: {}, totalEntries: {}, timeRange: {}, moodFilter: {}",
                     userId, totalEntries, timeRange, moodFilter != null ? moodFilter : "none");
 
             return insights;
@@ -429,64 +624,64 @@ public class JournalService {
         }
     }
 
-    private Map<String, Integer> calculateStreaks(List<Journal> journals) {
-        if (journals.isEmpty()) {
-            Map<String, Integer> streaks = new HashMap<>();
-            streaks.put("currentStreak", 0);
-            streaks.put("longestStreak", 0);
-            return streaks;
-        }
-
-        // Sort journals by date
-        journals.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
-
-        // Get unique days with entries
-        List<String> entryDays = journals.stream()
-                .map(journal -> journal.getCreatedAt().toLocalDate().toString())
-                .distinct()
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
-
-        int currentStreak = 0;
-        int longestStreak = 0;
-        int tempStreak = 1;
-
-        for (int i = 1; i < entryDays.size(); i++) {
-            LocalDateTime prevDay = LocalDateTime.parse(entryDays.get(i - 1) + "T00:00:00");
-            LocalDateTime currentDay = LocalDateTime.parse(entryDays.get(i) + "T00:00:00");
-
-            // Check if days are consecutive
-            if (prevDay.toLocalDate().plusDays(1).equals(currentDay.toLocalDate())) {
-                tempStreak++;
-            } else {
-                longestStreak = Math.max(longestStreak, tempStreak);
-                tempStreak = 1;
-            }
+    private JournalStatsIndex.UserStats loadStats(String userId) {
+        // Rows written before word_count existed are backfilled once, on first load
+        for (Journal journal : journalRepository.findByUserIdWithoutWordCount(userId)) {
+            journalRepository.updateWordCount(journal.getId(), JournalTextAnalyzer.countWords(journal.getContent()));
         }
 
-        longestStreak = Math.max(longestStreak, tempStreak);
+        List<Object[]> rows = journalRepository.findStatsRowsByUserId(userId);
+        JournalStatsIndex.Builder builder = new JournalStatsIndex.Builder(rows.size());
+        for (Object[] row : rows) {
+            Integer wordCount = (Integer) row[2];
+            builder.add((LocalDateTime) row[0], (Mood) row[1], wordCount != null ? wordCount : 0);
+        }
 
-        // Calculate current streak (from today backwards)
-        LocalDateTime today = LocalDateTime.now();
-        String todayStr = today.toLocalDate().toString();
+        logger.debug("Loaded journal stats for user: {}, entries: {}", userId, rows.size());
+        return builder.build();
+    }
 
-        if (entryDays.contains(todayStr)) {
-            currentStreak = 1;
-            for (int i = entryDays.size() - 2; i >= 0; i--) {
-                LocalDateTime checkDay = LocalDateTime.parse(entryDays.get(i) + "T00:00:00");
-                LocalDateTime expectedDay = today.minusDays(currentStreak);
+    private void recordJournalWrite(String userId, JournalStatsIndex.Patch patch) {
+        // Same transaction as the write, so the ETag version never runs ahead of the data
+        userRepository.incrementDataVersion(userId);
+        trackStatsWrite(userId, patch);
+    }
 
-                if (checkDay.toLocalDate().equals(expectedDay.toLocalDate())) {
-                    currentStreak++;
-                } else {
-                    break;
-                }
-            }
+    // For writes that bumped data_version themselves
+    private void trackStatsWrite(String userId, JournalStatsIndex.Patch patch) {
+        journalStatsIndex.beginWrite(userId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            journalStatsIndex.completeWrite(userId, patch);
+            return;
         }
 
-        Map<String, Integer> streaks = new HashMap<>();
-        streaks.put("currentStreak", currentStreak);
-        streaks.put("longestStreak", longestStreak);
-        return streaks;
+        // Only committed writes reach the index; a rollback just releases the write
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                journalStatsIndex.completeWrite(userId, status == STATUS_COMMITTED ? patch : null);
+            }
+        });
+    }
+
+    // Holds off lazy loads of the user's vectors until the transaction ends; the change only lands on commit
+    private void trackSimilarityWrite(String userId, Runnable onCommit) {
+        similarityIndex.beginWrite(userId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            similarityIndex.completeWrite(userId);
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                similarityIndex.completeWrite(userId);
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                }
+            }
+        });
     }
 }
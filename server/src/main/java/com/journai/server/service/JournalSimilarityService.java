@@ -0,0 +1,101 @@
+package com.journai.server.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.journai.server.dto.JournalResponse;
+import com.journai.server.repository.JournalListView;
+import com.journai.server.repository.JournalRepository;
+
+/**
+ * "Find entries like this one", answered from locally computed embeddings and
+ * the per-user {@link SimilarityIndex}. JournalService keeps embeddings and the
+ * index current as entries are saved, updated and deleted.
+ */
+@Service
+@Transactional
+public class JournalSimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalSimilarityService.class);
+
+    public static final int MAX_RESULTS = 20;
+
+    @Autowired
+    private JournalRepository journalRepository;
+
+    @Autowired
+    private JournalEmbedder journalEmbedder;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    /**
+     * Returns the entries most similar to {@code journalId}, best first, or
+     * null if the journal does not exist for this user. Read-write, since a
+     * cold load backfills embeddings and must not cache a replica's view.
+     */
+    public List<JournalResponse> findSimilar(String userId, String journalId, int limit) {
+        SimilarityIndex.VectorSet vectors = similarityIndex.isEnabled()
+                ? similarityIndex.get(userId, this::loadVectors)
+                : loadVectors(userId);
+
+        UUID id = JournalService.parseJournalId(journalId);
+        float[] query = id != null ? vectors.vectorOf(id.toString()) : null;
+        if (query == null) {
+            return null;
+        }
+
+        SimilarityIndex.Neighbours neighbours = vectors.search(query,
+                Math.max(1, Math.min(limit, MAX_RESULTS)), id.toString());
+        if (neighbours.ids.length == 0) {
+            return List.of();
+        }
+
+        List<UUID> ids = new ArrayList<>(neighbours.ids.length);
+        for (String neighbour : neighbours.ids) {
+            ids.add(UUID.fromString(neighbour));
+        }
+        Map<String, JournalListView> viewsById = new HashMap<>();
+        for (JournalListView view : journalRepository.findListViewsByIds(userId, ids)) {
+            viewsById.put(view.getId().toString(), view);
+        }
+
+        // Keep similarity order; ids deleted since the index was loaded drop out here
+        List<JournalResponse> results = new ArrayList<>(neighbours.ids.length);
+        for (int i = 0; i < neighbours.ids.length; i++) {
+            JournalListView view = viewsById.get(neighbours.ids[i]);
+            if (view != null) {
+                JournalResponse response = JournalResponse.fromListView(view);
+                response.setSimilarity(neighbours.scores[i]);
+                results.add(response);
+            }
+        }
+        return results;
+    }
+
+    private SimilarityIndex.VectorSet loadVectors(String userId) {
+        // Rows written before embeddings existed are embedded once, on first load
+        for (Object[] row : journalRepository.findContentWithoutEmbedding(userId)) {
+            journalRepository.updateEmbedding((UUID) row[0],
+                    JournalEmbedder.toBytes(journalEmbedder.embed((String) row[1])));
+        }
+
+        List<Object[]> rows = journalRepository.findEmbeddingsByUserId(userId);
+        SimilarityIndex.VectorSet vectors = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, rows.size());
+        for (Object[] row : rows) {
+            vectors.put(row[0].toString(), JournalEmbedder.fromBytes((byte[]) row[1]));
+        }
+
+        logger.debug("Loaded journal embeddings for user: {}, entries: {}", userId, rows.size());
+        return vectors;
+    }
+}
@@ -0,0 +1,378 @@
+package com.journai.server.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.model.Mood;
+
+/**
+ * In-memory, per-user columnar index of journal statistics.
+ *
+ * Each resident user is held as an immutable {@link UserStats} snapshot: the
+ * entry timestamps in a sorted {@code long[]} and the mood ordinal plus word
+ * count packed into a parallel {@code int[]}. Range aggregates binary search
+ * the time column and then walk the primitive arrays, so dashboards can ask for
+ * any date range and mood filter without going back to Postgres.
+ *
+ * Snapshots are loaded lazily, patched copy-on-write after each committed
+ * write and evicted least-recently-used once the total number of resident
+ * entries exceeds {@code app.stats-index.max-entries}.
+ */
+@Component
+public class JournalStatsIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalStatsIndex.class);
+
+    static final int SECONDS_PER_DAY = 86_400;
+    private static final int WORD_COUNT_BITS = 24;
+    private static final int WORD_COUNT_MASK = (1 << WORD_COUNT_BITS) - 1;
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final LinkedHashMap<String, UserStats> residents = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentEntries;
+
+    // Striped write bookkeeping so a lazy load never installs a snapshot that
+    // raced with an in-flight or just-committed write for the same user.
+    private final long[] stripeGenerations = new long[STRIPES];
+    private final int[] stripePendingWrites = new int[STRIPES];
+
+    /**
+     * Returns the snapshot for a user, loading it through {@code loader} when
+     * it is not resident. The loaded snapshot is only cached if no write for
+     * the user's stripe happened while it was being read.
+     */
+    public UserStats get(String userId, Function<String, UserStats> loader) {
+        long generation;
+        synchronized (this) {
+            UserStats cached = residents.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = stripeGenerations[stripe(userId)];
+        }
+
+        UserStats loaded = loader.apply(userId);
+
+        synchronized (this) {
+            int stripe = stripe(userId);
+            if (stripeGenerations[stripe] == generation && stripePendingWrites[stripe] == 0
+                    && loaded.size() <= getMaxEntries()) {
+                install(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public boolean isEnabled() {
+        return appProperties.getStatsIndex().isEnabled();
+    }
+
+    /**
+     * Marks the start of a write for a user. Must be paired with
+     * {@link #completeWrite(String, Patch)} once the transaction has finished.
+     */
+    public synchronized void beginWrite(String userId) {
+        int stripe = stripe(userId);
+        stripePendingWrites[stripe]++;
+        stripeGenerations[stripe]++;
+    }
+
+    /**
+     * Applies a committed write to the user's snapshot if it is resident. A
+     * {@code null} patch (rolled back transaction) only releases the write.
+     */
+    public synchronized void completeWrite(String userId, Patch patch) {
+        int stripe = stripe(userId);
+        stripePendingWrites[stripe]--;
+        stripeGenerations[stripe]++;
+
+        if (patch == null) {
+            return;
+        }
+
+        UserStats current = residents.get(userId);
+        if (current == null) {
+            return;
+        }
+
+        UserStats patched = current;
+        if (patch.removedSecond != Long.MIN_VALUE) {
+            patched = patched.without(patch.removedSecond, patch.removedPacked);
+        }
+        if (patch.addedSecond != Long.MIN_VALUE) {
+            patched = patched.with(patch.addedSecond, patch.addedPacked);
+        }
+
+        if (patched == null) {
+            // The entry we were asked to remove is not in the snapshot; drop it
+            // rather than serve numbers we can no longer vouch for.
+            evict(userId);
+            return;
+        }
+        residentEntries += patched.size() - current.size();
+        residents.put(userId, patched);
+        enforceBudget();
+    }
+
+    public synchronized void evict(String userId) {
+        UserStats removed = residents.remove(userId);
+        if (removed != null) {
+            residentEntries -= removed.size();
+        }
+    }
+
+    public synchronized long getResidentEntries() {
+        return residentEntries;
+    }
+
+    private void install(String userId, UserStats stats) {
+        UserStats previous = residents.put(userId, stats);
+        residentEntries += stats.size() - (previous != null ? previous.size() : 0);
+        enforceBudget();
+    }
+
+    private void enforceBudget() {
+        int maxEntries = getMaxEntries();
+        Iterator<Map.Entry<String, UserStats>> eldest = residents.entrySet().iterator();
+        while (residentEntries > maxEntries && eldest.hasNext()) {
+            Map.Entry<String, UserStats> entry = eldest.next();
+            residentEntries -= entry.getValue().size();
+            eldest.remove();
+            logger.debug("Evicted journal stats for user: {}", entry.getKey());
+        }
+    }
+
+    private int getMaxEntries() {
+        return appProperties.getStatsIndex().getMaxEntries();
+    }
+
+    private static int stripe(String userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    public static long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static int pack(Mood mood, int wordCount) {
+        return (mood.ordinal() << WORD_COUNT_BITS) | Math.min(Math.max(wordCount, 0), WORD_COUNT_MASK);
+    }
+
+    /**
+     * A single committed change: an optional entry to remove and an optional
+     * entry to add. Updates carry both.
+     */
+    public static final class Patch {
+        private final long removedSecond;
+        private final int removedPacked;
+        private final long addedSecond;
+        private final int addedPacked;
+
+        private Patch(long removedSecond, int removedPacked, long addedSecond, int addedPacked) {
+            this.removedSecond = removedSecond;
+            this.removedPacked = removedPacked;
+            this.addedSecond = addedSecond;
+            this.addedPacked = addedPacked;
+        }
+
+        public static Patch added(LocalDateTime createdAt, Mood mood, int wordCount) {
+            return new Patch(Long.MIN_VALUE, 0, toSecond(createdAt), pack(mood, wordCount));
+        }
+
+        public static Patch removed(LocalDateTime createdAt, Mood mood, int wordCount) {
+            return new Patch(toSecond(createdAt), pack(mood, wordCount), Long.MIN_VALUE, 0);
+        }
+
+        public static Patch replaced(LocalDateTime createdAt, Mood oldMood, int oldWordCount, Mood newMood,
+                int newWordCount) {
+            long second = toSecond(createdAt);
+            return new Patch(second, pack(oldMood, oldWordCount), second, pack(newMood, newWordCount));
+        }
+    }
+
+    /**
+     * Immutable column snapshot of one user's journals, sorted by time.
+     */
+    public static final class UserStats {
+
+        private final long[] seconds;
+        private final int[] packed;
+
+        public UserStats(long[] seconds, int[] packed) {
+            this.seconds = seconds;
+            this.packed = packed;
+        }
+
+        public int size() {
+            return seconds.length;
+        }
+
+        UserStats with(long second, int value) {
+            int at = upperBound(seconds, 0, seconds.length, second);
+            long[] newSeconds = new long[seconds.length + 1];
+            int[] newPacked = new int[packed.length + 1];
+            System.arraycopy(seconds, 0, newSeconds, 0, at);
+            System.arraycopy(packed, 0, newPacked, 0, at);
+            newSeconds[at] = second;
+            newPacked[at] = value;
+            System.arraycopy(seconds, at, newSeconds, at + 1, seconds.length - at);
+            System.arraycopy(packed, at, newPacked, at + 1, packed.length - at);
+            return new UserStats(newSeconds, newPacked);
+        }
+
+        UserStats without(long second, int value) {
+            int at = lowerBound(seconds, 0, seconds.length, second);
+            while (at < seconds.length && seconds[at] == second && packed[at] != value) {
+                at++;
+            }
+            if (at == seconds.length || seconds[at] != second) {
+                return null;
+            }
+            long[] newSeconds = new long[seconds.length - 1];
+            int[] newPacked = new int[packed.length - 1];
+            System.arraycopy(seconds, 0, newSeconds, 0, at);
+            System.arraycopy(packed, 0, newPacked, 0, at);
+            System.arraycopy(seconds, at + 1, newSeconds, at, seconds.length - at - 1);
+            System.arraycopy(packed, at + 1, newPacked, at, packed.length - at - 1);
+            return new UserStats(newSeconds, newPacked);
+        }
+
+        /**
+         * Aggregates entries with {@code fromSecond <= time <= toSecond},
+         * optionally restricted to one mood ({@code moodOrdinal < 0} for all).
+         * {@code todayEpochDay} anchors the current streak.
+         */
+        public RangeSummary summarize(long fromSecond, long toSecond, int moodOrdinal, long todayEpochDay) {
+            int from = lowerBound(seconds, 0, seconds.length, fromSecond);
+            int to = upperBound(seconds, from, seconds.length, toSecond);
+
+            RangeSummary summary = new RangeSummary(to - from);
+            long previousDay = Long.MIN_VALUE;
+            int run = 0;
+
+            for (int i = from; i < to; i++) {
+                int value = packed[i];
+                int mood = value >>> WORD_COUNT_BITS;
+                if (moodOrdinal >= 0 && mood != moodOrdinal) {
+                    continue;
+                }
+                int words = value & WORD_COUNT_MASK;
+                long day = Math.floorDiv(seconds[i], SECONDS_PER_DAY);
+
+                summary.totalEntries++;
+                summary.totalWords += words;
+                summary.moodCounts[mood]++;
+                // 1970-01-01 was a Thursday, so shifting by 3 makes Monday index 0
+                summary.weekdayCounts[(int) Math.floorMod(day + 3, 7)]++;
+
+                if (day != previousDay) {
+                    run = day == previousDay + 1 ? run + 1 : 1;
+                    summary.longestStreak = Math.max(summary.longestStreak, run);
+                    summary.days[summary.dayCount] = day;
+                    summary.dayCount++;
+                    previousDay = day;
+                }
+                summary.dayWords[summary.dayCount - 1] += words;
+                summary.dayEntries[summary.dayCount - 1]++;
+            }
+
+            summary.currentStreak = previousDay == todayEpochDay ? run : 0;
+            return summary;
+        }
+    }
+
+    /**
+     * Result of {@link UserStats#summarize}. Per-day columns are filled for the
+     * first {@link #dayCount} slots, in ascending day order.
+     */
+    public static final class RangeSummary {
+        public int totalEntries;
+        public long totalWords;
+        public final int[] moodCounts = new int[Mood.values().length];
+        // Monday first
+        public final int[] weekdayCounts = new int[7];
+        public final long[] days;
+        public final int[] dayWords;
+        public final int[] dayEntries;
+        public int dayCount;
+        public int longestStreak;
+        public int currentStreak;
+
+        RangeSummary(int capacity) {
+            this.days = new long[capacity];
+            this.dayWords = new int[capacity];
+            this.dayEntries = new int[capacity];
+        }
+    }
+
+    /**
+     * Builds snapshots from rows that are already ordered by time.
+     */
+    public static final class Builder {
+        private long[] seconds;
+        private int[] packed;
+        private int size;
+
+        public Builder(int expectedSize) {
+            this.seconds = new long[Math.max(expectedSize, 4)];
+            this.packed = new int[Math.max(expectedSize, 4)];
+        }
+
+        public Builder add(LocalDateTime createdAt, Mood mood, int wordCount) {
+            if (size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, size * 2);
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            seconds[size] = toSecond(createdAt);
+            packed[size] = pack(mood, wordCount);
+            size++;
+            return this;
+        }
+
+        public UserStats build() {
+            return new UserStats(Arrays.copyOf(seconds, size), Arrays.copyOf(packed, size));
+        }
+    }
+
+    private static int lowerBound(long[] values, int from, int to, long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(long[] values, int from, int to, long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
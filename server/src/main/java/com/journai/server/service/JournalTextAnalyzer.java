@@ -0,0 +1,556 @@
+package com.journai.server.service;
+
+/**
+ * Derives an entry's title, word count, character count and excerpt from its
+ * HTML/markdown content in a single left-to-right pass, without regular
+ * expressions or intermediate copies of the text.
+ *
+ * The results match what the original regex chain produced: tags are dropped
+ * from the title but read as whitespace for counting and the excerpt, and the
+ * title strips markdown emphasis, code, links and a leading heading, list or
+ * quote marker. Markdown is resolved as it is met, so input whose markers
+ * cross, never close, or only meet once other markers are removed may get a
+ * slightly different title than the chain did.
+ */
+public final class JournalTextAnalyzer {
+
+    public static final String DEFAULT_TITLE = "Journal Entry";
+    public static final int EXCERPT_LENGTH = 160;
+
+    static final int TITLE_WORDS = 8;
+    static final int TITLE_MAX_LENGTH = 50;
+
+    private static final String DELIMITERS = "*_~`";
+    // Characters the title looks ahead for
+    private static final String LOOKAHEAD = "*_~`])";
+
+    // Leading markers are stripped at most once each, in this order
+    private static final int MARKER_LIST = 0;
+    private static final int MARKER_NUMBER = 1;
+    private static final int MARKER_QUOTE = 2;
+    private static final int MARKER_NONE = 3;
+
+    private JournalTextAnalyzer() {
+    }
+
+    public static Analysis analyze(String content) {
+        return new Scanner(content != null ? content : "", true).run();
+    }
+
+    /**
+     * Word count alone, for rows stored before word_count existed. Skips the
+     * title and excerpt work.
+     */
+    public static int countWords(String content) {
+        return content != null ? new Scanner(content, false).run().getWordCount() : 0;
+    }
+
+    public static final class Analysis {
+        private final String title;
+        private final int wordCount;
+        private final int characterCount;
+        private final String excerpt;
+
+        Analysis(String title, int wordCount, int characterCount, String excerpt) {
+            this.title = title;
+            this.wordCount = wordCount;
+            this.characterCount = characterCount;
+            this.excerpt = excerpt;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getWordCount() {
+            return wordCount;
+        }
+
+        /** Length of the plain text with tags removed and whitespace collapsed. */
+        public int getCharacterCount() {
+            return characterCount;
+        }
+
+        public String getExcerpt() {
+            return excerpt;
+        }
+    }
+
+    /** The whitespace class of {@code \s}, which is narrower than trim()'s. */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class Scanner {
+        private final String text;
+        private final int length;
+        // A '<' opens a tag only if some '>' follows it
+        private final int lastTagEnd;
+
+        // Plain text: tags read as a single space
+        private boolean anyVisible;
+        private boolean inWord;
+        private boolean wordVisible;
+        private boolean plainStarted;
+        private int words;
+        private int trailingWords;
+        private boolean plainLastSpace;
+        private int plainLength;
+        private int characterCount;
+        private final StringBuilder excerpt;
+        private int excerptVisibleLength;
+        private boolean excerptTruncated;
+
+        // Title: tags vanish and markdown is stripped, until eight words are known
+        private boolean titleDone;
+        private String title;
+        private final StringBuilder titleText;
+        private int skipUntil;
+        private boolean firstChar = true;
+        private boolean onlySpaceSoFar = true;
+        private int marker = MARKER_LIST;
+        // Per delimiter in DELIMITERS: where the pair now open closes, or -1
+        private final int[] strongClose = { -1, -1, -1, -1 };
+        private final int[] strongEnd = new int[4];
+        private final int[] singleClose = { -1, -1, -1, -1 };
+        private int strongCloseAt;
+        private int linkClose = -1;
+        private int linkEnd;
+        private final int[] lastIndex = { -2, -2, -2, -2, -2, -2 };
+        private boolean titleLastSpace;
+        private int titleWords;
+        private int eighthWordEnd = -1;
+
+        Scanner(String text, boolean withTitle) {
+            this.text = text;
+            this.length = text.length();
+            this.lastTagEnd = text.lastIndexOf('>');
+            this.titleDone = !withTitle;
+            this.excerpt = withTitle ? new StringBuilder(Math.min(length, EXCERPT_LENGTH)) : null;
+            this.titleText = withTitle ? new StringBuilder(TITLE_MAX_LENGTH + 1) : null;
+        }
+
+        Analysis run() {
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c > ' ') {
+                    anyVisible = true;
+                }
+                if (c == '<' && i < lastTagEnd) {
+                    plain(' ');
+                    i = text.indexOf('>', i + 1);
+                    continue;
+                }
+                plain(c);
+                if (!titleDone && i >= skipUntil) {
+                    title(i, c);
+                }
+            }
+            if (inWord) {
+                endWord();
+            }
+
+            int wordCount = !anyVisible ? 0 : words == 0 ? 1 : words;
+            if (excerpt == null) {
+                return new Analysis(null, wordCount, characterCount, null);
+            }
+            if (!titleDone) {
+                finishTitle();
+            }
+            return new Analysis(title, wordCount, characterCount,
+                    excerptTruncated ? excerpt.toString() : excerpt.substring(0, excerptVisibleLength));
+        }
+
+        // ---- plain text: word count, character count, excerpt ----
+
+        private void plain(char c) {
+            boolean space = isSpace(c);
+            if (space) {
+                if (inWord) {
+                    endWord();
+                }
+            } else {
+                if (!inWord) {
+                    inWord = true;
+                    wordVisible = false;
+                }
+                if (c > ' ') {
+                    wordVisible = true;
+                }
+            }
+
+            if (excerpt == null) {
+                return;
+            }
+            if (space) {
+                if (plainLastSpace) {
+                    return;
+                }
+                plainLastSpace = true;
+                c = ' ';
+            } else {
+                plainLastSpace = false;
+            }
+            // Leading characters trim() would drop never start the excerpt
+            if (!plainStarted) {
+                if (c <= ' ') {
+                    return;
+                }
+                plainStarted = true;
+            }
+            plainLength++;
+            if (excerpt.length() < EXCERPT_LENGTH) {
+                excerpt.append(c);
+                if (c > ' ') {
+                    excerptVisibleLength = excerpt.length();
+                }
+            } else if (c > ' ') {
+                excerptTruncated = true;
+            }
+            if (c > ' ') {
+                characterCount = plainLength;
+            }
+        }
+
+        private void endWord() {
+            inWord = false;
+            // Words made only of control characters count unless trim() would cut them off
+            if (wordVisible) {
+                words += trailingWords + 1;
+                trailingWords = 0;
+            } else if (words > 0) {
+                trailingWords++;
+            }
+        }
+
+        // ---- title ----
+
+        private void title(int i, char c) {
+            if (firstChar) {
+                firstChar = false;
+                if (c == '#' && heading(i)) {
+                    return;
+                }
+            }
+
+            switch (c) {
+                case '*':
+                case '_':
+                case '~':
+                case '`':
+                    if (delimiter(i, c, DELIMITERS.indexOf(c))) {
+                        return;
+                    }
+                    break;
+                case '[':
+                    if (linkOpen(i)) {
+                        return;
+                    }
+                    break;
+                case ']':
+                    if (i == linkClose) {
+                        linkClose = -1;
+                        skipUntil = linkEnd + 1;
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (onlySpaceSoFar && leadingMarker(i, c)) {
+                return;
+            }
+            append(c);
+        }
+
+        private boolean heading(int i) {
+            int hashes = 0;
+            int j = i;
+            while (j < length && text.charAt(j) == '#' && hashes < 7) {
+                hashes++;
+                j = nextVisible(j + 1);
+            }
+            if (hashes > 6 || j >= length || !isSpace(text.charAt(j))) {
+                return false;
+            }
+            // The spaces that follow are leading whitespace, which the title drops anyway
+            skipUntil = j;
+            return true;
+        }
+
+        /**
+         * Drops a delimiter that opens or closes a pair. The chain stripped every
+         * double pair (and fenced block, for backticks) before any single one, so
+         * a single delimiter pairs with the next one that is not part of a double.
+         */
+        private boolean delimiter(int i, char c, int kind) {
+            if (i == strongClose[kind]) {
+                strongClose[kind] = -1;
+                skipUntil = strongEnd[kind] + 1;
+                return true;
+            }
+            if (i == singleClose[kind]) {
+                singleClose[kind] = -1;
+                return true;
+            }
+
+            int end = strong(i, c);
+            if (end >= 0) {
+                if (c == '`') {
+                    // Fenced blocks are dropped whole
+                    skipUntil = end + 1;
+                } else {
+                    strongClose[kind] = strongCloseAt;
+                    strongEnd[kind] = end;
+                    skipUntil = nextVisible(i + 1) + 1;
+                }
+                return true;
+            }
+            int close = singleClose(i, c);
+            if (close >= 0) {
+                singleClose[kind] = close;
+                return true;
+            }
+            return false;
+        }
+
+        /** Where a single delimiter at {@code i} would close, or -1 if it is literal. */
+        private int singleClose(int i, char c) {
+            if (c == '~') {
+                return -1;
+            }
+            int next = skipStrong(i + 1, c, (char) 0);
+            if (next >= length || text.charAt(next) == c) {
+                return -1;
+            }
+            int close = skipStrong(next + 1, c, c);
+            return close < length ? close : -1;
+        }
+
+        /**
+         * End of the double pair ("**x**", "__x__", "~~x~~") or fenced block
+         * starting at {@code q}, or -1.
+         */
+        private int strong(int q, char c) {
+            int second = nextVisible(q + 1);
+            if (second >= length || text.charAt(second) != c) {
+                return -1;
+            }
+            int third = nextVisible(second + 1);
+            if (c == '`') {
+                if (third >= length || text.charAt(third) != '`') {
+                    return -1;
+                }
+                int run = 0;
+                for (int j = nextVisible(third + 1); j < length; j = nextVisible(j + 1)) {
+                    run = text.charAt(j) == '`' ? run + 1 : 0;
+                    if (run == 3) {
+                        return j;
+                    }
+                }
+                return -1;
+            }
+            if (third >= length || text.charAt(third) == c) {
+                return -1;
+            }
+            int close = find(c, third + 1);
+            if (close < 0) {
+                return -1;
+            }
+            int closeSecond = nextVisible(close + 1);
+            if (closeSecond >= length || text.charAt(closeSecond) != c) {
+                return -1;
+            }
+            strongCloseAt = close;
+            return closeSecond;
+        }
+
+        /**
+         * The next character from {@code from} once double pairs of {@code c}
+         * are removed: any character, or the next {@code wanted} if given.
+         */
+        private int skipStrong(int from, char c, char wanted) {
+            int q = wanted == c ? find(c, from) : nextVisible(from);
+            while (q >= 0 && q < length) {
+                char at = text.charAt(q);
+                if (at == c) {
+                    int end = strong(q, c);
+                    if (end >= 0) {
+                        q = wanted == c ? find(c, end + 1) : nextVisible(end + 1);
+                        continue;
+                    }
+                }
+                if (wanted == 0 || at == wanted) {
+                    return q;
+                }
+                q = nextVisible(q + 1);
+            }
+            return length;
+        }
+
+        /** Keeps a link's text and arranges for its "(url)" to be skipped. */
+        private boolean linkOpen(int i) {
+            if (linkClose >= 0) {
+                return false;
+            }
+            int next = nextVisible(i + 1);
+            if (next >= length || text.charAt(next) == ']') {
+                return false;
+            }
+            int close = find(']', next + 1);
+            if (close < 0) {
+                return false;
+            }
+            int paren = nextVisible(close + 1);
+            if (paren >= length || text.charAt(paren) != '(') {
+                return false;
+            }
+            int urlStart = nextVisible(paren + 1);
+            if (urlStart >= length || text.charAt(urlStart) == ')') {
+                return false;
+            }
+            int urlEnd = find(')', urlStart + 1);
+            if (urlEnd < 0) {
+                return false;
+            }
+            linkClose = close;
+            linkEnd = urlEnd;
+            return true;
+        }
+
+        /** A list bullet, "1." or "&gt;" quote marker ahead of the first word. */
+        private boolean leadingMarker(int i, char c) {
+            if (marker == MARKER_NONE) {
+                return false;
+            }
+            if ((c == '-' || c == '*' || c == '+') && marker == MARKER_LIST && spaceFollows(i + 1)) {
+                marker = MARKER_NUMBER;
+                return true;
+            }
+            if (c >= '0' && c <= '9' && marker <= MARKER_NUMBER) {
+                int j = nextVisible(i + 1);
+                while (j < length && text.charAt(j) >= '0' && text.charAt(j) <= '9') {
+                    j = nextVisible(j + 1);
+                }
+                if (j < length && text.charAt(j) == '.' && spaceFollows(j + 1)) {
+                    marker = MARKER_QUOTE;
+                    skipUntil = j + 1;
+                    return true;
+                }
+                return false;
+            }
+            if (c == '>' && spaceFollows(i + 1)) {
+                marker = MARKER_NONE;
+                return true;
+            }
+            return false;
+        }
+
+        /** Whether whitespace follows, looking past delimiters that will be dropped. */
+        private boolean spaceFollows(int from) {
+            int next = nextVisible(from);
+            while (next < length) {
+                char c = text.charAt(next);
+                int kind = DELIMITERS.indexOf(c);
+                if (next == linkClose) {
+                    next = nextVisible(linkEnd + 1);
+                } else if (kind < 0) {
+                    return isSpace(c);
+                } else if (next == strongClose[kind]) {
+                    next = nextVisible(strongEnd[kind] + 1);
+                } else if (next == singleClose[kind]) {
+                    next = nextVisible(next + 1);
+                } else if (strong(next, c) >= 0) {
+                    next = c == '`' ? nextVisible(strong(next, c) + 1) : nextVisible(nextVisible(next + 1) + 1);
+                } else if (singleClose(next, c) >= 0) {
+                    next = nextVisible(next + 1);
+                } else {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void append(char c) {
+            if (isSpace(c)) {
+                // Collapsed to one space, and never leading
+                if (titleText.length() == 0 || titleLastSpace) {
+                    return;
+                }
+                titleLastSpace = true;
+                if (titleWords == TITLE_WORDS && eighthWordEnd < 0) {
+                    eighthWordEnd = titleText.length();
+                }
+                titleText.append(' ');
+                return;
+            }
+
+            onlySpaceSoFar = false;
+            if (titleText.length() == 0 && c <= ' ') {
+                return;
+            }
+            if (titleText.length() == 0 || titleLastSpace) {
+                titleWords++;
+            }
+            titleLastSpace = false;
+
+            if (c > ' ') {
+                if (eighthWordEnd >= 0) {
+                    // Eight whole words, and trim() can no longer reach back into them
+                    titleDone = true;
+                    title = truncate(titleText.substring(0, eighthWordEnd));
+                    return;
+                }
+                if (titleText.length() >= TITLE_MAX_LENGTH) {
+                    titleDone = true;
+                    title = titleText.substring(0, TITLE_MAX_LENGTH - 3) + "...";
+                    return;
+                }
+            }
+            titleText.append(c);
+        }
+
+        private void finishTitle() {
+            int end = titleText.length();
+            while (end > 0 && titleText.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (eighthWordEnd >= 0 && eighthWordEnd < end) {
+                end = eighthWordEnd;
+            }
+            title = end == 0 ? DEFAULT_TITLE : truncate(titleText.substring(0, end));
+        }
+
+        private static String truncate(String title) {
+            return title.length() > TITLE_MAX_LENGTH ? title.substring(0, TITLE_MAX_LENGTH - 3) + "..." : title;
+        }
+
+        // ---- lookahead over the text with tags removed ----
+
+        private int lastIndexOf(char c) {
+            int slot = LOOKAHEAD.indexOf(c);
+            if (lastIndex[slot] == -2) {
+                lastIndex[slot] = text.lastIndexOf(c);
+            }
+            return lastIndex[slot];
+        }
+
+        private int nextVisible(int from) {
+            while (from < length && text.charAt(from) == '<' && from < lastTagEnd) {
+                from = text.indexOf('>', from + 1) + 1;
+            }
+            return from;
+        }
+
+        private int find(char c, int from) {
+            int last = lastIndexOf(c);
+            for (int j = nextVisible(from); j <= last; j = nextVisible(j + 1)) {
+                if (text.charAt(j) == c) {
+                    return j;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.journai.server.service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.config.ReplicaRoutingDataSource;
+import com.journai.server.model.Journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional group commit for new journal entries (app.write-buffer). Requests
+ * hand over a fully built {@link Journal} and wait; a single flusher thread
+ * collects whatever arrived within max-delay-millis and writes it as one
+ * multi-row INSERT in one transaction, so a burst of saves costs a handful of
+ * commits and connections instead of one each.
+ *
+ * A request's future completes only after its batch has committed, so a
+ * successful response still means the entry is durable. If a batch fails,
+ * its entries are retried one by one so a single bad row fails alone. A
+ * save the flusher has not picked up within wait-millis is taken back and
+ * written directly by the request, so a stalled or dead flusher cannot
+ * hang requests; one already in a batch is waited for until the batch ends.
+ */
+@Component
+public class JournalWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalWriteBuffer.class);
+
+    static final String DATA_VERSION_SQL =
+            "UPDATE users SET data_version = COALESCE(data_version, 0) + 1 WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JournalStatsIndex journalStatsIndex;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private BlockingQueue<PendingSave> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private static final class PendingSave {
+        final Journal journal;
+        final String userId;
+        final float[] embedding;
+        final CompletableFuture<Journal> future = new CompletableFuture<>();
+
+        PendingSave(Journal journal, float[] embedding) {
+            this.journal = journal;
+            this.userId = journal.getUser().getId();
+            this.embedding = embedding;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        AppProperties.WriteBuffer settings = appProperties.getWriteBuffer();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        running = true;
+        flusher = new Thread(this::run, "journal-write-buffer");
+        flusher.setDaemon(true);
+        flusher.setUncaughtExceptionHandler(this::flusherDied);
+        flusher.start();
+        logger.info("Journal write buffer started, max batch: {}, max delay: {}ms",
+                settings.getMaxBatchSize(), settings.getMaxDelayMillis());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // The flusher drains what is already queued before it exits
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        // Whatever it did not get to, including saves queued while it exited
+        failQueued("Journal write buffer stopped");
+    }
+
+    private void flusherDied(Thread thread, Throwable e) {
+        logger.error("Journal write buffer flusher died, saves are written directly from now on", e);
+        running = false;
+        failQueued("Journal write buffer flusher died");
+    }
+
+    private void failQueued(String reason) {
+        List<PendingSave> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (PendingSave pending : left) {
+            pending.future.completeExceptionally(new IllegalStateException(reason));
+        }
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queues a new entry for the next batch. The future completes with the
+     * entry once it has committed, or exceptionally if it could not be
+     * written. Returns null when the buffer is off or full, in which case the
+     * caller writes the entry itself.
+     */
+    public CompletableFuture<Journal> submit(Journal journal, float[] embedding) {
+        if (!running) {
+            return null;
+        }
+        PendingSave pending = new PendingSave(journal, embedding);
+        if (!queue.offer(pending)) {
+            return null;
+        }
+        // Lost a race with stop() or a dying flusher: take it back unless it was already picked up
+        if (!running && queue.remove(pending)) {
+            return null;
+        }
+        return pending.future;
+    }
+
+    /**
+     * Waits for a submitted save to commit. Returns null if the flusher had
+     * not picked it up within wait-millis; the save is then withdrawn and the
+     * caller writes it itself. A save already in a batch is waited for
+     * without a limit: its batch completes it either way, and giving up on a
+     * row that may still commit would have the client retry it into a
+     * duplicate.
+     */
+    public Journal awaitCommit(CompletableFuture<Journal> future)
+            throws InterruptedException, ExecutionException {
+        long waitMillis = appProperties.getWriteBuffer().getWaitMillis();
+        try {
+            return future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.removeIf(pending -> pending.future == future)) {
+                logger.warn("Journal write buffer did not take a save within {}ms, writing it directly",
+                        waitMillis);
+                return null;
+            }
+            return future.get();
+        }
+    }
+
+    private void run() {
+        AppProperties.WriteBuffer settings = appProperties.getWriteBuffer();
+        int maxBatchSize = settings.getMaxBatchSize();
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(settings.getMaxDelayMillis());
+        List<PendingSave> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger briefly for more saves; a full batch goes out at once
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingSave next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Journal write buffer flush failed", e);
+            } finally {
+                for (PendingSave pending : batch) {
+                    pending.future.completeExceptionally(new IllegalStateException("Journal write buffer stopped"));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingSave> batch) {
+        // Sorted, so concurrent batches and direct writes lock users rows in one order
+        TreeSet<String> userIds = new TreeSet<>();
+        for (PendingSave pending : batch) {
+            userIds.add(pending.userId);
+            journalStatsIndex.beginWrite(pending.userId);
+            similarityIndex.beginWrite(pending.userId);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertRows(batch);
+                jdbcTemplate.batchUpdate(DATA_VERSION_SQL, new ArrayList<>(userIds), userIds.size(),
+                        (statement, userId) -> statement.setString(1, userId));
+            });
+        } catch (RuntimeException e) {
+            for (PendingSave pending : batch) {
+                journalStatsIndex.completeWrite(pending.userId, null);
+                similarityIndex.completeWrite(pending.userId);
+            }
+            if (batch.size() == 1) {
+                logger.error("Buffered journal save failed for user: {}", batch.get(0).userId, e);
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            logger.warn("Buffered batch of {} journal saves failed, retrying individually", batch.size(), e);
+            for (PendingSave pending : batch) {
+                flush(List.of(pending));
+            }
+            return;
+        }
+
+        for (PendingSave pending : batch) {
+            Journal journal = pending.journal;
+            journalStatsIndex.completeWrite(pending.userId, JournalStatsIndex.Patch.added(journal.getCreatedAt(),
+                    journal.getMood(), journal.getWordCount()));
+            similarityIndex.completeWrite(pending.userId);
+            similarityIndex.put(pending.userId, journal.getId().toString(), pending.embedding);
+            replicaRoutingDataSource.markWritten(pending.userId);
+            pending.future.complete(journal);
+        }
+        logger.debug("Flushed {} buffered journal saves for {} users", batch.size(), userIds.size());
+    }
+
+    private void insertRows(List<PendingSave> batch) {
+        jdbcTemplate.batchUpdate(JournalImportService.INSERT_SQL, batch, batch.size(), (statement, pending) -> {
+            Journal journal = pending.journal;
+            statement.setObject(1, journal.getId());
+            statement.setString(2, pending.userId);
+            statement.setString(3, journal.getTitle());
+            statement.setString(4, journal.getContent());
+            statement.setString(5, journal.getMood().name());
+            if (journal.getSummary() != null) {
+                statement.setString(6, journal.getSummary());
+            } else {
+                statement.setNull(6, Types.VARCHAR);
+            }
+            statement.setInt(7, journal.getWordCount());
+            statement.setString(8, journal.getExcerpt());
+            statement.setBytes(9, journal.getEmbedding());
+            statement.setTimestamp(10, Timestamp.valueOf(journal.getCreatedAt()));
+            statement.setTimestamp(11, Timestamp.valueOf(journal.getUpdatedAt()));
+        });
+    }
+}
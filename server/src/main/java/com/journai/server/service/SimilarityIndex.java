@@ -0,0 +1,526 @@
+package com.journai.server.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.journai.server.config.AppProperties;
+
+/**
+ * Per-user approximate nearest neighbour index over journal embeddings.
+ *
+ * Vectors for a user live in one contiguous {@code float[]}. Small sets are
+ * scanned exhaustively; once a user passes {@link #IVF_THRESHOLD} entries the
+ * set trains an inverted-file (IVF) index: k-means centroids with one posting
+ * list per centroid, of which only the closest few are probed per query. New
+ * entries are assigned to their nearest centroid as they arrive and the
+ * centroids are retrained lazily once the set has doubled since the last
+ * training.
+ *
+ * Resident sets are evicted least-recently-used past
+ * {@code app.similarity.max-vectors}.
+ */
+@Component
+public class SimilarityIndex {
+
+    static final int IVF_THRESHOLD = 2048;
+    private static final int KMEANS_ITERATIONS = 6;
+    private static final int TRAINING_POINTS_PER_CENTROID = 48;
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final LinkedHashMap<String, VectorSet> residents = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentVectors;
+
+    // Same striped write bookkeeping as JournalStatsIndex, so a lazy load
+    // never installs a set that raced with a write or eviction
+    private final long[] stripeGenerations = new long[STRIPES];
+    private final int[] stripePendingWrites = new int[STRIPES];
+
+    public boolean isEnabled() {
+        return appProperties.getSimilarity().isEnabled();
+    }
+
+    /**
+     * Returns the user's vectors, loading them through {@code loader} when
+     * they are not resident. As in {@link JournalStatsIndex}, the loaded set
+     * is only cached if no write or eviction for the user's stripe happened
+     * while it was being read; otherwise it may lack a just-saved entry or
+     * still hold a deleted one.
+     */
+    public VectorSet get(String userId, Function<String, VectorSet> loader) {
+        long generation;
+        synchronized (this) {
+            VectorSet cached = residents.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = stripeGenerations[stripe(userId)];
+        }
+
+        VectorSet loaded = loader.apply(userId);
+
+        synchronized (this) {
+            VectorSet raced = residents.get(userId);
+            if (raced != null) {
+                return raced;
+            }
+            int stripe = stripe(userId);
+            if (stripeGenerations[stripe] == generation && stripePendingWrites[stripe] == 0
+                    && loaded.size() <= getMaxVectors()) {
+                residents.put(userId, loaded);
+                residentVectors += loaded.size();
+                enforceBudget();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Marks the start of a write for a user. Must be paired with
+     * {@link #completeWrite(String)} once the transaction has finished, and
+     * the committed change applied with put or remove after that.
+     */
+    public synchronized void beginWrite(String userId) {
+        int stripe = stripe(userId);
+        stripePendingWrites[stripe]++;
+        stripeGenerations[stripe]++;
+    }
+
+    public synchronized void completeWrite(String userId) {
+        int stripe = stripe(userId);
+        stripePendingWrites[stripe]--;
+        stripeGenerations[stripe]++;
+    }
+
+    /**
+     * Adds or replaces a journal's vector if the user's set is resident.
+     * Writes are keyed by journal id, so replaying one is harmless.
+     */
+    public synchronized void put(String userId, String journalId, float[] vector) {
+        VectorSet set = residents.get(userId);
+        if (set != null) {
+            residentVectors += set.put(journalId, vector);
+            enforceBudget();
+        }
+    }
+
+    public synchronized void remove(String userId, String journalId) {
+        VectorSet set = residents.get(userId);
+        if (set != null) {
+            residentVectors += set.remove(journalId);
+        }
+    }
+
+    public synchronized void evict(String userId) {
+        // A load already under way read the rows this eviction is discarding
+        stripeGenerations[stripe(userId)]++;
+        VectorSet removed = residents.remove(userId);
+        if (removed != null) {
+            residentVectors -= removed.size();
+        }
+    }
+
+    private void enforceBudget() {
+        int maxVectors = getMaxVectors();
+        Iterator<Map.Entry<String, VectorSet>> eldest = residents.entrySet().iterator();
+        while (residentVectors > maxVectors && eldest.hasNext()) {
+            residentVectors -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private int getMaxVectors() {
+        return appProperties.getSimilarity().getMaxVectors();
+    }
+
+    private static int stripe(String userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    /**
+     * Nearest neighbours returned by {@link VectorSet#search}, best first.
+     */
+    public static final class Neighbours {
+        public final String[] ids;
+        public final float[] scores;
+
+        Neighbours(String[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+    }
+
+    /**
+     * One user's vectors. A replaced vector is overwritten in its slot, and
+     * new ids are appended; removals leave a tombstone that is compacted away
+     * once a quarter of the slots are dead.
+     */
+    public static final class VectorSet {
+
+        private final int dimensions;
+        private float[] vectors;
+        private String[] ids;
+        private int slots;
+        private int live;
+        private final Map<String, Integer> slotById = new HashMap<>();
+
+        // IVF state; null until trained
+        private float[] centroids;
+        private int[][] postings;
+        private int[] postingSizes;
+        private int trainedAt;
+
+        public VectorSet(int dimensions, int expectedSize) {
+            this.dimensions = dimensions;
+            int capacity = Math.max(expectedSize, 16);
+            this.vectors = new float[capacity * dimensions];
+            this.ids = new String[capacity];
+        }
+
+        public synchronized int size() {
+            return live;
+        }
+
+        public synchronized boolean isIvf() {
+            return centroids != null;
+        }
+
+        /** Returns the change in live vectors (0 for a replace, 1 for an add). */
+        public synchronized int put(String id, float[] vector) {
+            Integer existing = slotById.get(id);
+            if (existing != null) {
+                replace(existing, vector);
+                return 0;
+            }
+            if (slots == ids.length) {
+                ids = Arrays.copyOf(ids, slots * 2);
+                vectors = Arrays.copyOf(vectors, slots * 2 * dimensions);
+            }
+            System.arraycopy(vector, 0, vectors, slots * dimensions, dimensions);
+            ids[slots] = id;
+            slotById.put(id, slots);
+            if (centroids != null) {
+                addPosting(nearestCentroid(vectors, slots * dimensions), slots);
+            }
+            slots++;
+            live++;
+            return 1;
+        }
+
+        // Drafts and edits re-put the same id over and over, so it keeps its slot
+        private void replace(int slot, float[] vector) {
+            int offset = slot * dimensions;
+            int previous = centroids != null ? nearestCentroid(vectors, offset) : -1;
+            System.arraycopy(vector, 0, vectors, offset, dimensions);
+            if (centroids != null) {
+                int next = nearestCentroid(vectors, offset);
+                if (next != previous) {
+                    removePosting(previous, slot);
+                    addPosting(next, slot);
+                }
+            }
+        }
+
+        /** Returns the change in live vectors (-1 if removed, 0 if absent). */
+        public synchronized int remove(String id) {
+            int removed = removeSlot(id);
+            if (slots - live > slots / 4 && slots > 64) {
+                compact();
+            }
+            return -removed;
+        }
+
+        synchronized int slotCount() {
+            return slots;
+        }
+
+        public synchronized float[] vectorOf(String id) {
+            Integer slot = slotById.get(id);
+            if (slot == null) {
+                return null;
+            }
+            return Arrays.copyOfRange(vectors, slot * dimensions, (slot + 1) * dimensions);
+        }
+
+        /**
+         * Returns up to {@code k} most similar entries by cosine similarity
+         * (vectors are normalised, so a dot product), skipping {@code excludeId}.
+         */
+        public synchronized Neighbours search(float[] query, int k, String excludeId) {
+            if (live >= IVF_THRESHOLD && (centroids == null || live >= trainedAt * 2)) {
+                train();
+            }
+
+            TopK top = new TopK(k);
+            if (centroids == null) {
+                for (int slot = 0; slot < slots; slot++) {
+                    score(query, slot, excludeId, top);
+                }
+            } else {
+                int centroidCount = postings.length;
+                int probes = Math.min(centroidCount, Math.max(4, centroidCount / 8));
+                TopK nearest = new TopK(probes);
+                for (int c = 0; c < centroidCount; c++) {
+                    nearest.offer(c, dot(query, 0, centroids, c * dimensions, dimensions));
+                }
+                for (int p = 0; p < nearest.size; p++) {
+                    int c = nearest.slots[p];
+                    int[] posting = postings[c];
+                    for (int i = 0; i < postingSizes[c]; i++) {
+                        score(query, posting[i], excludeId, top);
+                    }
+                }
+            }
+
+            top.sortDescending();
+            String[] resultIds = new String[top.size];
+            float[] resultScores = new float[top.size];
+            for (int i = 0; i < top.size; i++) {
+                resultIds[i] = ids[top.slots[i]];
+                resultScores[i] = top.scores[i];
+            }
+            return new Neighbours(resultIds, resultScores);
+        }
+
+        private void score(float[] query, int slot, String excludeId, TopK top) {
+            String id = ids[slot];
+            if (id == null || id.equals(excludeId)) {
+                return;
+            }
+            top.offer(slot, dot(query, 0, vectors, slot * dimensions, dimensions));
+        }
+
+        private int removeSlot(String id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return 0;
+            }
+            // Tombstone; posting lists skip null ids
+            ids[slot] = null;
+            live--;
+            return 1;
+        }
+
+        private void compact() {
+            int target = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (ids[slot] == null) {
+                    continue;
+                }
+                if (slot != target) {
+                    ids[target] = ids[slot];
+                    System.arraycopy(vectors, slot * dimensions, vectors, target * dimensions, dimensions);
+                    slotById.put(ids[target], target);
+                }
+                target++;
+            }
+            Arrays.fill(ids, target, slots, null);
+            slots = target;
+            if (centroids != null) {
+                assignAll();
+            }
+        }
+
+        private void train() {
+            int centroidCount = Math.max(1, (int) Math.round(Math.sqrt(live)));
+            Random random = new Random(live);
+            int[] liveSlots = new int[live];
+            int n = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (ids[slot] != null) {
+                    liveSlots[n++] = slot;
+                }
+            }
+
+            // Train on a bounded random sample to keep retraining cheap
+            int sampleSize = Math.min(n, centroidCount * TRAINING_POINTS_PER_CENTROID);
+            for (int i = 0; i < sampleSize; i++) {
+                int j = i + random.nextInt(n - i);
+                int swap = liveSlots[i];
+                liveSlots[i] = liveSlots[j];
+                liveSlots[j] = swap;
+            }
+
+            float[] trained = new float[centroidCount * dimensions];
+            for (int c = 0; c < centroidCount; c++) {
+                System.arraycopy(vectors, liveSlots[c] * dimensions, trained, c * dimensions, dimensions);
+            }
+            centroids = trained;
+
+            int[] counts = new int[centroidCount];
+            float[] sums = new float[centroidCount * dimensions];
+            for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+                Arrays.fill(counts, 0);
+                Arrays.fill(sums, 0f);
+                for (int i = 0; i < sampleSize; i++) {
+                    int offset = liveSlots[i] * dimensions;
+                    int c = nearestCentroid(vectors, offset);
+                    counts[c]++;
+                    for (int d = 0; d < dimensions; d++) {
+                        sums[c * dimensions + d] += vectors[offset + d];
+                    }
+                }
+                for (int c = 0; c < centroidCount; c++) {
+                    if (counts[c] > 0) {
+                        normalizeInto(sums, c * dimensions, centroids);
+                    }
+                }
+            }
+
+            assignAll();
+            trainedAt = live;
+        }
+
+        private void assignAll() {
+            int centroidCount = centroids.length / dimensions;
+            postings = new int[centroidCount][];
+            postingSizes = new int[centroidCount];
+            for (int c = 0; c < centroidCount; c++) {
+                postings[c] = new int[8];
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                if (ids[slot] != null) {
+                    addPosting(nearestCentroid(vectors, slot * dimensions), slot);
+                }
+            }
+        }
+
+        private void addPosting(int centroid, int slot) {
+            int[] posting = postings[centroid];
+            if (postingSizes[centroid] == posting.length) {
+                posting = Arrays.copyOf(posting, posting.length * 2);
+                postings[centroid] = posting;
+            }
+            posting[postingSizes[centroid]++] = slot;
+        }
+
+        // Postings are unordered, so the last one takes the removed one's place
+        private void removePosting(int centroid, int slot) {
+            int[] posting = postings[centroid];
+            for (int i = 0; i < postingSizes[centroid]; i++) {
+                if (posting[i] == slot) {
+                    posting[i] = posting[--postingSizes[centroid]];
+                    return;
+                }
+            }
+        }
+
+        private int nearestCentroid(float[] source, int offset) {
+            int best = 0;
+            float bestScore = Float.NEGATIVE_INFINITY;
+            for (int c = 0; c * dimensions < centroids.length; c++) {
+                float score = dot(source, offset, centroids, c * dimensions, dimensions);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        private void normalizeInto(float[] source, int offset, float[] target) {
+            double sumOfSquares = 0;
+            for (int d = 0; d < dimensions; d++) {
+                sumOfSquares += source[offset + d] * source[offset + d];
+            }
+            float scale = sumOfSquares == 0 ? 0f : (float) (1 / Math.sqrt(sumOfSquares));
+            for (int d = 0; d < dimensions; d++) {
+                target[offset + d] = source[offset + d] * scale;
+            }
+        }
+    }
+
+    private static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Fixed-size min-heap of (slot, score) pairs.
+     */
+    private static final class TopK {
+        final int[] slots;
+        final float[] scores;
+        int size;
+
+        TopK(int k) {
+            this.slots = new int[k];
+            this.scores = new float[k];
+        }
+
+        void offer(int slot, float score) {
+            if (slots.length == 0) {
+                return;
+            }
+            if (size < slots.length) {
+                slots[size] = slot;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                slots[0] = slot;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        void sortDescending() {
+            int n = size;
+            while (size > 1) {
+                swap(0, --size);
+                siftDown(0);
+            }
+            size = n;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                int smallest = i;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (left + 1 < size && scores[left + 1] < scores[smallest]) {
+                    smallest = left + 1;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int slot = slots[i];
+            slots[i] = slots[j];
+            slots[j] = slot;
+            float score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+}
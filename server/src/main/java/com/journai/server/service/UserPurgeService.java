@@ -0,0 +1,167 @@
+package com.journai.server.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.journai.server.config.AppProperties;
+
+/**
+ * Deletes users removed in Clerk together with all their journals. A
+ * user.deleted event only records the purge in user_purges; this worker then
+ * deletes the journals app.purge.batch-size at a time, each batch in its own
+ * short transaction that also adds to journals_deleted and renews the lease,
+ * pausing between batches so a user with years of entries never holds locks
+ * or saturates the primary for long. The users row goes last, in the same
+ * transaction that marks the purge complete, and only once no journal is
+ * left. A purge whose instance dies is resumed from wherever it stopped once
+ * its lease lapses; every step is safe to repeat.
+ */
+@Service
+public class UserPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private static final String REQUEST_SQL =
+            "INSERT INTO user_purges (user_id) VALUES (?) ON CONFLICT (user_id) DO NOTHING";
+
+    private static final String CLAIM_SQL = """
+            UPDATE user_purges
+            SET locked_until = now() + make_interval(secs => ?)
+            WHERE user_id = (
+                SELECT user_id FROM user_purges
+                WHERE completed_at IS NULL AND (locked_until IS NULL OR locked_until < now())
+                ORDER BY requested_at
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING user_id, journals_deleted
+            """;
+
+    // Oldest first along idx_journal_user_created_at; (id, created_at) is the key of the partitioned table
+    private static final String DELETE_BATCH_SQL = """
+            DELETE FROM journals
+            WHERE (id, created_at) IN (
+                SELECT id, created_at FROM journals
+                WHERE user_id = ?
+                ORDER BY created_at
+                LIMIT ?)
+            """;
+
+    private static final String PROGRESS_SQL = """
+            UPDATE user_purges
+            SET journals_deleted = journals_deleted + ?, locked_until = now() + make_interval(secs => ?)
+            WHERE user_id = ?
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE user_purges SET completed_at = now(), locked_until = NULL
+            WHERE user_id = ? AND NOT EXISTS (SELECT 1 FROM users WHERE id = ?)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JournalStatsIndex journalStatsIndex;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private record Purge(String userId, long journalsDeleted) {
+    }
+
+    /** Records that a user is to be purged; requesting it again changes nothing. */
+    public void requestPurge(String userId) {
+        if (jdbcTemplate.update(REQUEST_SQL, userId) > 0) {
+            logger.info("Requested purge of user: {}", userId);
+        }
+    }
+
+    /** True once a purge of the user has been requested, finished or not. */
+    public boolean isPurgeRequested(String userId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM user_purges WHERE user_id = ?", Integer.class, userId)
+                .isEmpty();
+    }
+
+    /** Claims and runs pending purges one at a time until none are left. */
+    @Scheduled(fixedDelayString = "${app.purge.poll-interval:10000}")
+    public void processPurges() {
+        AppProperties.Purge settings = appProperties.getPurge();
+        while (true) {
+            List<Purge> claimed;
+            try {
+                claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Purge(rs.getString("user_id"),
+                        rs.getLong("journals_deleted")), settings.getLeaseSeconds());
+            } catch (DataAccessException e) {
+                logger.error("Claiming user purges failed", e);
+                return;
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            try {
+                purge(claimed.get(0), settings);
+            } catch (InterruptedException e) {
+                // The lease lapses and another worker resumes the purge
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Purge of user {} failed, will resume after its lease expires",
+                        claimed.get(0).userId(), e);
+                return;
+            }
+        }
+    }
+
+    private void purge(Purge purge, AppProperties.Purge settings) throws InterruptedException {
+        String userId = purge.userId();
+        long deleted = purge.journalsDeleted();
+        logger.info("Purging user {}, {} journals already deleted", userId, deleted);
+
+        while (true) {
+            Integer rows = transactionTemplate.execute(status -> {
+                int batch = jdbcTemplate.update(DELETE_BATCH_SQL, userId, settings.getBatchSize());
+                jdbcTemplate.update(PROGRESS_SQL, batch, settings.getLeaseSeconds(), userId);
+                return batch;
+            });
+            deleted += rows;
+            if (rows > 0) {
+                logger.info("Purging user {}: deleted {} journals so far", userId, deleted);
+            }
+
+            // A short batch means the journals are gone, unless a save raced in;
+            // then the user row stays and the next round deletes it
+            if (rows < settings.getBatchSize()) {
+                Boolean complete = transactionTemplate.execute(status -> {
+                    userService.deleteUser(userId);
+                    return jdbcTemplate.update(COMPLETE_SQL, userId, userId) > 0;
+                });
+                if (Boolean.TRUE.equals(complete)) {
+                    break;
+                }
+            }
+            Thread.sleep(settings.getBatchPauseMillis());
+        }
+
+        journalStatsIndex.evict(userId);
+        similarityIndex.evict(userId);
+        logger.info("Purged user {} and {} journals", userId, deleted);
+    }
+}
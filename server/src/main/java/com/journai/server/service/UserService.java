@@ -1,16 +1,25 @@
 package com.journai.server.service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.journai.server.model.User;
 import com.journai.server.repository.UserRepository;
 
+import jakarta.persistence.EntityManagerFactory;
+
 @Service
 @Transactional
 public class UserService {
@@ -20,87 +29,77 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
-     * Create a new user
+     * Creates or updates a user from a Clerk webhook in one statement. Null
+     * name and image fields keep what is stored. Without an email address
+     * only an existing user's profile can be updated. {@code eventAt} is the
+     * user's updated_at in Clerk (see eventTime): a state older than the one
+     * already written changes nothing. Null writes unconditionally. Returns
+     * false if nothing was written.
      */
-    public User createUser(String id, String email, String name, String imageUrl) {
-        logger.info("Creating user with id: {}, email: {}", id, email);
-
-        // Check if user already exists
-        if (userRepository.existsById(id)) {
-            logger.warn("User with id {} already exists", id);
-            throw new IllegalArgumentException("User with id " + id + " already exists");
-        }
-
-        // Check if email is already taken
-        Optional<User> existingUserByEmail = userRepository.findByEmail(email);
-        if (existingUserByEmail.isPresent()) {
-            logger.warn("User with email {} already exists", email);
-            throw new IllegalArgumentException("User with email " + email + " already exists");
-        }
-
-        User user = new User(id, email, name, imageUrl);
-        User savedUser = userRepository.save(user);
-
-        logger.info("Successfully created user with id: {}", savedUser.getId());
-        return savedUser;
+    public boolean upsertUser(String id, String email, String name, String imageUrl, LocalDateTime eventAt) {
+        int rows = email != null
+                ? userRepository.upsert(id, email, name, imageUrl, eventAt)
+                : userRepository.updateProfile(id, name, imageUrl, eventAt);
+        evictAfterCommit(id);
+        logger.info("Upserted user with id: {}, rows: {}", id, rows);
+        return rows > 0;
     }
 
     /**
-     * Update an existing user
+     * Creates or updates many users in one statement, for the Clerk
+     * reconciliation. Unlike upsertUser every field is written as given, but
+     * as there, a user whose stored state is newer than lastEventAt is left
+     * alone. Returns the number of users written.
      */
-    public User updateUser(String id, String email, String name, String imageUrl) {
-        logger.info("Updating user with id: {}", id);
-
-        Optional<User> existingUserOpt = userRepository.findById(id);
-        if (existingUserOpt.isEmpty()) {
-            logger.error("User with id {} not found for update", id);
-            throw new IllegalArgumentException("User with id " + id + " not found");
+    public int upsertUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return 0;
         }
-
-        User existingUser = existingUserOpt.get();
-
-        // Check if new email conflicts with another user
-        if (email != null && !email.equals(existingUser.getEmail())) {
-            Optional<User> userWithNewEmail = userRepository.findByEmail(email);
-            if (userWithNewEmail.isPresent() && !userWithNewEmail.get().getId().equals(id)) {
-                logger.warn("Email {} is already taken by another user", email);
-                throw new IllegalArgumentException("Email " + email + " is already taken");
-            }
-            existingUser.setEmail(email);
-        }
-
-        // Update fields if provided
-        if (name != null) {
-            existingUser.setName(name);
-        }
-        if (imageUrl != null) {
-            existingUser.setImageUrl(imageUrl);
+        int rows = userRepository.upsertAll(
+                users.stream().map(User::getId).toArray(String[]::new),
+                users.stream().map(User::getEmail).toArray(String[]::new),
+                users.stream().map(User::getName).toArray(String[]::new),
+                users.stream().map(User::getImageUrl).toArray(String[]::new),
+                users.stream().map(User::getLastEventAt).toArray(LocalDateTime[]::new));
+        for (User user : users) {
+            evictAfterCommit(user.getId());
         }
+        logger.info("Upserted {} users", rows);
+        return rows;
+    }
 
-        User updatedUser = userRepository.save(existingUser);
-        logger.info("Successfully updated user with id: {}", updatedUser.getId());
-        return updatedUser;
+    /**
+     * Clerk's updated_at, epoch milliseconds, as stored in users.last_event_at
+     * (UTC). It orders a user's states; Svix delivery timestamps do not, as
+     * every retry is signed anew. Null if Clerk sent none.
+     */
+    public static LocalDateTime eventTime(Long updatedAtMillis) {
+        return updatedAtMillis != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(updatedAtMillis), ZoneOffset.UTC)
+                : null;
     }
 
     /**
-     * Delete a user
+     * Deletes a user who has no journals left; a user with journals is
+     * purged by UserPurgeService instead. Deleting one that is already gone
+     * is a no-op.
      */
-    public void deleteUser(String id) {
+    public boolean deleteUser(String id) {
         logger.info("Deleting user with id: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            logger.warn("User with id {} not found for deletion", id);
-            throw new IllegalArgumentException("User with id " + id + " not found");
-        }
-
-        userRepository.deleteById(id);
-        logger.info("Successfully deleted user with id: {}", id);
+        int rows = userRepository.deleteIfExists(id);
+        evictAfterCommit(id);
+        return rows > 0;
     }
 
     /**
      * Find user by ID
      */
+    @Transactional(readOnly = true)
     public Optional<User> findById(String id) {
         return userRepository.findById(id);
     }
@@ -108,6 +107,7 @@ public class UserService {
     /**
      * Find user by email
      */
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -115,7 +115,31 @@ public class UserService {
     /**
      * Check if user exists
      */
+    @Transactional(readOnly = true)
     public boolean existsById(String id) {
         return userRepository.existsById(id);
     }
+
+    /**
+     * Drops the cached copy of a user once the webhook's change has committed,
+     * so the next lookup reads the row again.
+     */
+    private void evictAfterCommit(String id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+
+    private void evict(String id) {
+        entityManagerFactory.getCache().evict(User.class, id);
+        // Cached findByEmail results may name the changed user
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
 }
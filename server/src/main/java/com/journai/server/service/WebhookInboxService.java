@@ -0,0 +1,199 @@
+package com.journai.server.service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.journai.server.config.AppProperties;
+import com.journai.server.dto.ClerkWebhookEvent;
+
+/**
+ * Clerk webhooks, received and applied separately. A verified delivery is
+ * only inserted into webhook_inbox, keyed by its Svix message id, and
+ * acknowledged; a redelivery finds its row and changes nothing. Workers on
+ * every instance then claim pending events with SKIP LOCKED, oldest first,
+ * and apply each in its own transaction together with marking it processed.
+ * Claiming leases an event for app.webhooks.lease-seconds by pushing
+ * next_attempt_at out, so one whose worker dies is picked up again after
+ * that; a failed one is retried with exponential backoff, up to
+ * app.webhooks.max-attempts. Events for the same user may still be applied
+ * out of order, so user writes carry the payload's updated_at and never
+ * replace a newer state. sent_at is only the delivery attempt's Svix
+ * timestamp, which a retry renews.
+ */
+@Service
+public class WebhookInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookInboxService.class);
+
+    // Typed and streaming: only the fields ClerkWebhookEvent names are bound
+    private static final ObjectReader EVENT_READER = new ObjectMapper().readerFor(ClerkWebhookEvent.class);
+
+    private static final String INSERT_SQL = "INSERT INTO webhook_inbox (event_id, event_type, payload, sent_at)"
+            + " VALUES (?, ?, ?, ?) ON CONFLICT (event_id) DO NOTHING";
+
+    // The lease outlasts applying a whole batch; failures set the backoff (FAILED_SQL)
+    private static final String CLAIM_SQL = """
+            UPDATE webhook_inbox
+            SET attempts = attempts + 1,
+                next_attempt_at = now() + make_interval(secs => ?)
+            WHERE event_id IN (
+                SELECT event_id FROM webhook_inbox
+                WHERE processed_at IS NULL AND next_attempt_at <= now() AND attempts < ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING event_id, event_type, payload, sent_at, attempts
+            """;
+
+    private static final String PROCESSED_SQL =
+            "UPDATE webhook_inbox SET processed_at = now(), last_error = NULL WHERE event_id = ?";
+
+    // The backoff doubles per attempt, capped at an hour
+    private static final String FAILED_SQL = "UPDATE webhook_inbox SET last_error = ?,"
+            + " next_attempt_at = now() + make_interval(secs => LEAST(power(2, attempts), 3600)) WHERE event_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private record PendingEvent(String id, String type, String payload, Timestamp sentAt, int attempts) {
+    }
+
+    public static ClerkWebhookEvent parse(byte[] payload) throws IOException {
+        return EVENT_READER.readValue(payload);
+    }
+
+    /**
+     * Stores a verified delivery for the workers. Returns false if an event
+     * with this id was already received.
+     */
+    public boolean enqueue(String eventId, String eventType, Instant sentAt, String payload) {
+        return jdbcTemplate.update(INSERT_SQL, eventId, eventType, payload, Timestamp.from(sentAt)) > 0;
+    }
+
+    /** Claims and applies pending events until none are due. */
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval:1000}")
+    public void processInbox() {
+        AppProperties.Webhooks settings = appProperties.getWebhooks();
+        while (true) {
+            List<PendingEvent> batch;
+            try {
+                batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new PendingEvent(rs.getString("event_id"),
+                        rs.getString("event_type"), rs.getString("payload"), rs.getTimestamp("sent_at"),
+                        rs.getInt("attempts")), settings.getLeaseSeconds(), settings.getMaxAttempts(),
+                        settings.getBatchSize());
+            } catch (DataAccessException e) {
+                logger.error("Claiming webhook events failed", e);
+                return;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // RETURNING has no order; roughly the order of delivery, updated_at decides what sticks
+            batch.sort(Comparator.comparing(PendingEvent::sentAt).thenComparing(PendingEvent::id));
+            for (PendingEvent event : batch) {
+                apply(event, settings.getMaxAttempts());
+            }
+            if (batch.size() < settings.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private void apply(PendingEvent event, int maxAttempts) {
+        try {
+            ClerkWebhookEvent parsed = EVENT_READER.readValue(event.payload());
+            transactionTemplate.executeWithoutResult(status -> {
+                applyEvent(event.id(), parsed);
+                jdbcTemplate.update(PROCESSED_SQL, event.id());
+            });
+        } catch (IOException | RuntimeException e) {
+            boolean exhausted = event.attempts() >= maxAttempts;
+            if (exhausted) {
+                logger.error("Webhook event {} ({}) failed {} times, giving up", event.id(), event.type(),
+                        event.attempts(), e);
+            } else {
+                logger.warn("Webhook event {} ({}) failed on attempt {}, will retry", event.id(), event.type(),
+                        event.attempts(), e);
+            }
+            try {
+                jdbcTemplate.update(FAILED_SQL, String.valueOf(e), event.id());
+            } catch (DataAccessException recordFailure) {
+                logger.error("Recording failure of webhook event {} failed", event.id(), recordFailure);
+            }
+        }
+    }
+
+    private void applyEvent(String eventId, ClerkWebhookEvent event) {
+        ClerkWebhookEvent.UserData data = event.getData();
+        String userId = data != null ? data.getId() : null;
+
+        switch (event.getType()) {
+            case "user.created", "user.updated" -> {
+                if (userId == null) {
+                    logger.error("Webhook event {} has no user id, skipping", eventId);
+                    return;
+                }
+                // A late or retried event must not bring a deleted user back
+                if (userPurgeService.isPurgeRequested(userId)) {
+                    logger.info("Webhook event {} is for deleted user {}, skipping", eventId, userId);
+                    return;
+                }
+                if (!userService.upsertUser(userId, data.getPrimaryEmail(), data.getFullName(),
+                        data.getImageUrl(), UserService.eventTime(data.getUpdatedAt()))) {
+                    logger.warn("Webhook event {} changed nothing for user {}: a newer event was already applied,"
+                            + " or it has no email address for an unknown user", eventId, userId);
+                }
+            }
+            case "user.deleted" -> {
+                if (userId == null) {
+                    logger.error("Webhook event {} has no user id, skipping", eventId);
+                    return;
+                }
+                // Journals first, in batches; UserPurgeService removes the user last
+                userPurgeService.requestPurge(userId);
+            }
+            default -> logger.info("Unhandled webhook event type: {}", event.getType());
+        }
+        logger.info("Applied webhook event {} ({}) for user: {}", eventId, event.getType(), userId);
+    }
+
+    /** Forgets applied events once Svix has stopped redelivering them. */
+    @Scheduled(cron = "${app.webhooks.cleanup-cron:0 45 3 * * *}")
+    public void deleteProcessedEvents() {
+        try {
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM webhook_inbox WHERE processed_at < now() - make_interval(days => ?)",
+                    appProperties.getWebhooks().getRetentionDays());
+            logger.info("Deleted {} processed webhook events", deleted);
+        } catch (DataAccessException e) {
+            logger.error("Deleting processed webhook events failed", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- sent_at of the newest Clerk webhook event applied to each user. Workers
+-- may apply a user's events out of order (a retry, or two instances claiming
+-- neighbouring events), so an upsert only takes effect for an event newer
+-- than this; see UserRepository.upsert.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_event_at timestamp(6);
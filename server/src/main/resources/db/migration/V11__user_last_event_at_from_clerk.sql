@@ -0,0 +1,7 @@
+-- last_event_at now holds the user's updated_at in Clerk (UTC), not the Svix
+-- timestamp of the delivery that wrote it: Svix signs every retry anew, so an
+-- older event retried later looked newer. The values written so far are
+-- delivery times and not comparable, so they are cleared; the next event for
+-- each user writes unconditionally and sets it again.
+
+UPDATE users SET last_event_at = NULL WHERE last_event_at IS NOT NULL;
@@ -0,0 +1,31 @@
+-- Old partitions no longer get a BRIN index on created_at. Every journal
+-- query filters on user_id (see V4), so the per-partition
+-- (user_id, created_at DESC, id DESC) B-tree serves them all and stays; the
+-- BRIN index was never read, only written and stored next to it.
+
+DO $$
+DECLARE
+    brin_index record;
+BEGIN
+    FOR brin_index IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_index x ON x.indrelid = i.inhrelid
+        JOIN pg_class c ON c.oid = x.indexrelid
+        WHERE i.inhparent = 'journals'::regclass
+          AND c.relname ~ '^journals_y[0-9]{4}m[0-9]{2}_created_at_brin$'
+    LOOP
+        EXECUTE format('DROP INDEX IF EXISTS %I', brin_index.relname);
+    END LOOP;
+END
+$$;
+
+DROP FUNCTION IF EXISTS journal_partition_maintenance(integer, integer);
+
+-- Scheduled upkeep: create months_ahead months of future partitions
+CREATE OR REPLACE FUNCTION journal_partition_maintenance(months_ahead integer)
+RETURNS integer LANGUAGE plpgsql AS $$
+BEGIN
+    RETURN journal_ensure_partitions(current_date, (current_date + make_interval(months => months_ahead))::date);
+END
+$$;
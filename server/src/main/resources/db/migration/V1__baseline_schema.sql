@@ -0,0 +1,37 @@
+-- Schema as Hibernate's ddl-auto update left it before Flyway took over.
+-- Every statement is idempotent: databases that ddl-auto already built are
+-- adopted with baseline-version 0, so this script runs against them too and
+-- only fills in whatever an older build had not created yet.
+
+CREATE TABLE IF NOT EXISTS users (
+    id varchar(255) NOT NULL PRIMARY KEY,
+    email varchar(255) NOT NULL UNIQUE,
+    name varchar(255),
+    image_url varchar(255),
+    data_version bigint,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS data_version bigint;
+
+CREATE TABLE IF NOT EXISTS journals (
+    id uuid NOT NULL PRIMARY KEY,
+    user_id varchar(255) NOT NULL REFERENCES users (id),
+    title varchar(255),
+    content text,
+    mood varchar(255) NOT NULL,
+    summary text,
+    word_count integer,
+    excerpt varchar(200),
+    embedding bytea,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6)
+);
+
+ALTER TABLE journals ADD COLUMN IF NOT EXISTS word_count integer;
+ALTER TABLE journals ADD COLUMN IF NOT EXISTS excerpt varchar(200);
+ALTER TABLE journals ADD COLUMN IF NOT EXISTS embedding bytea;
+
+CREATE INDEX IF NOT EXISTS idx_journal_user_id ON journals (user_id);
+CREATE INDEX IF NOT EXISTS idx_journal_created_at ON journals (created_at);
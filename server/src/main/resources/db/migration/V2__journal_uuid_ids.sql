@@ -0,0 +1,12 @@
+-- journals.id moved from varchar UUID strings to native uuid (16 bytes
+-- instead of 37). Tables created by ddl-auto before the move are converted
+-- in place; the cast keeps every id.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'journals'
+                 AND column_name = 'id' AND data_type <> 'uuid') THEN
+        ALTER TABLE journals ALTER COLUMN id TYPE uuid USING id::uuid;
+    END IF;
+END
+$$;
@@ -0,0 +1,11 @@
+-- Full-text search over journals, weighted title > summary > content.
+-- Idempotent so databases that ran it as an init script are adopted as is.
+
+ALTER TABLE journals ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(summary, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(content, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_journal_search_vector ON journals USING GIN (search_vector);
@@ -0,0 +1,20 @@
+-- Every hot journal query filters on user_id and orders or ranges on
+-- created_at, so composite indexes replace the single-column ones:
+--   (user_id, created_at DESC, id DESC) serves keyset listing, date ranges,
+--     counts, stats and export (scanned backwards for ascending order);
+--   (user_id, mood, created_at) serves mood-filtered listings.
+-- idx_journal_user_id is a prefix of the first index, and no query filters
+-- on created_at without user_id, so both single-column indexes go.
+-- Built CONCURRENTLY so writes are not blocked; see the .conf alongside.
+-- A failed concurrent build leaves an INVALID index behind, which must be
+-- dropped by hand before the migration is retried.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_journal_user_created_at
+    ON journals (user_id, created_at DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_journal_user_mood_created_at
+    ON journals (user_id, mood, created_at);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_journal_user_id;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_journal_created_at;
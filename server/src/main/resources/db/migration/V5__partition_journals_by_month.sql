@@ -0,0 +1,197 @@
+-- Journals become a table partitioned by created_at month, so date-range
+-- queries and autovacuum only touch the months involved and old months can
+-- be detached or archived as a unit. Partitions are named journals_yYYYYmMM.
+--
+-- Postgres requires the partition key in every unique constraint, so the
+-- primary key becomes (id, created_at); ids are UUIDv7 and stay unique.
+-- There is no DEFAULT partition: a row for a month without a partition
+-- fails loudly instead of landing somewhere it can never be moved out of.
+-- JournalPartitionMaintenance keeps future months created ahead of time and
+-- bulk import creates historic months before writing into them.
+--
+-- Runs outside a transaction (see the .conf alongside) so existing rows are
+-- copied online: the new table is built next to the old one with its indexes
+-- in place, a trigger mirrors every write to the old table into it, and the
+-- rows are copied in primary key order, 1000 per transaction. Each batch
+-- holds writes only while it copies; the swap at the end takes one short
+-- exclusive lock. A run that failed part way must be inspected before it is
+-- retried: before the swap, dropping journals_partitioned and its partitions
+-- and the journal_mirror trigger starts it over.
+
+CREATE TABLE IF NOT EXISTS journals_partitioned (
+    id uuid NOT NULL,
+    user_id varchar(255) NOT NULL,
+    title varchar(255),
+    content text,
+    mood varchar(255) NOT NULL,
+    summary text,
+    word_count integer,
+    excerpt varchar(200),
+    embedding bytea,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(summary, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(content, '')), 'C')
+    ) STORED,
+    CONSTRAINT journals_partitioned_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT journals_user_id_fkey FOREIGN KEY (user_id) REFERENCES users (id)
+) PARTITION BY RANGE (created_at);
+
+-- Every month the existing rows cover, through three months ahead
+DO $$
+DECLARE
+    partition_month date;
+    last_month date;
+    partition_name text;
+BEGIN
+    SELECT date_trunc('month', coalesce(min(created_at), now())),
+           greatest(max(created_at), now() + interval '3 months')
+    INTO partition_month, last_month
+    FROM journals;
+    WHILE partition_month <= last_month LOOP
+        partition_name := 'journals_y' || to_char(partition_month, 'YYYY') || 'm' || to_char(partition_month, 'MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF journals_partitioned FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, partition_month, partition_month + interval '1 month');
+        END IF;
+        partition_month := partition_month + interval '1 month';
+    END LOOP;
+END
+$$;
+
+-- Built while the table is empty and then kept up by the copy, so nothing
+-- waits on an index build; renamed to the usual names by the swap
+CREATE INDEX IF NOT EXISTS idx_journal_user_created_at_part
+    ON journals_partitioned (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_journal_user_mood_created_at_part
+    ON journals_partitioned (user_id, mood, created_at);
+CREATE INDEX IF NOT EXISTS idx_journal_search_vector_part
+    ON journals_partitioned USING GIN (search_vector);
+
+-- From here on every write to the old table is applied to the new one too
+CREATE OR REPLACE FUNCTION journal_mirror_write()
+RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM journals_partitioned WHERE id = OLD.id AND created_at = OLD.created_at;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        INSERT INTO journals_partitioned (id, user_id, title, content, mood, summary, word_count, excerpt,
+                                          embedding, created_at, updated_at)
+        VALUES (NEW.id, NEW.user_id, NEW.title, NEW.content, NEW.mood, NEW.summary, NEW.word_count,
+                NEW.excerpt, NEW.embedding, NEW.created_at, NEW.updated_at)
+        ON CONFLICT (id, created_at) DO NOTHING;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS journal_mirror ON journals;
+CREATE TRIGGER journal_mirror AFTER INSERT OR UPDATE OR DELETE ON journals
+    FOR EACH ROW EXECUTE FUNCTION journal_mirror_write();
+
+-- Copies rows in id order, one committed batch at a time. The SHARE lock
+-- keeps writes out while a batch reads, so a row the trigger has already
+-- mirrored or removed is never overwritten with an older copy.
+CREATE OR REPLACE PROCEDURE journal_copy_to_partitions(batch_size integer)
+LANGUAGE plpgsql AS $$
+DECLARE
+    last_id uuid := '00000000-0000-0000-0000-000000000000';
+    next_id uuid;
+BEGIN
+    LOOP
+        LOCK TABLE journals IN SHARE MODE;
+        WITH batch AS (
+            SELECT id, user_id, title, content, mood, summary, word_count, excerpt, embedding,
+                   created_at, updated_at
+            FROM journals
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT batch_size
+        ), copied AS (
+            INSERT INTO journals_partitioned (id, user_id, title, content, mood, summary, word_count, excerpt,
+                                              embedding, created_at, updated_at)
+            SELECT * FROM batch
+            ON CONFLICT (id, created_at) DO NOTHING
+        )
+        SELECT id INTO next_id FROM batch ORDER BY id DESC LIMIT 1;
+        COMMIT;
+        EXIT WHEN next_id IS NULL;
+        last_id := next_id;
+    END LOOP;
+END
+$$;
+
+CALL journal_copy_to_partitions(1000);
+
+-- The swap, in one transaction; the old table's indexes go with it, so the
+-- usual names are free again
+DO $$
+BEGIN
+    LOCK TABLE journals IN ACCESS EXCLUSIVE MODE;
+    DROP TABLE journals;
+    ALTER TABLE journals_partitioned RENAME TO journals;
+    ALTER TABLE journals RENAME CONSTRAINT journals_partitioned_pkey TO journals_pkey;
+    ALTER INDEX idx_journal_user_created_at_part RENAME TO idx_journal_user_created_at;
+    ALTER INDEX idx_journal_user_mood_created_at_part RENAME TO idx_journal_user_mood_created_at;
+    ALTER INDEX idx_journal_search_vector_part RENAME TO idx_journal_search_vector;
+END
+$$;
+
+DROP PROCEDURE journal_copy_to_partitions(integer);
+DROP FUNCTION journal_mirror_write();
+
+-- Creates the monthly partitions covering [from_month, to_month] that do not
+-- exist yet and returns how many were created.
+CREATE OR REPLACE FUNCTION journal_ensure_partitions(from_month date, to_month date)
+RETURNS integer LANGUAGE plpgsql AS $$
+DECLARE
+    partition_month date := date_trunc('month', from_month);
+    partition_name text;
+    created integer := 0;
+BEGIN
+    -- Serialises concurrent callers; IF NOT EXISTS alone races on the catalog
+    PERFORM pg_advisory_xact_lock(hashtext('journal_partitions'));
+    WHILE partition_month <= to_month LOOP
+        partition_name := 'journals_y' || to_char(partition_month, 'YYYY') || 'm' || to_char(partition_month, 'MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF journals FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, partition_month, partition_month + interval '1 month');
+            created := created + 1;
+        END IF;
+        partition_month := partition_month + interval '1 month';
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Scheduled upkeep: create months_ahead months of future partitions and give
+-- partitions older than brin_after_months a BRIN index on created_at, which
+-- costs a few pages against a B-tree's thousands once a month stops changing.
+CREATE OR REPLACE FUNCTION journal_partition_maintenance(months_ahead integer, brin_after_months integer)
+RETURNS integer LANGUAGE plpgsql AS $$
+DECLARE
+    created integer;
+    old_partition record;
+BEGIN
+    created := journal_ensure_partitions(current_date,
+                                         (current_date + make_interval(months => months_ahead))::date);
+    FOR old_partition IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'journals'::regclass
+          AND c.relname ~ '^journals_y[0-9]{4}m[0-9]{2}$'
+          AND to_date(substring(c.relname FROM 11), 'YYYY"m"MM')
+              < date_trunc('month', current_date) - make_interval(months => brin_after_months)
+    LOOP
+        EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I USING BRIN (created_at)',
+                       old_partition.relname || '_created_at_brin', old_partition.relname);
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+ANALYZE journals;
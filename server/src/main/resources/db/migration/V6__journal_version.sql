@@ -0,0 +1,5 @@
+-- Per-entry version for draft autosave: every content write bumps it, and a
+-- draft is only written back if the row is still at the version it started
+-- from. A constant default keeps this a catalog-only change on every partition.
+
+ALTER TABLE journals ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
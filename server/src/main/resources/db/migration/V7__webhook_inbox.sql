@@ -0,0 +1,21 @@
+-- Verified Clerk webhook deliveries, keyed by their Svix message id so a
+-- redelivery is a no-op. The request only inserts here; background workers
+-- apply pending events (service/WebhookInboxService), and next_attempt_at is
+-- both their retry backoff and the lease that keeps a claimed event from being
+-- picked up twice.
+
+CREATE TABLE IF NOT EXISTS webhook_inbox (
+    event_id varchar(255) NOT NULL PRIMARY KEY,
+    event_type varchar(100) NOT NULL,
+    payload text NOT NULL,
+    sent_at timestamp(6) NOT NULL,
+    received_at timestamp(6) NOT NULL DEFAULT now(),
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6) NOT NULL DEFAULT now(),
+    processed_at timestamp(6),
+    last_error text
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_pending
+    ON webhook_inbox (next_attempt_at)
+    WHERE processed_at IS NULL;
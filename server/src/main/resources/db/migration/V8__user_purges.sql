@@ -0,0 +1,17 @@
+-- Users whose deletion is in progress. A user.deleted webhook only adds a
+-- row here; service/UserPurgeService then deletes the user's journals in
+-- bounded batches, counting them in journals_deleted, and removes the users
+-- row last. locked_until is the lease of the instance working on a purge, so
+-- a purge interrupted by a crash is picked up again once it lapses.
+
+CREATE TABLE IF NOT EXISTS user_purges (
+    user_id varchar(255) NOT NULL PRIMARY KEY,
+    requested_at timestamp(6) NOT NULL DEFAULT now(),
+    journals_deleted bigint NOT NULL DEFAULT 0,
+    locked_until timestamp(6),
+    completed_at timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_purges_pending
+    ON user_purges (requested_at)
+    WHERE completed_at IS NULL;
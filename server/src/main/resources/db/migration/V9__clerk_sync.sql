@@ -0,0 +1,15 @@
+-- State of the Clerk user reconciliation (service/ClerkUserSyncService), a
+-- single row. watermark is the newest Clerk updated_at (epoch milliseconds)
+-- a completed run has applied; the next run only reads users changed since.
+-- locked_until is the lease that keeps instances from running it at once.
+
+CREATE TABLE IF NOT EXISTS clerk_sync (
+    id smallint NOT NULL PRIMARY KEY CHECK (id = 1),
+    watermark bigint,
+    locked_until timestamp(6),
+    last_run_at timestamp(6),
+    last_run_users integer,
+    last_run_millis bigint
+);
+
+INSERT INTO clerk_sync (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
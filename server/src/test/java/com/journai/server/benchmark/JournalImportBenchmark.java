@@ -0,0 +1,118 @@
+package com.journai.server.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.journai.server.ServerApplication;
+import com.journai.server.dto.JournalImportResult;
+import com.journai.server.service.JournalImportService;
+
+/**
+ * Import throughput, in entries per second, of a 20,000 line NDJSON file
+ * spread over two years, written entirely with batched INSERTs or entirely
+ * with COPY (app.import.copy-threshold past the file's size, or 0). Each
+ * import goes to a fresh user, so every run starts from the same state.
+ *
+ * Needs a scratch Postgres database; the application migrates it on start:
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_bench
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.JournalImportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class JournalImportBenchmark {
+
+    private static final int ENTRIES = 20_000;
+    private static final String[] MOODS = { "happy", "sad", "calm", "anxious", "grateful" };
+
+    @Param({ "insert", "copy" })
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private JournalImportService journalImportService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] file;
+    private final AtomicInteger imports = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command-line arguments, so they win over application.yml
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + System.getenv("BENCHMARK_DATABASE_URL"),
+                        "--spring.datasource.username="
+                                + System.getenv().getOrDefault("BENCHMARK_DATABASE_USERNAME", "postgres"),
+                        "--spring.datasource.password="
+                                + System.getenv().getOrDefault("BENCHMARK_DATABASE_PASSWORD", "postgres"),
+                        "--app.import.copy-threshold=" + (path.equals("copy") ? 0 : Integer.MAX_VALUE),
+                        "--logging.level.com.journai=WARN");
+        journalImportService = context.getBean(JournalImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < ENTRIES; i++) {
+            lines.append(String.format("{\"title\": \"Entry %d\", \"content\": \"<p>Entry %d. Walked the dog in"
+                    + " the park after a meeting about the roadmap, then cooked pasta with friends and read a few"
+                    + " chapters before bed.</p>\", \"mood\": \"%s\", \"created_at\": \"%s\"}%n", i, i,
+                    MOODS[random.nextInt(MOODS.length)], start.plusMinutes(random.nextInt(2 * 365 * 24 * 60))));
+        }
+        file = lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM journals WHERE user_id LIKE 'bench_import_%'");
+        jdbcTemplate.update("DELETE FROM users WHERE id LIKE 'bench_import_%'");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public JournalImportResult importFile() throws IOException {
+        String userId = "bench_import_" + path + "_" + imports.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO users (id, email, created_at, updated_at) VALUES (?, ?, now(), now())",
+                userId, userId + "@example.com");
+        JournalImportResult result = journalImportService.importJournals(userId, new ByteArrayInputStream(file));
+        if (result.getImported() != ENTRIES) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + ENTRIES);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JournalImportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
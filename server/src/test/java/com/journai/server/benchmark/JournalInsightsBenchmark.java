@@ -0,0 +1,142 @@
+package com.journai.server.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.journai.server.model.Journal;
+import com.journai.server.model.Mood;
+import com.journai.server.service.JournalStatsIndex;
+
+/**
+ * Compares the per-entity insights loop that JournalService used before the
+ * stats index with a range aggregate over a packed {@link JournalStatsIndex}
+ * snapshot. Both sides start from data already in memory, so this measures
+ * aggregation cost only, not the Postgres round trip the index also removes.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.JournalInsightsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalInsightsBenchmark {
+
+    @Param({ "365", "3650" })
+    private int entries;
+
+    private List<Journal> journals;
+    private JournalStatsIndex.UserStats stats;
+    private LocalDateTime endDate;
+    private LocalDateTime startDate;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Mood[] moods = Mood.values();
+        endDate = LocalDateTime.now();
+        startDate = endDate.minusDays(365);
+
+        journals = new ArrayList<>(entries);
+        JournalStatsIndex.Builder builder = new JournalStatsIndex.Builder(entries);
+        LocalDateTime createdAt = endDate.minusDays(entries);
+        for (int i = 0; i < entries; i++) {
+            createdAt = createdAt.plusHours(12 + random.nextInt(24));
+            Mood mood = moods[random.nextInt(moods.length)];
+            String content = "<p>" + "word ".repeat(50 + random.nextInt(400)) + "</p>";
+
+            Journal journal = new Journal(null, "Entry " + i, content, mood, "summary");
+            journal.setCreatedAt(createdAt);
+            journals.add(journal);
+            builder.add(createdAt, mood, legacyWordCount(content));
+        }
+        stats = builder.build();
+    }
+
+    @Benchmark
+    public Object legacyLoop() {
+        List<Journal> inRange = new ArrayList<>();
+        for (Journal journal : journals) {
+            if (!journal.getCreatedAt().isBefore(startDate) && !journal.getCreatedAt().isAfter(endDate)) {
+                inRange.add(journal);
+            }
+        }
+
+        int totalWords = 0;
+        Map<String, Integer> moodCounts = new HashMap<>();
+        Map<String, Map<String, Integer>> dailyData = new HashMap<>();
+        Map<String, Integer> weeklyActivity = new HashMap<>();
+        for (Journal journal : inRange) {
+            int wordCount = legacyWordCount(journal.getContent());
+            totalWords += wordCount;
+
+            String mood = journal.getMood().toString().toLowerCase();
+            moodCounts.put(mood, moodCounts.getOrDefault(mood, 0) + 1);
+
+            String dateKey = journal.getCreatedAt().toLocalDate().toString();
+            Map<String, Integer> dayData = dailyData.computeIfAbsent(dateKey, k -> new HashMap<>());
+            dayData.put("wordCount", dayData.getOrDefault("wordCount", 0) + wordCount);
+            dayData.put("entryCount", dayData.getOrDefault("entryCount", 0) + 1);
+
+            String dayOfWeek = journal.getCreatedAt().getDayOfWeek().toString().substring(0, 3);
+            dayOfWeek = dayOfWeek.substring(0, 1).toUpperCase() + dayOfWeek.substring(1).toLowerCase();
+            weeklyActivity.put(dayOfWeek, weeklyActivity.getOrDefault(dayOfWeek, 0) + 1);
+        }
+
+        List<String> entryDays = inRange.stream()
+                .map(journal -> journal.getCreatedAt().toLocalDate().toString())
+                .distinct()
+                .sorted()
+                .toList();
+        int longestStreak = 0;
+        int tempStreak = 1;
+        for (int i = 1; i < entryDays.size(); i++) {
+            LocalDateTime prevDay = LocalDateTime.parse(entryDays.get(i - 1) + "T00:00:00");
+            LocalDateTime currentDay = LocalDateTime.parse(entryDays.get(i) + "T00:00:00");
+            if (prevDay.toLocalDate().plusDays(1).equals(currentDay.toLocalDate())) {
+                tempStreak++;
+            } else {
+                longestStreak = Math.max(longestStreak, tempStreak);
+                tempStreak = 1;
+            }
+        }
+        return new Object[] { totalWords, moodCounts, dailyData, weeklyActivity, Math.max(longestStreak, tempStreak) };
+    }
+
+    @Benchmark
+    public Object packedIndex() {
+        return stats.summarize(JournalStatsIndex.toSecond(startDate), JournalStatsIndex.toSecond(endDate), -1,
+                endDate.toLocalDate().toEpochDay());
+    }
+
+    private static int legacyWordCount(String content) {
+        String textOnly = content.replaceAll("<[^>]*>", " ");
+        return textOnly.trim().split("\\s+").length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JournalInsightsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.journai.server.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.journai.server.service.JournalTextAnalyzer;
+import com.journai.server.service.LegacyJournalText;
+
+/**
+ * Title, word count and excerpt for one saved entry: the single-pass
+ * analyzer against the regex chain it replaced. Every save and every
+ * imported row pays this once. Run with -prof gc to compare allocation.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.JournalTextAnalyzerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalTextAnalyzerBenchmark {
+
+    private static final String[] VOCABULARY = { "walk", "park", "dog", "meeting", "roadmap", "deadline",
+            "dinner", "friends", "pasta", "exam", "anxious", "tired", "sleep", "run", "morning", "coffee",
+            "family", "call", "rain", "book", "novel", "gym", "project", "code", "bug", "release", "trip" };
+
+    // Roughly 1k and 10k characters of editor HTML
+    @Param({ "150", "1500" })
+    private int words;
+
+    private String content;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i % 40 == 0) {
+                text.append(i == 0 ? "<h2>" : "</p><p>");
+            }
+            String word = VOCABULARY[random.nextInt(VOCABULARY.length)];
+            switch (random.nextInt(12)) {
+                case 0 -> text.append("<strong>").append(word).append("</strong>");
+                case 1 -> text.append("<em>").append(word).append("</em>");
+                case 2 -> text.append("**").append(word).append("**");
+                default -> text.append(word);
+            }
+            text.append(i == 5 ? "</h2><p>" : " ");
+        }
+        content = text.append("</p>").toString();
+    }
+
+    @Benchmark
+    public void analyzer(Blackhole blackhole) {
+        blackhole.consume(JournalTextAnalyzer.analyze(content));
+    }
+
+    @Benchmark
+    public void regexChain(Blackhole blackhole) {
+        blackhole.consume(LegacyJournalText.generateTitle(content));
+        blackhole.consume(LegacyJournalText.calculateWordCount(content));
+        blackhole.consume(LegacyJournalText.generateExcerpt(content));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JournalTextAnalyzerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.journai.server.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.journai.server.ServerApplication;
+import com.journai.server.model.Mood;
+import com.journai.server.service.JournalService;
+
+/**
+ * Journal save throughput through JournalService.saveJournal at 1, 8, 32 and
+ * 128 concurrent writers, with one transaction per save and with the
+ * group-commit write buffer. Each save goes to one of 1,000 users, the way
+ * an evening burst spreads across many people.
+ *
+ * Needs a scratch Postgres database; the application migrates it on start:
+ * BENCHMARK_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_bench
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.JournalWriteBufferBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class JournalWriteBufferBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final String TEXT = "<p>Long day. Walked the dog in the park after a meeting about the roadmap,"
+            + " then cooked pasta with friends and finally read a few chapters before bed.</p>";
+
+    @Param({ "false", "true" })
+    private boolean buffered;
+
+    private ConfigurableApplicationContext context;
+    private JournalService journalService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command-line arguments, so they win over application.yml
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + System.getenv("BENCHMARK_DATABASE_URL"),
+                        "--spring.datasource.username="
+                                + System.getenv().getOrDefault("BENCHMARK_DATABASE_USERNAME", "postgres"),
+                        "--spring.datasource.password="
+                                + System.getenv().getOrDefault("BENCHMARK_DATABASE_PASSWORD", "postgres"),
+                        "--app.write-buffer.enabled=" + buffered,
+                        "--logging.level.com.journai=WARN");
+        journalService = context.getBean(JournalService.class);
+
+        context.getBean(JdbcTemplate.class).update("""
+                INSERT INTO users (id, email, created_at, updated_at)
+                SELECT 'bench_user_' || u, 'bench' || u || '@example.com', now(), now()
+                FROM generate_series(0, ?) AS u
+                ON CONFLICT (id) DO NOTHING
+                """, USERS - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object save() {
+        String userId = "bench_user_" + ThreadLocalRandom.current().nextInt(USERS);
+        return journalService.saveJournal(new JournalService.JournalData(userId, TEXT, Mood.HAPPY, "Summary", ""));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32, 128 }) {
+            new Runner(new OptionsBuilder().include(JournalWriteBufferBenchmark.class.getSimpleName())
+                    .threads(threads).build()).run();
+        }
+    }
+}
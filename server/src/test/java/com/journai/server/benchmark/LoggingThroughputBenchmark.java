@@ -0,0 +1,187 @@
+package com.journai.server.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.journai.server.config.SampledLogFilter;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Compares the logging set-up before logback-spring.xml, a synchronous
+ * appender with logging.pattern.console, with the current one:
+ * SampledLogFilter in front of an AsyncAppender writing logstash JSON. The
+ * two set-ups in between separate the cost of the JSON encoder and the gain
+ * of the async hand-off from that of sampling. Each operation logs what one
+ * journal save does: before, an INFO "received" line and an INFO success
+ * line; since, the "received" line at DEBUG and the success line SAMPLED in
+ * the sampled case only. Output goes to a discarding stream so the console
+ * itself is not measured, which favours the synchronous side; on a real
+ * terminal or pipe the gap is wider. The lines that reached the stream are
+ * printed after each trial, since a never-blocking async appender drops what
+ * it cannot keep up with rather than slowing the caller.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.LoggingThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class LoggingThroughputBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} - %msg%n";
+
+    @Param({ "sync-pattern", "sync-json", "async-json", "async-json-sampled" })
+    private String setup;
+
+    private LoggerContext context;
+    private Logger logger;
+    private boolean before;
+    private boolean sampled;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new LoggerContext();
+        // Set by the SLF4J binding for the default context only
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        context.start();
+        before = "sync-pattern".equals(setup);
+        sampled = setup.endsWith("-sampled");
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setOutputStream(new CountingNullStream());
+        if (before) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern(PATTERN);
+            encoder.start();
+            console.setEncoder(encoder);
+        } else {
+            console.setEncoder(structuredEncoder());
+        }
+        console.start();
+
+        Appender<ILoggingEvent> root = console;
+        if (setup.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_CONSOLE");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            root = async;
+        }
+        if (sampled) {
+            SampledLogFilter filter = new SampledLogFilter();
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        Logger rootLogger = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.detachAndStopAllAppenders();
+        rootLogger.setLevel(ch.qos.logback.classic.Level.INFO);
+        rootLogger.addAppender(root);
+        logger = context.getLogger("com.journai.server.controller.JournalController");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Stopping the async appender flushes what is still queued
+        context.stop();
+        System.out.printf("%n%s: %d lines written for %d requests%n", setup, written.sum(), requests.sum());
+    }
+
+    // Counts the lines an appender got through to the stream
+    private final class CountingNullStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                written.increment();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+    }
+
+    private Encoder<ILoggingEvent> structuredEncoder() {
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat("logstash");
+        encoder.start();
+        return encoder;
+    }
+
+    @Benchmark
+    public void journalRequest() {
+        String userId = "user_2abc";
+        String journalId = "0192f0c4-7a1e-7c3b-9a55-3c1d2e4f5a6b";
+        requests.increment();
+        if (before) {
+            logger.info("Journal save request received, userId: {}, textLength: {}, mood: {}, hasAnalysis: {}",
+                    userId, 512, "HAPPY", true);
+        } else {
+            logger.debug("Journal save request received, userId: {}, textLength: {}, mood: {}, hasAnalysis: {}",
+                    userId, 512, "HAPPY", true);
+        }
+        if (!sampled) {
+            logger.info("Journal saved successfully, userId: {}, journalId: {}, mood: {}", userId, journalId, "HAPPY");
+        } else {
+            logger.info(SampledLogFilter.SAMPLED, "Journal saved successfully, userId: {}, journalId: {}, mood: {}",
+                    userId, journalId, "HAPPY");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.journai.server.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.journai.server.service.JournalEmbedder;
+import com.journai.server.service.SimilarityIndex;
+
+/**
+ * Similar-entry query latency for one user with 10k entries. The target is
+ * under 1 ms per query for the IVF index and under 5 ms for an exhaustive
+ * scan, which is what users below the IVF threshold get. Embedding a
+ * 10,000-character entry is measured separately since it runs on every save.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.journai.server.benchmark.SimilarityIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityIndexBenchmark {
+
+    private static final String[] VOCABULARY = { "walk", "park", "dog", "meeting", "roadmap", "deadline",
+            "dinner", "friends", "pasta", "exam", "anxious", "tired", "sleep", "run", "morning", "coffee",
+            "family", "call", "rain", "book", "novel", "gym", "project", "code", "bug", "release", "trip",
+            "train", "beach", "sunset", "grateful", "calm", "stress", "work", "manager", "garden" };
+
+    @Param({ "10000" })
+    private int entries;
+
+    private SimilarityIndex.VectorSet ivf;
+    private SimilarityIndex.VectorSet flat;
+    private float[] query;
+    private String longEntry;
+    private final JournalEmbedder embedder = new JournalEmbedder();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ivf = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, entries);
+        for (int i = 0; i < entries; i++) {
+            ivf.put("j" + i, embedder.embed(randomEntry(random, 120)));
+        }
+        // Trains the IVF centroids outside the measured loop
+        query = ivf.vectorOf("j0");
+        ivf.search(query, 5, "j0");
+
+        // Below the IVF threshold a set is always scanned exhaustively, so
+        // keep the flat baseline as the same data split into small sets
+        flat = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, entries);
+        for (int i = 0; i < Math.min(entries, 2047); i++) {
+            flat.put("j" + i, ivf.vectorOf("j" + i));
+        }
+
+        longEntry = randomEntry(random, 1600);
+    }
+
+    @Benchmark
+    public Object ivfQuery() {
+        return ivf.search(query, 5, "j0");
+    }
+
+    @Benchmark
+    public Object flatQuery2047() {
+        return flat.search(query, 5, "j0");
+    }
+
+    @Benchmark
+    public Object embedLongEntry() {
+        return embedder.embed(longEntry);
+    }
+
+    private static String randomEntry(Random random, int words) {
+        StringBuilder text = new StringBuilder("<p>");
+        for (int i = 0; i < words; i++) {
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(' ');
+        }
+        return text.append("</p>").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SimilarityIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
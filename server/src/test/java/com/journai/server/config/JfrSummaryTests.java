@@ -0,0 +1,55 @@
+package com.journai.server.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+class JfrSummaryTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void findsTheBusyMethodAndItsAllocations() throws Exception {
+		Path file = directory.resolve("test.jfr");
+		try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+			recording.start();
+			long deadline = System.nanoTime() + 2_000_000_000L;
+			while (System.nanoTime() < deadline) {
+				busyWork();
+			}
+			recording.stop();
+			recording.dump(file);
+		}
+
+		JfrSummary summary = JfrSummary.read(file, 10);
+
+		assertTrue(summary.executionSamples() > 0);
+		assertTrue(summary.allocationSamples() > 0);
+		assertFalse(summary.hottestMethods().isEmpty());
+		assertTrue(summary.hottestMethods().size() <= 10);
+		assertTrue(summary.allocationSites().stream()
+				.anyMatch(site -> site.frame().startsWith(JfrSummaryTests.class.getName() + ".busyWork")));
+		assertTrue(Files.size(file) > 0);
+	}
+
+	private static volatile Object sink;
+
+	private static void busyWork() {
+		List<long[]> arrays = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			arrays.add(new long[1024]);
+		}
+		sink = arrays;
+	}
+}
@@ -0,0 +1,179 @@
+package com.journai.server.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class LatencyTailSamplingSpanProcessorTests {
+
+	private InMemorySpanExporter exporter;
+	private LatencyTailSamplingSpanProcessor processor;
+	private SdkTracerProvider tracerProvider;
+	private Tracer tracer;
+
+	@BeforeEach
+	void setUp() {
+		// Slow from 100ms, and no baseline sampling so fast traces are always dropped
+		setUp(100, 60000);
+	}
+
+	private void setUp(int maxPendingTraces, long pendingTimeoutMillis) {
+		if (tracerProvider != null) {
+			tracerProvider.close();
+		}
+		exporter = InMemorySpanExporter.create();
+		processor = new LatencyTailSamplingSpanProcessor(SimpleSpanProcessor.create(exporter), 100, 0.0,
+				maxPendingTraces, pendingTimeoutMillis);
+		tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+		tracer = tracerProvider.get("test");
+	}
+
+	@AfterEach
+	void tearDown() {
+		tracerProvider.close();
+	}
+
+	@Test
+	void dropsFastTraces() {
+		trace(Context.root(), 10, false);
+
+		assertTrue(exporter.getFinishedSpanItems().isEmpty());
+	}
+
+	@Test
+	void exportsWholeSlowTraces() {
+		trace(Context.root(), 250, false);
+
+		List<SpanData> spans = exporter.getFinishedSpanItems();
+		assertEquals(List.of("db connection", "hibernate flush", "http post /api/journal"),
+				spans.stream().map(SpanData::getName).toList());
+		assertEquals(1, spans.stream().map(SpanData::getTraceId).distinct().count());
+	}
+
+	@Test
+	void exportsFastTracesWithAnError() {
+		trace(Context.root(), 10, true);
+
+		assertEquals(3, exporter.getFinishedSpanItems().size());
+	}
+
+	@Test
+	void decidesOnTheLocalRootOfAnIncomingTrace() {
+		SpanContext remote = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+				"b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+		trace(Context.root().with(Span.wrap(remote)), 250, false);
+
+		List<SpanData> spans = exporter.getFinishedSpanItems();
+		assertEquals(3, spans.size());
+		assertTrue(spans.stream().allMatch(span -> span.getTraceId().equals(remote.getTraceId())));
+	}
+
+	@Test
+	void lateSpansFollowTheirTracesDecision() {
+		Span slowLate = child(trace(Context.root(), 250, false));
+		Span fastLate = child(trace(Context.root(), 10, false));
+		exporter.reset();
+
+		slowLate.end();
+		fastLate.end();
+
+		assertEquals(List.of(slowLate.getSpanContext().getTraceId()),
+				exporter.getFinishedSpanItems().stream().map(SpanData::getTraceId).toList());
+		assertEquals(0, processor.pendingTraces());
+	}
+
+	@Test
+	void exportsSpansOfFurtherTracesWhenFull() {
+		setUp(1, 60000);
+		Span open = tracer.spanBuilder("scheduled run").startSpan();
+		child(Context.root().with(open)).end();
+
+		trace(Context.root(), 250, false);
+
+		assertEquals(3, exporter.getFinishedSpanItems().size());
+		assertEquals(1, processor.pendingTraces());
+	}
+
+	@Test
+	void keepsARootThatOutlivesTheTimeoutWhileItsSpansEnd() throws InterruptedException {
+		setUp(1, 200);
+		Span run = tracer.spanBuilder("scheduled run").startSpan();
+		Context context = Context.root().with(run);
+		for (int i = 0; i < 6; i++) {
+			child(context).end();
+			Thread.sleep(100);
+			// Another trace finding the table full sweeps it, but the run's trace is still active
+			trace(Context.root(), 10, false);
+		}
+
+		run.end();
+
+		List<SpanData> spans = exporter.getFinishedSpanItems();
+		assertEquals(7, spans.stream().filter(span -> span.getTraceId().equals(run.getSpanContext().getTraceId()))
+				.count());
+		assertEquals(0, processor.pendingTraces());
+	}
+
+	@Test
+	void sweepsATraceWhoseSpansStoppedEnding() throws InterruptedException {
+		setUp(1, 200);
+		Span lost = tracer.spanBuilder("scheduled run").startSpan();
+		child(Context.root().with(lost)).end();
+		Thread.sleep(300);
+
+		Span other = tracer.spanBuilder("scheduled run").startSpan();
+		child(Context.root().with(other)).end();
+
+		assertTrue(exporter.getFinishedSpanItems().isEmpty());
+		assertEquals(1, processor.pendingTraces());
+	}
+
+	private Span child(Context parent) {
+		return tracer.spanBuilder("async work").setParent(parent).startSpan();
+	}
+
+	// A request span with two children, the flush failing if asked; returns the request's context
+	private Context trace(Context parent, long rootMillis, boolean error) {
+		long start = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+		Span root = tracer.spanBuilder("http post /api/journal")
+				.setParent(parent)
+				.setStartTimestamp(start, TimeUnit.NANOSECONDS)
+				.startSpan();
+		Context context = parent.with(root);
+
+		tracer.spanBuilder("db connection")
+				.setParent(context)
+				.setStartTimestamp(start, TimeUnit.NANOSECONDS)
+				.startSpan()
+				.end(start + TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+		Span flush = tracer.spanBuilder("hibernate flush")
+				.setParent(context)
+				.setStartTimestamp(start, TimeUnit.NANOSECONDS)
+				.startSpan();
+		if (error) {
+			flush.setStatus(StatusCode.ERROR);
+		}
+		flush.end(start + TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+
+		root.end(start + TimeUnit.MILLISECONDS.toNanos(rootMillis), TimeUnit.NANOSECONDS);
+		return context;
+	}
+}
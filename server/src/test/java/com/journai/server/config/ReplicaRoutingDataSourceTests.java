@@ -0,0 +1,83 @@
+package com.journai.server.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReplicaRoutingDataSourceTests {
+
+	private ReplicaRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() {
+		routing = new ReplicaRoutingDataSource(new SimpleDriverDataSource(),
+				List.of(new SimpleDriverDataSource(), new SimpleDriverDataSource()), 60, 10);
+		routing.updateLag(0, 0.5);
+		routing.updateLag(1, 0.5);
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("user_1", null, List.of()));
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clear();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsAreSpreadAcrossReplicas() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		Set<Object> keys = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			keys.add(routing.determineCurrentLookupKey());
+		}
+		assertEquals(Set.of("replica-0", "replica-1"), keys);
+	}
+
+	@Test
+	void writesGoToPrimaryAndPinTheUserAfterCommit() {
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertTrue(routing.determineCurrentLookupKey().toString().startsWith("replica-"));
+
+		// Sticky only once the write has committed
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("user_2", null, List.of()));
+		assertTrue(routing.determineCurrentLookupKey().toString().startsWith("replica-"));
+	}
+
+	@Test
+	void laggingOrUnreachableReplicasAreSkipped() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		routing.updateLag(0, 30);
+		for (int i = 0; i < 4; i++) {
+			assertEquals("replica-1", routing.determineCurrentLookupKey());
+		}
+
+		routing.updateLag(1, Double.NaN);
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+		routing.updateLag(0, 2);
+		assertEquals("replica-0", routing.determineCurrentLookupKey());
+	}
+}
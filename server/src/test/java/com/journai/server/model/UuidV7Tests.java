@@ -0,0 +1,40 @@
+package com.journai.server.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Tests {
+
+	@Test
+	void encodesVersionVariantAndTimestamp() {
+		long millis = 1_750_000_000_000L;
+		UUID id = UuidV7.fromMillis(millis);
+
+		assertEquals(7, id.version());
+		assertEquals(2, id.variant());
+		assertEquals(millis, id.getMostSignificantBits() >>> 16);
+	}
+
+	@Test
+	void sortsByCreationTimeAsPostgresCompares() {
+		// Postgres orders uuid bytes unsigned, which matches the string form
+		String earlier = UuidV7.fromMillis(1_750_000_000_000L).toString();
+		String later = UuidV7.fromMillis(1_750_000_000_001L).toString();
+
+		assertTrue(earlier.compareTo(later) < 0);
+	}
+
+	@Test
+	void roundTripsCreatedAt() {
+		LocalDateTime createdAt = LocalDateTime.of(2019, 3, 31, 23, 59, 59, 999_000_000);
+
+		assertEquals(createdAt, UuidV7.createdAt(UuidV7.forCreatedAt(createdAt)));
+		assertNull(UuidV7.createdAt(UUID.randomUUID()));
+	}
+}
@@ -0,0 +1,179 @@
+package com.journai.server.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks the plan of each JournalRepository query against the Flyway schema.
+ * The SQL below mirrors what Hibernate generates for each repository method.
+ * Every plan must reach journals through an index, never a sequential scan,
+ * and a bounded date range must be pruned to the monthly partitions it covers.
+ *
+ * Needs a scratch Postgres database, which is migrated and seeded with 100
+ * users x 500 entries:
+ * QUERY_PLAN_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_plans mvn test -Dtest=JournalQueryPlanTests
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_PLAN_DATABASE_URL", matches = ".+")
+class JournalQueryPlanTests {
+
+	private static final String USER = "'plan_user_42'";
+	private static final String RANGE = "created_at >= now() - interval '30 days' AND created_at <= now()";
+	// The window JournalService.byId derives from a UUIDv7 id
+	private static final String ID_WINDOW = "created_at BETWEEN now() - interval '1 day' AND now() + interval '1 day'";
+
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private static final Set<String> populatedPartitions = new HashSet<>();
+	private static Connection connection;
+
+	@BeforeAll
+	static void migrateAndSeed() throws Exception {
+		String url = System.getenv("QUERY_PLAN_DATABASE_URL");
+		String username = System.getenv().getOrDefault("QUERY_PLAN_DATABASE_USERNAME", "postgres");
+		String password = System.getenv().getOrDefault("QUERY_PLAN_DATABASE_PASSWORD", "postgres");
+
+		Flyway.configure().dataSource(url, username, password).locations("classpath:db/migration")
+				.configuration(Map.of("flyway.postgresql.transactional.lock", "false")).load().migrate();
+		connection = DriverManager.getConnection(url, username, password);
+
+		try (Statement statement = connection.createStatement()) {
+			// The seed reaches ~35 days back; the migration only creates months from now on
+			statement.execute("SELECT journal_ensure_partitions((now() - interval '2 months')::date, now()::date)");
+			statement.execute("""
+					INSERT INTO users (id, email, created_at, updated_at)
+					SELECT 'plan_user_' || u, 'plan' || u || '@example.com', now(), now()
+					FROM generate_series(1, 100) AS u
+					ON CONFLICT (id) DO NOTHING
+					""");
+			statement.execute("""
+					INSERT INTO journals (id, user_id, title, content, mood, summary, word_count, created_at, updated_at)
+					SELECT gen_random_uuid(), 'plan_user_' || (1 + g % 100), 'Entry ' || g,
+					       '<p>walked the dog, then a long meeting about the roadmap</p>',
+					       (ARRAY['HAPPY', 'SAD', 'ANXIOUS', 'NEUTRAL', 'CONTENT'])[1 + g % 5], 'Summary',
+					       CASE WHEN g % 50 = 0 THEN NULL ELSE 10 END,
+					       now() - (g || ' minutes')::interval, now()
+					FROM generate_series(1, 50000) AS g
+					WHERE NOT EXISTS (SELECT 1 FROM journals WHERE user_id LIKE 'plan_user_%')
+					""");
+			statement.execute("VACUUM ANALYZE journals");
+
+			// Empty future months are always read with a (free) seq scan, so only populated ones count
+			try (ResultSet partitions = statement.executeQuery("SELECT DISTINCT tableoid::regclass::text FROM journals")) {
+				while (partitions.next()) {
+					populatedPartitions.add(partitions.getString(1));
+				}
+			}
+		}
+	}
+
+	@AfterAll
+	static void close() throws Exception {
+		if (connection != null) {
+			connection.close();
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@CsvSource(delimiter = '|', textBlock = """
+			findKeysetPage | SELECT id, title, mood, summary, created_at, word_count, COALESCE(excerpt, substring(content, 1, 160)) FROM journals WHERE user_id = USER AND RANGE AND created_at <= now() AND (created_at < now() OR id < 'ffffffff-ffff-ffff-ffff-ffffffffffff') ORDER BY created_at DESC, id DESC LIMIT 32
+			findByUser_IdOrderByCreatedAtDesc | SELECT * FROM journals WHERE user_id = USER ORDER BY created_at DESC
+			findByIdAndUser_IdAndCreatedAtBetween | SELECT * FROM journals WHERE id = '00000000-0000-7000-8000-000000000000' AND user_id = USER AND ID_WINDOW
+			findVersionByIdAndUserId | SELECT version FROM journals WHERE id = '00000000-0000-7000-8000-000000000000' AND user_id = USER AND ID_WINDOW
+			updateIfVersion | WITH target AS (SELECT id, created_at, version FROM journals WHERE id = '00000000-0000-7000-8000-000000000000' AND user_id = USER AND ID_WINDOW FOR UPDATE), updated AS (UPDATE journals j SET title = 'x', version = GREATEST(c.version, -1) + 1 FROM target c WHERE j.id = c.id AND j.created_at = c.created_at AND j.ID_WINDOW AND c.version BETWEEN 0 AND 0 RETURNING j.version) SELECT c.version, u.version FROM target c LEFT JOIN updated u ON true
+			deleteIfVersion | WITH target AS (SELECT id, created_at, version FROM journals WHERE id = '00000000-0000-7000-8000-000000000000' AND user_id = USER AND ID_WINDOW FOR UPDATE), deleted AS (DELETE FROM journals j USING target c WHERE j.id = c.id AND j.created_at = c.created_at AND j.ID_WINDOW AND c.version BETWEEN 0 AND 0 RETURNING j.id) SELECT c.version, d.id FROM target c LEFT JOIN deleted d ON true
+			streamExportRowsByUserId | SELECT id, title, content, mood, summary, word_count, created_at, updated_at FROM journals WHERE user_id = USER ORDER BY created_at ASC, id ASC
+			findByUserIdAndDateRange | SELECT * FROM journals WHERE user_id = USER AND RANGE ORDER BY created_at DESC
+			findByUserIdAndMoodAndDateRange | SELECT * FROM journals WHERE user_id = USER AND mood = 'HAPPY' AND RANGE ORDER BY created_at DESC
+			findByUserIdAndMood | SELECT * FROM journals WHERE user_id = USER AND mood = 'HAPPY' ORDER BY created_at DESC
+			countByUserId | SELECT count(*) FROM journals WHERE user_id = USER
+			countByUserIdAndDateRange | SELECT count(*) FROM journals WHERE user_id = USER AND RANGE
+			getMoodDistribution | SELECT mood, count(*) FROM journals WHERE user_id = USER AND RANGE GROUP BY mood
+			findStatsRowsByUserId | SELECT created_at, mood, word_count FROM journals WHERE user_id = USER ORDER BY created_at ASC
+			findByUserIdWithoutWordCount | SELECT * FROM journals WHERE user_id = USER AND word_count IS NULL
+			searchByUserId | SELECT j.id, j.title FROM (SELECT s.id, s.created_at, ts_rank(s.search_vector, q) AS rank FROM journals s, websearch_to_tsquery('english', 'roadmap') q WHERE s.user_id = USER AND s.search_vector @@ q ORDER BY rank DESC, s.id DESC LIMIT 21) page JOIN journals j ON j.id = page.id AND j.created_at = page.created_at
+			findListViewsByIds | SELECT id, title FROM journals WHERE user_id = USER AND id IN ('00000000-0000-7000-8000-000000000000', '00000000-0000-7000-8000-000000000001')
+			findEmbeddingsByUserId | SELECT id, embedding FROM journals WHERE user_id = USER AND embedding IS NOT NULL
+			findContentWithoutEmbedding | SELECT id, content FROM journals WHERE user_id = USER AND embedding IS NULL
+			JournalDraftService.load | SELECT content, version, mood, word_count, created_at FROM journals WHERE id = '00000000-0000-7000-8000-000000000000' AND user_id = USER AND ID_WINDOW
+			""")
+	void usesIndexScan(String method, String sql) throws Exception {
+		List<String> scans = new ArrayList<>();
+		collectScans(explain(sql.replace("USER", USER).replace("RANGE", RANGE).replace("ID_WINDOW", ID_WINDOW)), scans,
+				new ArrayList<>());
+
+		assertFalse(scans.contains("Seq Scan"), method + " scans journals sequentially: " + scans);
+		assertTrue(scans.stream().anyMatch(scan -> scan.contains("Index")), method + " uses no index: " + scans);
+	}
+
+	@Test
+	void prunesToCoveredMonth() throws Exception {
+		String month = "date_trunc('month', now())";
+		List<String> partitions = new ArrayList<>();
+		collectScans(explain("SELECT * FROM journals WHERE user_id = " + USER + " AND created_at >= " + month
+				+ " AND created_at < " + month + " + interval '1 month'"), new ArrayList<>(), partitions);
+
+		try (Statement statement = connection.createStatement();
+				ResultSet current = statement.executeQuery("SELECT to_char(now(), '\"journals_y\"YYYY\"m\"MM')")) {
+			current.next();
+			assertEquals(List.of(current.getString(1)), partitions.stream().distinct().toList());
+		}
+	}
+
+	@Test
+	void prunesByIdLookupToTheIdsMonth() throws Exception {
+		String minted = "date_trunc('month', now()) + interval '14 days'";
+		List<String> partitions = new ArrayList<>();
+		collectScans(explain("SELECT version FROM journals WHERE id = '00000000-0000-7000-8000-000000000000'"
+				+ " AND user_id = " + USER + " AND created_at BETWEEN " + minted + " - interval '1 day' AND "
+				+ minted + " + interval '1 day'"), new ArrayList<>(), partitions);
+
+		try (Statement statement = connection.createStatement();
+				ResultSet current = statement.executeQuery("SELECT to_char(now(), '\"journals_y\"YYYY\"m\"MM')")) {
+			current.next();
+			assertEquals(List.of(current.getString(1)), partitions.stream().distinct().toList());
+		}
+	}
+
+	private static JsonNode explain(String query) throws Exception {
+		try (Statement statement = connection.createStatement();
+				ResultSet plan = statement.executeQuery("EXPLAIN (FORMAT JSON) " + query)) {
+			plan.next();
+			return objectMapper.readTree(plan.getString(1)).get(0).get("Plan");
+		}
+	}
+
+	private static void collectScans(JsonNode node, List<String> scans, List<String> partitions) {
+		String relation = node.path("Relation Name").asText();
+		boolean emptyPartition = relation.startsWith("journals_y") && !populatedPartitions.contains(relation);
+		if ((relation.startsWith("journals") && !emptyPartition) || node.path("Node Type").asText().contains("Index")) {
+			scans.add(node.path("Node Type").asText());
+		}
+		if (relation.startsWith("journals_y")) {
+			partitions.add(relation);
+		}
+		for (JsonNode child : node.path("Plans")) {
+			collectScans(child, scans, partitions);
+		}
+	}
+}
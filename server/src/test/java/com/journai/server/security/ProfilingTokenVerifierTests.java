@@ -0,0 +1,23 @@
+package com.journai.server.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ProfilingTokenVerifierTests {
+
+	@Test
+	void acceptsOnlyTheConfiguredBearerToken() {
+		assertTrue(ProfilingTokenVerifier.verify("s3cret", "Bearer s3cret"));
+		assertFalse(ProfilingTokenVerifier.verify("s3cret", "Bearer s3cre"));
+		assertFalse(ProfilingTokenVerifier.verify("s3cret", "s3cret"));
+		assertFalse(ProfilingTokenVerifier.verify("s3cret", null));
+	}
+
+	@Test
+	void refusesEverythingWithoutAToken() {
+		assertFalse(ProfilingTokenVerifier.verify("", "Bearer "));
+		assertFalse(ProfilingTokenVerifier.verify(null, "Bearer null"));
+	}
+}
@@ -0,0 +1,51 @@
+package com.journai.server.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class SvixWebhookVerifierTests {
+
+	// Reference delivery from the Svix documentation
+	private static final String SECRET = "whsec_MfKQ9r8GKYqrTwjUPD8ILPZIo2LaLaSw";
+	private static final String ID = "msg_p5jXN8AQM9LWM0D4loKWxJek";
+	private static final String TIMESTAMP = "1614265330";
+	private static final byte[] BODY = "{\"test\": 2432232314}".getBytes(StandardCharsets.UTF_8);
+	private static final String SIGNATURE = "v1,g0hM9SsE+OTPJTGt/tmIKtSyZlE3uFJELVlNIOLJ1OE=";
+	private static final long NOW = 1614265330;
+
+	@Test
+	void acceptsSignedDelivery() {
+		assertTrue(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, SIGNATURE, BODY, NOW));
+		// Any one of several signatures may match, as while a secret is being rotated
+		assertTrue(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, "v1,bm90IGl0 v2,xyz " + SIGNATURE, BODY, NOW));
+		assertTrue(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, SIGNATURE, BODY,
+				NOW + SvixWebhookVerifier.TOLERANCE_SECONDS));
+	}
+
+	@Test
+	void rejectsTamperedOrStaleDelivery() {
+		byte[] tampered = "{\"test\": 2432232315}".getBytes(StandardCharsets.UTF_8);
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, SIGNATURE, tampered, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, "msg_other", TIMESTAMP, SIGNATURE, BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify("whsec_" + "A".repeat(32), ID, TIMESTAMP, SIGNATURE, BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, SIGNATURE, BODY,
+				NOW + SvixWebhookVerifier.TOLERANCE_SECONDS + 1));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, SIGNATURE, BODY,
+				NOW - SvixWebhookVerifier.TOLERANCE_SECONDS - 1));
+	}
+
+	@Test
+	void rejectsMalformedHeaders() {
+		assertFalse(SvixWebhookVerifier.verify(SECRET, null, TIMESTAMP, SIGNATURE, BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, "yesterday", SIGNATURE, BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, null, BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, "g0hM9SsE+OTPJTGt/tmIKtSyZlE3uFJELVlNIOLJ1OE=",
+				BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify(SECRET, ID, TIMESTAMP, "v1,!!!", BODY, NOW));
+		assertFalse(SvixWebhookVerifier.verify("whsec_not base64", ID, TIMESTAMP, SIGNATURE, BODY, NOW));
+	}
+}
@@ -0,0 +1,181 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Reconciliation against a local stub of Clerk's GET /users: missing users
+ * are created, differing ones updated, purged ones left alone, and a second
+ * run only reads what changed since the first.
+ *
+ * Needs a scratch Postgres database, which is migrated on startup:
+ * CLERK_SYNC_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_sync mvn test -Dtest=ClerkUserSyncServiceTests
+ */
+@EnabledIfEnvironmentVariable(named = "CLERK_SYNC_DATABASE_URL", matches = ".+")
+@SpringBootTest(properties = { "app.clerk.secret-key=sk_test_sync", "app.clerk-sync.cron=-",
+		"app.clerk-sync.page-size=2", "app.clerk-sync.concurrency=2" })
+class ClerkUserSyncServiceTests {
+
+	private static final HttpServer CLERK = startClerkStub();
+
+	// Newest update first, as the service asks for
+	private static final List<Map<String, Object>> CLERK_USERS = new CopyOnWriteArrayList<>();
+
+	private static final List<String> REQUESTS = new CopyOnWriteArrayList<>();
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("CLERK_SYNC_DATABASE_URL"));
+		registry.add("spring.datasource.username",
+				() -> System.getenv().getOrDefault("CLERK_SYNC_DATABASE_USERNAME", "postgres"));
+		registry.add("spring.datasource.password",
+				() -> System.getenv().getOrDefault("CLERK_SYNC_DATABASE_PASSWORD", "postgres"));
+		registry.add("app.clerk.api-url", () -> "http://localhost:" + CLERK.getAddress().getPort() + "/v1");
+	}
+
+	@Autowired
+	private ClerkUserSyncService clerkUserSyncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seedClerk() {
+		CLERK_USERS.clear();
+		REQUESTS.clear();
+		for (int i = 1; i <= 5; i++) {
+			putClerkUser(i, "Sync", "User " + i, i * 1000L);
+		}
+		jdbcTemplate.update("UPDATE clerk_sync SET watermark = NULL, locked_until = NULL");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM users WHERE id LIKE 'sync_user_%'");
+		jdbcTemplate.update("DELETE FROM user_purges WHERE user_id LIKE 'sync_user_%'");
+	}
+
+	@Test
+	void createsMissingUsersThenReadsOnlyChanges() {
+		ClerkUserSyncService.SyncResult first = clerkUserSyncService.reconcile(false);
+		assertEquals(5, first.fetched());
+		assertEquals(5, first.created());
+		assertEquals("Sync User 3", jdbcTemplate.queryForObject(
+				"SELECT name FROM users WHERE id = 'sync_user_3'", String.class));
+		assertTrue(REQUESTS.stream().allMatch(request -> request.startsWith("Bearer sk_test_sync ")));
+
+		putClerkUser(3, "Renamed", "User", 6000L);
+		ClerkUserSyncService.SyncResult second = clerkUserSyncService.reconcile(false);
+		// The renamed user, and the one at the old watermark
+		assertEquals(2, second.fetched());
+		assertEquals(1, second.updated());
+		assertEquals(1, second.unchanged());
+		assertEquals("Renamed User", jdbcTemplate.queryForObject(
+				"SELECT name FROM users WHERE id = 'sync_user_3'", String.class));
+		assertEquals(6000L, jdbcTemplate.queryForObject("SELECT watermark FROM clerk_sync", Long.class));
+	}
+
+	@Test
+	void updatesOnlyDifferingUsersAndSkipsPurgedOnes() {
+		jdbcTemplate.update("INSERT INTO users (id, email, name, created_at, updated_at)"
+				+ " VALUES ('sync_user_1', 'sync_user_1@example.com', 'Old Name', now(), now())");
+		jdbcTemplate.update("INSERT INTO users (id, email, name, created_at, updated_at)"
+				+ " VALUES ('sync_user_4', 'sync_user_4@example.com', 'Sync User 4', now(), now())");
+		jdbcTemplate.update("INSERT INTO user_purges (user_id) VALUES ('sync_user_2')");
+
+		ClerkUserSyncService.SyncResult result = clerkUserSyncService.reconcile(true);
+		assertEquals(5, result.fetched());
+		assertEquals(2, result.created());
+		assertEquals(1, result.updated());
+		assertEquals(1, result.unchanged());
+		assertEquals(1, result.skipped());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE id = 'sync_user_2'",
+				Integer.class));
+	}
+
+	@Test
+	void leavesUsersAWebhookWroteFromANewerState() {
+		// A rename applied by webhook after Clerk's list was read
+		jdbcTemplate.update("INSERT INTO users (id, email, name, created_at, updated_at, last_event_at)"
+				+ " VALUES ('sync_user_2', 'sync_user_2@example.com', 'Renamed By Webhook', now(), now(), ?)",
+				UserService.eventTime(9000L));
+
+		clerkUserSyncService.reconcile(true);
+
+		assertEquals("Renamed By Webhook", jdbcTemplate.queryForObject(
+				"SELECT name FROM users WHERE id = 'sync_user_2'", String.class));
+		assertEquals(UserService.eventTime(3000L), jdbcTemplate.queryForObject(
+				"SELECT last_event_at FROM users WHERE id = 'sync_user_3'", LocalDateTime.class));
+	}
+
+	private static void putClerkUser(int n, String firstName, String lastName, long updatedAt) {
+		String id = "sync_user_" + n;
+		CLERK_USERS.removeIf(user -> id.equals(user.get("id")));
+		Map<String, Object> user = new HashMap<>();
+		user.put("id", id);
+		user.put("first_name", firstName);
+		user.put("last_name", lastName);
+		user.put("primary_email_address_id", "idn_" + n);
+		user.put("email_addresses", List.of(Map.of("id", "idn_" + n, "email_address", id + "@example.com")));
+		user.put("updated_at", updatedAt);
+		CLERK_USERS.add(user);
+		CLERK_USERS.sort(Comparator.comparing(u -> -((Long) u.get("updated_at"))));
+	}
+
+	private static HttpServer startClerkStub() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/v1/users", ClerkUserSyncServiceTests::listUsers);
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void listUsers(HttpExchange exchange) throws IOException {
+		Map<String, String> query = new HashMap<>();
+		for (String param : exchange.getRequestURI().getQuery().split("&")) {
+			String[] pair = param.split("=", 2);
+			query.put(pair[0], pair[1]);
+		}
+		REQUESTS.add(exchange.getRequestHeaders().getFirst("Authorization") + " " + exchange.getRequestURI());
+
+		int limit = Integer.parseInt(query.get("limit"));
+		int offset = Integer.parseInt(query.get("offset"));
+		List<Map<String, Object>> page = new ArrayList<>(
+				CLERK_USERS.subList(Math.min(offset, CLERK_USERS.size()), Math.min(offset + limit, CLERK_USERS.size())));
+
+		byte[] body = new ObjectMapper().writeValueAsBytes(page);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
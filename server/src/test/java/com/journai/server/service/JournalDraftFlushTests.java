@@ -0,0 +1,167 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.journai.server.dto.PatchDraftRequest.Edit;
+import com.journai.server.model.Mood;
+
+/**
+ * Drafts against a real journals table: patches against a stale version are
+ * refused, a flush writes a burst of patches back as one versioned update, a
+ * row that moved on without the draft is never overwritten, full updates and
+ * deletes discard the draft, and no draft is opened past app.drafts.max-drafts.
+ *
+ * Needs a scratch Postgres database, which is migrated on startup:
+ * DRAFTS_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_drafts mvn test -Dtest=JournalDraftFlushTests
+ */
+@EnabledIfEnvironmentVariable(named = "DRAFTS_DATABASE_URL", matches = ".+")
+@SpringBootTest(properties = { "app.drafts.flush-interval=3600000", "app.drafts.idle-seconds=0",
+		"app.drafts.max-drafts=2" })
+class JournalDraftFlushTests {
+
+	private static final String USER_ID = "draft_user";
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("DRAFTS_DATABASE_URL"));
+		registry.add("spring.datasource.username",
+				() -> System.getenv().getOrDefault("DRAFTS_DATABASE_USERNAME", "postgres"));
+		registry.add("spring.datasource.password",
+				() -> System.getenv().getOrDefault("DRAFTS_DATABASE_PASSWORD", "postgres"));
+	}
+
+	@Autowired
+	private JournalDraftService journalDraftService;
+
+	@Autowired
+	private JournalService journalService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createUser() {
+		jdbcTemplate.update("INSERT INTO users (id, email, created_at, updated_at) VALUES (?, ?, now(), now())"
+				+ " ON CONFLICT (id) DO NOTHING", USER_ID, USER_ID + "@example.com");
+	}
+
+	// With idle-seconds at 0 a flush forgets every written-back draft
+	@AfterEach
+	void cleanUp() {
+		journalDraftService.flushDrafts();
+		jdbcTemplate.update("DELETE FROM journals WHERE user_id = ?", USER_ID);
+	}
+
+	@Test
+	void refusesPatchesAgainstAStaleVersion() {
+		String id = save("<p>Rainy morning</p>");
+		assertEquals(1, patch(id, 0, new Edit(16, 0, " again")).version);
+
+		JournalDraftService.DraftState stale = patch(id, 0, new Edit(0, 0, "x"));
+
+		assertTrue(stale.conflict);
+		assertEquals(1, stale.version);
+		assertEquals("<p>Rainy morning again</p>", stale.text);
+	}
+
+	@Test
+	void writesABurstOfPatchesBackAsOneUpdate() {
+		String id = save("<p>Rainy morning</p>");
+		long dataVersion = journalService.getUserDataVersion(USER_ID);
+		patch(id, 0, new Edit(16, 0, " walk"));
+		patch(id, 1, new Edit(3, 5, "Sunny"));
+
+		journalDraftService.flushDrafts();
+
+		Map<String, Object> row = row(id);
+		assertEquals("<p>Sunny morning walk</p>", row.get("content"));
+		assertEquals("Sunny morning walk", row.get("title"));
+		assertEquals(3, row.get("word_count"));
+		assertEquals(2L, row.get("version"));
+		assertEquals(dataVersion + 1, journalService.getUserDataVersion(USER_ID));
+	}
+
+	@Test
+	void dropsADraftWhoseRowMovedOn() {
+		String id = save("<p>Rainy morning</p>");
+		patch(id, 0, new Edit(16, 0, " lost"));
+		// As a full update made on another instance would
+		jdbcTemplate.update("UPDATE journals SET content = '<p>Elsewhere</p>', version = 5 WHERE id = ?",
+				UUID.fromString(id));
+
+		journalDraftService.flushDrafts();
+
+		assertEquals("<p>Elsewhere</p>", row(id).get("content"));
+		JournalDraftService.DraftState reopened = journalDraftService.getDraft(USER_ID, id);
+		assertEquals(5, reopened.version);
+		assertEquals("<p>Elsewhere</p>", reopened.text);
+	}
+
+	@Test
+	void fullUpdatesAndDeletesDiscardTheDraft() {
+		String updated = save("<p>Rainy morning</p>");
+		patch(updated, 0, new Edit(16, 0, " draft"));
+		assertEquals(JournalService.WriteResult.Status.DONE, journalService.updateJournal(updated, USER_ID,
+				new JournalService.JournalData(USER_ID, "<p>Rewritten</p>", Mood.HAPPY, "", ""), 1).status);
+
+		journalDraftService.flushDrafts();
+		JournalDraftService.DraftState reopened = journalDraftService.getDraft(USER_ID, updated);
+		assertEquals("<p>Rewritten</p>", reopened.text);
+		assertEquals(2, reopened.version);
+
+		String deleted = save("<p>Short lived</p>");
+		patch(deleted, 0, new Edit(14, 0, "!"));
+		assertEquals(JournalService.WriteResult.Status.DONE,
+				journalService.deleteJournal(deleted, USER_ID, 1).status);
+
+		journalDraftService.flushDrafts();
+		assertNull(journalDraftService.getDraft(USER_ID, deleted));
+	}
+
+	@Test
+	void refusesNewDraftsAtTheCapUntilAFlushMakesRoom() {
+		String first = save("<p>One</p>");
+		String second = save("<p>Two</p>");
+		String third = save("<p>Three</p>");
+		journalDraftService.getDraft(USER_ID, first);
+		journalDraftService.getDraft(USER_ID, second);
+
+		assertThrows(IllegalStateException.class, () -> journalDraftService.getDraft(USER_ID, third));
+		// Open drafts are still served
+		assertFalse(patch(first, 0, new Edit(3, 0, "Only ")).conflict);
+
+		journalDraftService.flushDrafts();
+		assertEquals("<p>Three</p>", journalDraftService.getDraft(USER_ID, third).text);
+	}
+
+	private String save(String content) {
+		return journalService.saveJournal(new JournalService.JournalData(USER_ID, content, Mood.HAPPY, "", ""))
+				.getId().toString();
+	}
+
+	private JournalDraftService.DraftState patch(String id, long baseVersion, Edit edit) {
+		return journalDraftService.applyPatch(USER_ID, id, baseVersion, List.of(edit));
+	}
+
+	private Map<String, Object> row(String id) {
+		return jdbcTemplate.queryForMap("SELECT * FROM journals WHERE id = ?", UUID.fromString(id));
+	}
+}
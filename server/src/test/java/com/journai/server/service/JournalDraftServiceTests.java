@@ -0,0 +1,44 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.journai.server.dto.PatchDraftRequest.Edit;
+
+class JournalDraftServiceTests {
+
+	@Test
+	void appliesEditsInOrderAgainstTheEvolvingText() {
+		String text = "<p>Walked the dog</p>";
+		String patched = JournalDraftService.applyEdits(text, List.of(
+				new Edit(14, 3, "cat"),
+				new Edit(3, 0, "I "),
+				new Edit(5, 6, "fed"),
+				new Edit(16, 0, " twice")));
+		assertEquals("<p>I fed the cat twice</p>", patched);
+
+		// Offsets are UTF-16 indexes, as in the browser
+		assertEquals("😊 ok", JournalDraftService.applyEdits("😊 no", List.of(new Edit(3, 2, "ok"))));
+	}
+
+	@Test
+	void rejectsEditsOutsideTheTextOrLeavingItEmptyOrTooLong() {
+		assertThrows(IllegalArgumentException.class,
+				() -> JournalDraftService.applyEdits("abc", List.of(new Edit(4, 0, "x"))));
+		assertThrows(IllegalArgumentException.class,
+				() -> JournalDraftService.applyEdits("abc", List.of(new Edit(1, 3, null))));
+		assertThrows(IllegalArgumentException.class,
+				() -> JournalDraftService.applyEdits("abc", List.of(new Edit(0, 3, "  "))));
+		assertThrows(IllegalArgumentException.class, () -> JournalDraftService.applyEdits("abc",
+				List.of(new Edit(3, 0, "x".repeat(JournalDraftService.MAX_CONTENT_LENGTH)))));
+
+		// Only the final length counts, so a large paste may replace a large selection
+		String full = "x".repeat(JournalDraftService.MAX_CONTENT_LENGTH);
+		assertEquals(full, JournalDraftService.applyEdits(full,
+				List.of(new Edit(0, 0, "yy"), new Edit(0, 2, null))));
+	}
+}
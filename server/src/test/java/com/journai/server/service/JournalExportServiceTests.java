@@ -0,0 +1,135 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journai.server.model.Mood;
+import com.journai.server.repository.JournalExportView;
+
+class JournalExportServiceTests {
+
+	private static final LocalDateTime CREATED = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesOneJsonObjectPerLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long written = JournalExportService.writeRows(Stream.of(row(1, "<p>Rainy day</p>"), row(2, null)),
+				JournalExportService.Format.NDJSON, out, objectMapper, () -> {
+				});
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, written);
+		assertEquals(2, lines.length);
+		assertEquals("00000000-0000-0000-0000-000000000001", objectMapper.readTree(lines[0]).get("id").asText());
+		assertEquals("happy", objectMapper.readTree(lines[0]).get("mood").asText());
+		assertEquals("2025-06-02T09:00:00Z", objectMapper.readTree(lines[1]).get("created_at").asText());
+	}
+
+	@Test
+	void quotesCsvFieldsWithSeparators() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JournalExportService.writeRows(Stream.of(row(1, "Said \"hi\",\nthen left")),
+				JournalExportService.Format.CSV, out, objectMapper, () -> {
+				});
+
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertTrue(csv.startsWith("id,title,mood,summary,word_count,created_at,updated_at,content\r\n"));
+		assertTrue(csv.endsWith(",\"Said \"\"hi\"\",\nthen left\"\r\n"));
+	}
+
+	@Test
+	void streamsMillionRowsInConstantHeap() throws Exception {
+		int rows = 1_000_000;
+		String content = "<p>" + "Another ordinary day at work, then a long walk home. ".repeat(10) + "</p>";
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long baseline = runtime.totalMemory() - runtime.freeMemory();
+		AtomicLong peak = new AtomicLong();
+		AtomicLong flushes = new AtomicLong();
+
+		CountingOutputStream sink = new CountingOutputStream();
+		long written;
+		try (GZIPOutputStream gzip = new GZIPOutputStream(sink, 8192)) {
+			Stream<JournalExportView> source = LongStream.range(0, rows).mapToObj(i -> row(i, content));
+			written = JournalExportService.writeRows(source, JournalExportService.Format.NDJSON, gzip,
+					objectMapper, () -> {
+						// Sample retained heap a few times over the run
+						if (flushes.incrementAndGet() % 500 == 0) {
+							System.gc();
+							peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+						}
+					});
+		}
+
+		// ~600 MB of uncompressed NDJSON; retaining rows would blow far past this
+		assertEquals(rows, written);
+		assertTrue(peak.get() - baseline < 64L * 1024 * 1024,
+				"retained heap grew by " + (peak.get() - baseline) / (1024 * 1024) + " MB");
+		assertTrue(sink.count > 0);
+	}
+
+	private static JournalExportView row(long index, String content) {
+		return new JournalExportView() {
+			public UUID getId() {
+				return new UUID(0, index);
+			}
+
+			public String getTitle() {
+				return "Entry " + index;
+			}
+
+			public String getContent() {
+				return content;
+			}
+
+			public Mood getMood() {
+				return Mood.HAPPY;
+			}
+
+			public String getSummary() {
+				return null;
+			}
+
+			public Integer getWordCount() {
+				return 2;
+			}
+
+			public LocalDateTime getCreatedAt() {
+				return CREATED;
+			}
+
+			public LocalDateTime getUpdatedAt() {
+				return null;
+			}
+		};
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
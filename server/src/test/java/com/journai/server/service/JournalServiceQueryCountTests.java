@@ -0,0 +1,183 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.journai.server.dto.PatchDraftRequest;
+import com.journai.server.model.Journal;
+import com.journai.server.model.Mood;
+import com.journai.server.support.QueryBudget;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Updates and deletes must cost one statement whatever their outcome: the
+ * version check, the write, the data_version bump and the 404/409 answer
+ * all come from the same round trip.
+ *
+ * Needs a scratch Postgres database, which is migrated on startup:
+ * QUERY_COUNT_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_counts mvn test -Dtest=JournalServiceQueryCountTests
+ */
+@EnabledIfEnvironmentVariable(named = "QUERY_COUNT_DATABASE_URL", matches = ".+")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JournalServiceQueryCountTests {
+
+	private static final String USER_ID = "query_count_user";
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("QUERY_COUNT_DATABASE_URL"));
+		registry.add("spring.datasource.username",
+				() -> System.getenv().getOrDefault("QUERY_COUNT_DATABASE_USERNAME", "postgres"));
+		registry.add("spring.datasource.password",
+				() -> System.getenv().getOrDefault("QUERY_COUNT_DATABASE_PASSWORD", "postgres"));
+	}
+
+	@Autowired
+	private JournalService journalService;
+
+	@Autowired
+	private JournalDraftService journalDraftService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void createUser() {
+		jdbcTemplate.update("INSERT INTO users (id, email, created_at, updated_at) VALUES (?, ?, now(), now())"
+				+ " ON CONFLICT (id) DO NOTHING", USER_ID, USER_ID + "@example.com");
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void deleteJournals() {
+		jdbcTemplate.update("DELETE FROM journals WHERE user_id = ?", USER_ID);
+	}
+
+	@Test
+	void updatesInOneStatement() {
+		String id = save("<p>Rainy morning</p>");
+		long dataVersion = dataVersion();
+
+		JournalService.WriteResult updated = countOne(
+				() -> journalService.updateJournal(id, USER_ID, data("<p>Sunny afternoon walk</p>"), 0));
+		assertEquals(JournalService.WriteResult.Status.DONE, updated.status);
+		assertEquals(1, updated.version);
+		assertEquals("Sunny afternoon walk", updated.journal.getTitle());
+		assertEquals(3, updated.journal.getWordCount());
+		assertEquals(dataVersion + 1, dataVersion());
+
+		JournalService.WriteResult stale = countOne(
+				() -> journalService.updateJournal(id, USER_ID, data("<p>Lost update</p>"), 0));
+		assertEquals(JournalService.WriteResult.Status.CONFLICT, stale.status);
+		assertEquals(1, stale.version);
+		assertEquals(dataVersion + 1, dataVersion());
+
+		JournalService.WriteResult unconditional = countOne(() -> journalService.updateJournal(id, USER_ID,
+				data("<p>Last writer wins</p>"), JournalService.ANY_VERSION));
+		assertEquals(JournalService.WriteResult.Status.DONE, unconditional.status);
+		assertEquals(2, unconditional.version);
+
+		JournalService.WriteResult missing = countOne(() -> journalService.updateJournal(
+				UUID.randomUUID().toString(), USER_ID, data("<p>Nobody</p>"), JournalService.ANY_VERSION));
+		assertEquals(JournalService.WriteResult.Status.NOT_FOUND, missing.status);
+		JournalService.WriteResult otherUser = countOne(() -> journalService.updateJournal(id, "someone_else",
+				data("<p>Not mine</p>"), JournalService.ANY_VERSION));
+		assertEquals(JournalService.WriteResult.Status.NOT_FOUND, otherUser.status);
+		assertEquals("Last writer wins", journalService.getJournalById(id, USER_ID).getTitle());
+	}
+
+	// The INSERT and the data_version bump; the user is only referenced
+	@Test
+	@QueryBudget(2)
+	void savesWithinBudget() {
+		save("<p>Rainy morning</p>");
+	}
+
+	@Test
+	void deletesInOneStatement() {
+		String id = save("<p>Rainy morning</p>");
+
+		JournalService.WriteResult stale = countOne(() -> journalService.deleteJournal(id, USER_ID, 7));
+		assertEquals(JournalService.WriteResult.Status.CONFLICT, stale.status);
+		assertEquals(0, stale.version);
+
+		JournalService.WriteResult deleted = countOne(() -> journalService.deleteJournal(id, USER_ID, 0));
+		assertEquals(JournalService.WriteResult.Status.DONE, deleted.status);
+
+		JournalService.WriteResult missing = countOne(
+				() -> journalService.deleteJournal(id, USER_ID, JournalService.ANY_VERSION));
+		assertEquals(JournalService.WriteResult.Status.NOT_FOUND, missing.status);
+	}
+
+	@Test
+	void matchesVersionsOfOpenDrafts() {
+		String id = save("<p>Rainy morning</p>");
+		JournalDraftService.DraftState draft = journalDraftService.applyPatch(USER_ID, id, 0,
+				List.of(new PatchDraftRequest.Edit(16, 0, " again")));
+		assertEquals(1, draft.version);
+
+		// The row is still at 0, but the draft has moved past it
+		JournalService.WriteResult stale = countNone(
+				() -> journalService.updateJournal(id, USER_ID, data("<p>Overwrite</p>"), 0));
+		assertEquals(JournalService.WriteResult.Status.CONFLICT, stale.status);
+		assertEquals(1, stale.version);
+		assertEquals(1, journalDraftService.getDraft(USER_ID, id).version);
+
+		JournalService.WriteResult updated = countOne(
+				() -> journalService.updateJournal(id, USER_ID, data("<p>Rewritten</p>"), 1));
+		assertEquals(JournalService.WriteResult.Status.DONE, updated.status);
+		assertEquals(2, updated.version);
+		assertTrue(journalDraftService.applyPatch(USER_ID, id, 1, List.of()).conflict);
+	}
+
+	private String save(String content) {
+		Journal journal = journalService.saveJournal(data(content));
+		return journal.getId().toString();
+	}
+
+	private static JournalService.JournalData data(String content) {
+		return new JournalService.JournalData(USER_ID, content, Mood.HAPPY, "", "");
+	}
+
+	private long dataVersion() {
+		return journalService.getUserDataVersion(USER_ID);
+	}
+
+	private JournalService.WriteResult countOne(Supplier<JournalService.WriteResult> write) {
+		return count(write, 1);
+	}
+
+	private JournalService.WriteResult countNone(Supplier<JournalService.WriteResult> write) {
+		return count(write, 0);
+	}
+
+	private JournalService.WriteResult count(Supplier<JournalService.WriteResult> write,
+			long statements) {
+		statistics.clear();
+		JournalService.WriteResult result = write.get();
+		assertEquals(statements, statistics.getPrepareStatementCount(), "statements for " + result.status);
+		return result;
+	}
+}
@@ -0,0 +1,114 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.model.Mood;
+
+class JournalStatsIndexTests {
+
+	private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+	private JournalStatsIndex index;
+	private AppProperties appProperties;
+
+	@BeforeEach
+	void setUp() {
+		appProperties = new AppProperties();
+		index = new JournalStatsIndex();
+		ReflectionTestUtils.setField(index, "appProperties", appProperties);
+	}
+
+	@Test
+	void summarizesRangeWithMoodFilterAndStreaks() {
+		JournalStatsIndex.UserStats stats = new JournalStatsIndex.Builder(4)
+				.add(MONDAY.minusDays(10), Mood.SAD, 50)
+				.add(MONDAY, Mood.HAPPY, 100)
+				.add(MONDAY.plusHours(3), Mood.SAD, 20)
+				.add(MONDAY.plusDays(1), Mood.HAPPY, 30)
+				.add(MONDAY.plusDays(2), Mood.HAPPY, 40)
+				.build();
+		long today = MONDAY.plusDays(2).toLocalDate().toEpochDay();
+
+		JournalStatsIndex.RangeSummary all = stats.summarize(JournalStatsIndex.toSecond(MONDAY.minusDays(1)),
+				JournalStatsIndex.toSecond(MONDAY.plusDays(3)), -1, today);
+		assertEquals(4, all.totalEntries);
+		assertEquals(190, all.totalWords);
+		assertEquals(3, all.moodCounts[Mood.HAPPY.ordinal()]);
+		assertEquals(2, all.weekdayCounts[0]);
+		assertEquals(3, all.dayCount);
+		assertEquals(120, all.dayWords[0]);
+		assertEquals(3, all.longestStreak);
+		assertEquals(3, all.currentStreak);
+
+		JournalStatsIndex.RangeSummary sad = stats.summarize(Long.MIN_VALUE, Long.MAX_VALUE,
+				Mood.SAD.ordinal(), today);
+		assertEquals(2, sad.totalEntries);
+		assertEquals(1, sad.longestStreak);
+		assertEquals(0, sad.currentStreak);
+	}
+
+	@Test
+	void cachesLoadsAndAppliesCommittedPatches() {
+		AtomicInteger loads = new AtomicInteger();
+		JournalStatsIndex.UserStats loaded = index.get("user_1", userId -> {
+			loads.incrementAndGet();
+			return new JournalStatsIndex.Builder(1).add(MONDAY, Mood.HAPPY, 10).build();
+		});
+		assertSame(loaded, index.get("user_1", userId -> {
+			throw new AssertionError("should be cached");
+		}));
+
+		index.beginWrite("user_1");
+		index.completeWrite("user_1", JournalStatsIndex.Patch.added(MONDAY.plusDays(1), Mood.SAD, 5));
+		index.beginWrite("user_1");
+		index.completeWrite("user_1",
+				JournalStatsIndex.Patch.replaced(MONDAY, Mood.HAPPY, 10, Mood.CONTENT, 12));
+		index.beginWrite("user_1");
+		index.completeWrite("user_1", null);
+
+		JournalStatsIndex.RangeSummary summary = index.get("user_1", userId -> null)
+				.summarize(Long.MIN_VALUE, Long.MAX_VALUE, -1, 0);
+		assertEquals(1, loads.get());
+		assertEquals(2, summary.totalEntries);
+		assertEquals(17, summary.totalWords);
+		assertEquals(1, summary.moodCounts[Mood.CONTENT.ordinal()]);
+		assertEquals(0, summary.moodCounts[Mood.HAPPY.ordinal()]);
+	}
+
+	@Test
+	void doesNotCacheLoadThatRacedWithWrite() {
+		index.get("user_1", userId -> {
+			index.beginWrite(userId);
+			return new JournalStatsIndex.Builder(0).build();
+		});
+		index.completeWrite("user_1", JournalStatsIndex.Patch.added(MONDAY, Mood.HAPPY, 10));
+
+		assertEquals(0, index.getResidentEntries());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedUsersOverBudget() {
+		appProperties.getStatsIndex().setMaxEntries(3);
+		index.get("user_1", userId -> new JournalStatsIndex.Builder(2)
+				.add(MONDAY, Mood.HAPPY, 1).add(MONDAY, Mood.SAD, 1).build());
+		index.get("user_2", userId -> new JournalStatsIndex.Builder(2)
+				.add(MONDAY, Mood.HAPPY, 1).add(MONDAY, Mood.SAD, 1).build());
+
+		assertEquals(2, index.getResidentEntries());
+		AtomicInteger reloads = new AtomicInteger();
+		index.get("user_1", userId -> {
+			reloads.incrementAndGet();
+			return new JournalStatsIndex.Builder(0).build();
+		});
+		assertEquals(1, reloads.get());
+	}
+}
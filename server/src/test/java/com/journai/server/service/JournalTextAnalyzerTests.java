@@ -0,0 +1,177 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class JournalTextAnalyzerTests {
+
+	private static final int CASES = 10_000;
+
+	private static final String[] WORDS = { "walk", "park", "dog", "coffee", "it's", "well,", "rain.", "A",
+			"&amp;", "&nbsp;", "2024", "3", "x", "über", "naïve", "café", "😊", "-", "+", "e-mail",
+			"supercalifragilisticexpialidocious", "antidisestablishmentarianism", "co-worker's" };
+
+	private static final String[] SPACES = { " ", " ", " ", "  ", "\n", "\t", " \n ", "\r\n" };
+
+	// Fragments chosen to hit every branch: tags, markdown delimiters, whitespace and control characters
+	private static final String[] FRAGMENTS = { "<", ">", "<p>", "</p>", "<br>", "<>", "*", "**", "_", "__",
+			"~", "~~", "`", "```", "[", "]", "(", ")", "#", "# ", "- ", "1. ", "> ", "\\", " ", "  ", "\n",
+			"\t", "\r", "\u000B", "\f", "\u0001", "\u001F", "\u00A0", "\u2003", "a", "bc", "def", "9", "😊" };
+
+	@Test
+	void matchesLegacyTitlesForWellFormedEntries() {
+		Random random = new Random(40);
+		for (int i = 0; i < CASES; i++) {
+			String content = randomEntry(random);
+			assertEquals(LegacyJournalText.generateTitle(content), JournalTextAnalyzer.analyze(content).getTitle(),
+					() -> "title of " + quote(content));
+		}
+	}
+
+	@Test
+	void matchesLegacyCountsAndExcerptsForAnyInput() {
+		Random random = new Random(41);
+		for (int i = 0; i < CASES; i++) {
+			String content = i % 2 == 0 ? randomFragments(random) : randomEntry(random);
+			JournalTextAnalyzer.Analysis analysis = JournalTextAnalyzer.analyze(content);
+			String plain = content.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").trim();
+
+			assertEquals(LegacyJournalText.calculateWordCount(content), analysis.getWordCount(),
+					() -> "word count of " + quote(content));
+			assertEquals(LegacyJournalText.calculateWordCount(content), JournalTextAnalyzer.countWords(content),
+					() -> "countWords of " + quote(content));
+			assertEquals(LegacyJournalText.generateExcerpt(content), analysis.getExcerpt(),
+					() -> "excerpt of " + quote(content));
+			assertEquals(plain.length(), analysis.getCharacterCount(), () -> "characters of " + quote(content));
+		}
+	}
+
+	@Test
+	void keepsLegacyQuirks() {
+		// Tags vanish from titles but separate words everywhere else
+		JournalTextAnalyzer.Analysis analysis = JournalTextAnalyzer.analyze("<p>one</p><p>two</p>");
+		assertEquals("onetwo", analysis.getTitle());
+		assertEquals(2, analysis.getWordCount());
+		assertEquals("one two", analysis.getExcerpt());
+
+		// An entry with only markup still counts as one word
+		assertEquals(1, JournalTextAnalyzer.analyze("<p></p>").getWordCount());
+		assertEquals(JournalTextAnalyzer.DEFAULT_TITLE, JournalTextAnalyzer.analyze("<p></p>").getTitle());
+		assertEquals(0, JournalTextAnalyzer.countWords(" \n "));
+		assertEquals(0, JournalTextAnalyzer.countWords(null));
+
+		assertEquals("Groceries and a long walk", JournalTextAnalyzer
+				.analyze("## - **Groceries** and a [long walk](https://maps.example/x)").getTitle());
+		assertEquals("one two three four five six seven eight",
+				JournalTextAnalyzer.analyze("one two three four five six seven eight nine ten").getTitle());
+		assertEquals("supercalifragilisticexpialidocious antidisestab...", JournalTextAnalyzer
+				.analyze("supercalifragilisticexpialidocious antidisestablishmentarianism").getTitle());
+	}
+
+	@Test
+	void handlesEmptyAndNullContent() {
+		for (String content : new String[] { null, "", "   " }) {
+			JournalTextAnalyzer.Analysis analysis = JournalTextAnalyzer.analyze(content);
+			assertEquals(JournalTextAnalyzer.DEFAULT_TITLE, analysis.getTitle());
+			assertEquals(0, analysis.getWordCount());
+			assertEquals(0, analysis.getCharacterCount());
+			assertEquals("", analysis.getExcerpt());
+		}
+	}
+
+	/**
+	 * An entry as the editor or an import would produce it: block tags,
+	 * inline tags and balanced markdown, with an optional leading heading,
+	 * list or quote marker.
+	 */
+	private static String randomEntry(Random random) {
+		StringBuilder content = new StringBuilder();
+		switch (random.nextInt(8)) {
+			case 0 -> content.append("#".repeat(1 + random.nextInt(7))).append(space(random));
+			case 1 -> content.append("-*+".charAt(random.nextInt(3))).append(space(random));
+			case 2 -> content.append(random.nextInt(20)).append('.').append(space(random));
+			case 3 -> content.append('>').append(space(random));
+			case 4 -> content.append("- 1. > ");
+			default -> {
+			}
+		}
+
+		int blocks = 1 + random.nextInt(4);
+		for (int b = 0; b < blocks; b++) {
+			String tag = switch (random.nextInt(6)) {
+				case 0 -> "h" + (1 + random.nextInt(3));
+				case 1 -> "blockquote";
+				case 2 -> "li";
+				default -> "p";
+			};
+			boolean wrap = random.nextInt(5) > 0;
+			if (wrap) {
+				content.append('<').append(tag).append(random.nextBoolean() ? "" : " class=\"x\"").append('>');
+			}
+			int phrases = 1 + random.nextInt(8);
+			for (int p = 0; p < phrases; p++) {
+				if (p > 0) {
+					content.append(space(random));
+				}
+				content.append(randomPhrase(random));
+			}
+			if (wrap) {
+				content.append("</").append(tag).append('>');
+			}
+			if (random.nextBoolean()) {
+				content.append(space(random));
+			}
+		}
+		return content.toString();
+	}
+
+	private static String randomPhrase(Random random) {
+		String words = randomWords(random, 1 + random.nextInt(3));
+		return switch (random.nextInt(14)) {
+			case 0 -> "**" + words + "**";
+			case 1 -> "*" + words + "*";
+			case 2 -> "__" + words + "__";
+			case 3 -> "_" + words + "_";
+			case 4 -> "~~" + words + "~~";
+			case 5 -> "`" + words + "`";
+			case 6 -> "```" + (random.nextBoolean() ? "\n" : "") + words + "```";
+			case 7 -> "[" + words + "](https://example.com/" + random.nextInt(100) + ")";
+			case 8 -> "<strong>" + words + "</strong>";
+			case 9 -> "<em>" + words + "</em>";
+			case 10 -> "<a href=\"https://example.com\">" + words + "</a>";
+			case 11 -> "_**" + words + "**_";
+			default -> words;
+		};
+	}
+
+	private static String randomWords(Random random, int count) {
+		StringBuilder words = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				words.append(' ');
+			}
+			words.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return words.toString();
+	}
+
+	private static String randomFragments(Random random) {
+		StringBuilder content = new StringBuilder();
+		int fragments = random.nextInt(60);
+		for (int i = 0; i < fragments; i++) {
+			content.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+		}
+		return content.toString();
+	}
+
+	private static String space(Random random) {
+		return SPACES[random.nextInt(SPACES.length)];
+	}
+
+	private static String quote(String content) {
+		return "\"" + content.replace("\n", "\\n").replace("\t", "\\t").replace("\r", "\\r") + "\"";
+	}
+}
@@ -0,0 +1,276 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.journai.server.config.AppProperties;
+import com.journai.server.config.ReplicaRoutingDataSource;
+import com.journai.server.model.Journal;
+import com.journai.server.model.Mood;
+import com.journai.server.model.User;
+
+class JournalWriteBufferTests {
+
+	private RecordingJdbcTemplate jdbcTemplate;
+	private StallingTransactionManager transactions;
+	private JournalWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		AppProperties appProperties = new AppProperties();
+		AppProperties.WriteBuffer settings = appProperties.getWriteBuffer();
+		settings.setEnabled(true);
+		settings.setMaxBatchSize(3);
+		settings.setWaitMillis(200);
+
+		JournalStatsIndex journalStatsIndex = new JournalStatsIndex();
+		ReflectionTestUtils.setField(journalStatsIndex, "appProperties", appProperties);
+		SimilarityIndex similarityIndex = new SimilarityIndex();
+		ReflectionTestUtils.setField(similarityIndex, "appProperties", appProperties);
+
+		jdbcTemplate = new RecordingJdbcTemplate();
+		transactions = new StallingTransactionManager();
+		buffer = new JournalWriteBuffer();
+		ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(buffer, "transactionTemplate", new TransactionTemplate(transactions));
+		ReflectionTestUtils.setField(buffer, "journalStatsIndex", journalStatsIndex);
+		ReflectionTestUtils.setField(buffer, "similarityIndex", similarityIndex);
+		ReflectionTestUtils.setField(buffer, "replicaRoutingDataSource",
+				new ReplicaRoutingDataSource(new SimpleDriverDataSource(), List.of(), 60, 10));
+		ReflectionTestUtils.setField(buffer, "appProperties", appProperties);
+		buffer.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		transactions.release.countDown();
+		buffer.stop();
+	}
+
+	@Test
+	void batchesQueuedSavesUpToTheMaximum() throws Exception {
+		List<CompletableFuture<Journal>> futures = new ArrayList<>();
+		futures.add(submitBehindStall("first"));
+		for (int i = 0; i < 6; i++) {
+			futures.add(submit("user_" + (i % 2), "queued " + i));
+		}
+
+		transactions.release.countDown();
+		for (CompletableFuture<Journal> future : futures) {
+			assertNotNull(buffer.awaitCommit(future));
+		}
+
+		assertEquals(List.of(List.of("first"), List.of("queued 0", "queued 1", "queued 2"),
+				List.of("queued 3", "queued 4", "queued 5")), jdbcTemplate.inserts);
+		assertEquals(3, transactions.commits.get());
+	}
+
+	@Test
+	void aFailingRowFailsAlone() throws Exception {
+		CompletableFuture<Journal> first = submitBehindStall("first");
+		CompletableFuture<Journal> good = submit("user_1", "good");
+		CompletableFuture<Journal> bad = submit("user_2", RecordingJdbcTemplate.FAILING_TITLE);
+		CompletableFuture<Journal> alsoGood = submit("user_1", "also good");
+
+		transactions.release.countDown();
+
+		assertEquals("good", buffer.awaitCommit(good).getTitle());
+		assertEquals("also good", buffer.awaitCommit(alsoGood).getTitle());
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> buffer.awaitCommit(bad));
+		assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+		assertEquals("first", buffer.awaitCommit(first).getTitle());
+		assertEquals(List.of(List.of("first"), List.of("good"), List.of("also good")), jdbcTemplate.inserts);
+		// The whole batch, then the bad row on its own
+		assertEquals(2, transactions.rollbacks.get());
+	}
+
+	@Test
+	void takesBackQueuedSavesButWaitsForOnesInABatch() throws Exception {
+		CompletableFuture<Journal> inBatch = submitBehindStall("in batch");
+		CompletableFuture<Journal> queued = submit("user_1", "queued");
+
+		// The stalled flusher never took it, so the request writes it itself
+		assertNull(buffer.awaitCommit(queued));
+
+		// Its batch commits after more than twice wait-millis and still counts as saved
+		Thread releaser = new Thread(() -> {
+			sleep(600);
+			transactions.release.countDown();
+		});
+		releaser.start();
+		long start = System.nanoTime();
+		Journal saved = buffer.awaitCommit(inBatch);
+		releaser.join();
+
+		assertEquals("in batch", saved.getTitle());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(600));
+		assertEquals(List.of(List.of("in batch")), jdbcTemplate.inserts);
+	}
+
+	@Test
+	void stopWritesWhatIsQueuedFirst() throws Exception {
+		List<CompletableFuture<Journal>> futures = new ArrayList<>();
+		futures.add(submitBehindStall("first"));
+		for (int i = 0; i < 4; i++) {
+			futures.add(submit("user_1", "queued " + i));
+		}
+
+		Thread stopper = new Thread(() -> {
+			try {
+				buffer.stop();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		stopper.start();
+		sleep(100);
+		transactions.release.countDown();
+		stopper.join();
+
+		for (CompletableFuture<Journal> future : futures) {
+			assertTrue(future.isDone());
+			assertFalse(future.isCompletedExceptionally());
+		}
+		assertEquals(5, jdbcTemplate.inserts.stream().mapToInt(List::size).sum());
+		assertFalse(buffer.isEnabled());
+		assertNull(buffer.submit(journal("user_1", "too late"), embedding()));
+	}
+
+	// Submits a save and waits until the flusher is stuck in its transaction, alone in its batch
+	private CompletableFuture<Journal> submitBehindStall(String title) throws InterruptedException {
+		CompletableFuture<Journal> future = submit("user_1", title);
+		assertTrue(transactions.stalled.await(5, TimeUnit.SECONDS));
+		return future;
+	}
+
+	private CompletableFuture<Journal> submit(String userId, String title) {
+		CompletableFuture<Journal> future = buffer.submit(journal(userId, title), embedding());
+		assertNotNull(future);
+		return future;
+	}
+
+	private static Journal journal(String userId, String title) {
+		Journal journal = new Journal(new User(userId, userId + "@example.com"), title, "<p>" + title + "</p>",
+				Mood.HAPPY, null);
+		LocalDateTime now = LocalDateTime.now();
+		journal.setWordCount(2);
+		journal.setExcerpt(title);
+		journal.setCreatedAt(now);
+		journal.setUpdatedAt(now);
+		return journal;
+	}
+
+	private static float[] embedding() {
+		return new float[JournalEmbedder.DIMENSIONS];
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Keeps the titles of each inserted batch; a batch holding FAILING_TITLE breaks a constraint
+	private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+		static final String FAILING_TITLE = "bad";
+
+		final List<List<String>> inserts = new CopyOnWriteArrayList<>();
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> pss) {
+			if (!sql.equals(JournalImportService.INSERT_SQL)) {
+				return new int[][] { new int[batchArgs.size()] };
+			}
+			List<String> titles = new ArrayList<>();
+			for (T row : batchArgs) {
+				String[] title = new String[1];
+				PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+						getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class },
+						(proxy, method, args) -> {
+							if (method.getName().equals("setString") && (int) args[0] == 3) {
+								title[0] = (String) args[1];
+							}
+							return null;
+						});
+				try {
+					pss.setValues(statement, row);
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+				titles.add(title[0]);
+			}
+			if (titles.contains(FAILING_TITLE)) {
+				throw new DataIntegrityViolationException("journals_check");
+			}
+			inserts.add(titles);
+			return new int[][] { new int[titles.size()] };
+		}
+	}
+
+	// The first transaction blocks until release is counted down
+	private static final class StallingTransactionManager implements PlatformTransactionManager {
+
+		final CountDownLatch stalled = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger commits = new AtomicInteger();
+		final AtomicInteger rollbacks = new AtomicInteger();
+
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			stalled.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+			commits.incrementAndGet();
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+			rollbacks.incrementAndGet();
+		}
+	}
+}
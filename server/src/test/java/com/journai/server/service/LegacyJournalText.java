@@ -0,0 +1,62 @@
+package com.journai.server.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The regex chain JournalService used for titles, excerpts and word counts
+ * before {@link JournalTextAnalyzer}. Kept as the reference the analyzer is
+ * checked and benchmarked against.
+ */
+public final class LegacyJournalText {
+
+    private LegacyJournalText() {
+    }
+
+    public static String generateTitle(String text) {
+        // Remove HTML tags
+        String cleanText = text.replaceAll("<[^>]*>", "");
+
+        // Remove markdown formatting
+        cleanText = cleanText
+                .replaceAll("^#{1,6}\\s+", "")
+                .replaceAll("\\*\\*([^*]+)\\*\\*", "$1")
+                .replaceAll("\\*([^*]+)\\*", "$1")
+                .replaceAll("__([^_]+)__", "$1")
+                .replaceAll("_([^_]+)_", "$1")
+                .replaceAll("~~([^~]+)~~", "$1")
+                .replaceAll("```[\\s\\S]*?```", "")
+                .replaceAll("`([^`]+)`", "$1")
+                .replaceAll("\\[([^\\]]+)\\]\\([^)]+\\)", "$1")
+                .replaceAll("^\\s*[-*+]\\s+", "")
+                .replaceAll("^\\s*\\d+\\.\\s+", "")
+                .replaceAll("^\\s*>\\s+", "")
+                .replaceAll("\\s+", " ")
+                .trim();
+
+        String[] words = cleanText.split("\\s+");
+        List<String> titleWords = Arrays.asList(words).subList(0, Math.min(words.length, 8));
+        String title = String.join(" ", titleWords);
+
+        if (title.length() > 50) {
+            title = title.substring(0, 47) + "...";
+        }
+
+        return title.isEmpty() ? "Journal Entry" : title;
+    }
+
+    public static String generateExcerpt(String content) {
+        String textOnly = content.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").trim();
+        return textOnly.length() > 160 ? textOnly.substring(0, 160) : textOnly;
+    }
+
+    public static int calculateWordCount(String content) {
+        if (content == null || content.trim().isEmpty()) {
+            return 0;
+        }
+        // Remove HTML tags and count words
+        String textOnly = content.replaceAll("<[^>]*>", " ");
+        String[] words = textOnly.trim().split("\\s+");
+        return words.length;
+    }
+}
@@ -0,0 +1,130 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.journai.server.config.AppProperties;
+
+class SimilarityIndexTests {
+
+	private final JournalEmbedder embedder = new JournalEmbedder();
+
+	@Test
+	void doesNotCacheLoadThatRacedWithWriteOrEviction() {
+		SimilarityIndex index = new SimilarityIndex();
+		ReflectionTestUtils.setField(index, "appProperties", new AppProperties());
+
+		// A save commits while the set is being read: the stale set must not become resident
+		SimilarityIndex.VectorSet stale = index.get("user_1", userId -> {
+			index.beginWrite(userId);
+			index.completeWrite(userId);
+			return emptySet();
+		});
+		assertNotSame(stale, index.get("user_1", userId -> emptySet()));
+
+		SimilarityIndex.VectorSet evicted = index.get("user_2", userId -> {
+			index.evict(userId);
+			return emptySet();
+		});
+		assertNotSame(evicted, index.get("user_2", userId -> emptySet()));
+
+		SimilarityIndex.VectorSet cached = index.get("user_3", userId -> emptySet());
+		assertSame(cached, index.get("user_3", userId -> null));
+	}
+
+	@Test
+	void ranksEntriesWithSharedVocabularyFirst() {
+		SimilarityIndex.VectorSet vectors = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, 4);
+		vectors.put("walk", embedder.embed("<p>Walked the dog through the park before work</p>"));
+		vectors.put("exam", embedder.embed("<p>Anxious about tomorrow's chemistry exam, barely slept</p>"));
+		vectors.put("dog", embedder.embed("<p>Long walks in the park with my dog are the best</p>"));
+
+		SimilarityIndex.Neighbours neighbours = vectors.search(vectors.vectorOf("walk"), 2, "walk");
+
+		assertArrayEquals(new String[] { "dog", "exam" }, neighbours.ids);
+		assertTrue(neighbours.scores[0] > neighbours.scores[1]);
+	}
+
+	@Test
+	void replacesAndRemovesById() {
+		SimilarityIndex.VectorSet vectors = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, 2);
+		assertEquals(1, vectors.put("a", embedder.embed("first draft")));
+		assertEquals(0, vectors.put("a", embedder.embed("second draft")));
+		assertEquals(-1, vectors.remove("a"));
+		assertEquals(0, vectors.remove("a"));
+		assertNull(vectors.vectorOf("a"));
+		assertEquals(0, vectors.size());
+	}
+
+	@Test
+	void keepsTheSlotOfAReplacedId() {
+		Random random = new Random(5);
+		SimilarityIndex.VectorSet vectors = randomSet(random, 3000);
+		vectors.search(vectors.vectorOf("j0"), 1, null);
+		assertTrue(vectors.isIvf());
+
+		// An editing session: every autosave re-puts the draft's vector
+		float[] latest = null;
+		for (int i = 0; i < 500; i++) {
+			latest = randomVector(random);
+			assertEquals(0, vectors.put("j7", latest));
+		}
+
+		assertEquals(3000, vectors.slotCount());
+		assertEquals(3000, vectors.size());
+		assertArrayEquals(latest, vectors.vectorOf("j7"));
+		assertArrayEquals(new String[] { "j7" }, vectors.search(latest, 1, null).ids);
+	}
+
+	@Test
+	void ivfFindsExactNeighbourOfStoredVector() {
+		SimilarityIndex.VectorSet vectors = randomSet(new Random(3), 3000);
+		float[] duplicate = vectors.vectorOf("j42");
+		vectors.put("copy", duplicate);
+
+		SimilarityIndex.Neighbours neighbours = vectors.search(duplicate, 1, "j42");
+
+		assertTrue(vectors.isIvf());
+		assertArrayEquals(new String[] { "copy" }, neighbours.ids);
+	}
+
+	private static SimilarityIndex.VectorSet randomSet(Random random, int size) {
+		SimilarityIndex.VectorSet vectors = new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, size);
+		for (int i = 0; i < size; i++) {
+			vectors.put("j" + i, randomVector(random));
+		}
+		return vectors;
+	}
+
+	private static float[] randomVector(Random random) {
+		float[] vector = new float[JournalEmbedder.DIMENSIONS];
+		for (int d = 0; d < vector.length; d++) {
+			vector[d] = (float) random.nextGaussian();
+		}
+		return normalize(vector);
+	}
+
+	private static SimilarityIndex.VectorSet emptySet() {
+		return new SimilarityIndex.VectorSet(JournalEmbedder.DIMENSIONS, 1);
+	}
+
+	private static float[] normalize(float[] vector) {
+		double sum = 0;
+		for (float value : vector) {
+			sum += value * value;
+		}
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] /= (float) Math.sqrt(sum);
+		}
+		return vector;
+	}
+}
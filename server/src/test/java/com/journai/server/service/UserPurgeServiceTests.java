@@ -0,0 +1,120 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Purges run in batches and can be resumed: a purge whose worker died part
+ * way is finished by the next one, and the user row outlives its journals.
+ *
+ * Needs a scratch Postgres database, which is migrated on startup:
+ * PURGE_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_purges mvn test -Dtest=UserPurgeServiceTests
+ */
+@EnabledIfEnvironmentVariable(named = "PURGE_DATABASE_URL", matches = ".+")
+@SpringBootTest(properties = { "app.purge.batch-size=10", "app.purge.batch-pause-millis=0",
+		"app.purge.poll-interval=3600000" })
+class UserPurgeServiceTests {
+
+	private static final String USER_ID = "purge_user";
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("PURGE_DATABASE_URL"));
+		registry.add("spring.datasource.username",
+				() -> System.getenv().getOrDefault("PURGE_DATABASE_USERNAME", "postgres"));
+		registry.add("spring.datasource.password",
+				() -> System.getenv().getOrDefault("PURGE_DATABASE_PASSWORD", "postgres"));
+	}
+
+	@Autowired
+	private UserPurgeService userPurgeService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createUserWithJournals() {
+		jdbcTemplate.update("INSERT INTO users (id, email, created_at, updated_at) VALUES (?, ?, now(), now())"
+				+ " ON CONFLICT (id) DO NOTHING", USER_ID, USER_ID + "@example.com");
+		jdbcTemplate.update("""
+				INSERT INTO journals (id, user_id, title, content, mood, created_at, updated_at)
+				SELECT gen_random_uuid(), ?, 'Entry ' || g, '<p>entry</p>', 'NEUTRAL',
+				       now() - (g || ' minutes')::interval, now()
+				FROM generate_series(1, 25) AS g
+				""", USER_ID);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM journals WHERE user_id = ?", USER_ID);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", USER_ID);
+		jdbcTemplate.update("DELETE FROM user_purges WHERE user_id = ?", USER_ID);
+	}
+
+	@Test
+	void deletesJournalsInBatchesThenTheUser() {
+		userPurgeService.requestPurge(USER_ID);
+		userPurgeService.requestPurge(USER_ID);
+		userPurgeService.processPurges();
+
+		assertEquals(0, count("SELECT count(*) FROM journals WHERE user_id = ?"));
+		assertEquals(0, count("SELECT count(*) FROM users WHERE id = ?"));
+		Map<String, Object> purge = purge();
+		assertEquals(25L, purge.get("journals_deleted"));
+		assertNotNull(purge.get("completed_at"));
+	}
+
+	@Test
+	void resumesAPurgeWhoseLeaseLapsed() {
+		// As left by a worker that died after its first batch
+		userPurgeService.requestPurge(USER_ID);
+		jdbcTemplate.update("""
+				DELETE FROM journals WHERE (id, created_at) IN (
+				    SELECT id, created_at FROM journals WHERE user_id = ? ORDER BY created_at LIMIT 10)
+				""", USER_ID);
+		jdbcTemplate.update("UPDATE user_purges SET journals_deleted = 10, locked_until = now() + interval '1 hour'"
+				+ " WHERE user_id = ?", USER_ID);
+
+		userPurgeService.processPurges();
+		assertEquals(15, count("SELECT count(*) FROM journals WHERE user_id = ?"));
+		assertNull(purge().get("completed_at"));
+
+		jdbcTemplate.update("UPDATE user_purges SET locked_until = now() - interval '1 second' WHERE user_id = ?",
+				USER_ID);
+		userPurgeService.processPurges();
+		assertEquals(0, count("SELECT count(*) FROM journals WHERE user_id = ?"));
+		assertEquals(0, count("SELECT count(*) FROM users WHERE id = ?"));
+		assertEquals(25L, purge().get("journals_deleted"));
+	}
+
+	@Test
+	void keepsTheUserWhileJournalsRemain() {
+		assertFalse(userService.deleteUser(USER_ID));
+		assertEquals(1, count("SELECT count(*) FROM users WHERE id = ?"));
+	}
+
+	private long count(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class, USER_ID);
+	}
+
+	private Map<String, Object> purge() {
+		return jdbcTemplate.queryForMap("SELECT * FROM user_purges WHERE user_id = ?", USER_ID);
+	}
+}
@@ -0,0 +1,101 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * A user's webhook events are applied by their Clerk updated_at, whatever
+ * their Svix timestamps: events signed in the same second all apply, in
+ * order, and an older event retried later does not undo a newer one.
+ *
+ * Needs a scratch Postgres database, which is migrated on startup:
+ * WEBHOOK_DATABASE_URL=jdbc:postgresql://localhost:5432/journai_webhooks mvn test -Dtest=WebhookInboxOrderingTests
+ */
+@EnabledIfEnvironmentVariable(named = "WEBHOOK_DATABASE_URL", matches = ".+")
+@SpringBootTest(properties = "app.webhooks.poll-interval=3600000")
+class WebhookInboxOrderingTests {
+
+	private static final String USER_ID = "user_webhook_ordering";
+
+	// Clerk's updated_at of the user's first state, epoch milliseconds
+	private static final long CREATED = 1_760_000_000_000L;
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("WEBHOOK_DATABASE_URL"));
+		registry.add("spring.datasource.username",
+				() -> System.getenv().getOrDefault("WEBHOOK_DATABASE_USERNAME", "postgres"));
+		registry.add("spring.datasource.password",
+				() -> System.getenv().getOrDefault("WEBHOOK_DATABASE_PASSWORD", "postgres"));
+	}
+
+	@Autowired
+	private WebhookInboxService webhookInboxService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM webhook_inbox WHERE event_id LIKE 'msg_ordering_%'");
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", USER_ID);
+	}
+
+	@Test
+	void appliesEventsSentInTheSameSecond() {
+		Instant signed = Instant.ofEpochSecond(CREATED / 1000);
+		enqueue("msg_ordering_1", "user.created", signed, "Sam", CREATED);
+		enqueue("msg_ordering_2", "user.updated", signed, "Sam Rivera", CREATED + 400);
+
+		webhookInboxService.processInbox();
+
+		assertEquals("Sam Rivera", name());
+		assertEquals(0, pending());
+	}
+
+	@Test
+	void keepsTheNewerStateWhenAnOlderEventIsRetried() {
+		Instant signed = Instant.ofEpochSecond(CREATED / 1000);
+		enqueue("msg_ordering_1", "user.created", signed, "Sam", CREATED);
+		enqueue("msg_ordering_2", "user.updated", signed.plusSeconds(5), "Sam Rivera", CREATED + 5_000);
+		webhookInboxService.processInbox();
+
+		// A delivery of the first rename that failed, re-signed by Svix a minute later
+		enqueue("msg_ordering_3", "user.updated", signed.plusSeconds(60), "Sam R", CREATED + 2_000);
+		webhookInboxService.processInbox();
+
+		assertEquals("Sam Rivera", name());
+		assertEquals(0, pending());
+	}
+
+	private void enqueue(String eventId, String type, Instant signed, String firstName, long updatedAt) {
+		String payload = """
+				{"type": "%s", "data": {"id": "%s", "first_name": "%s", "updated_at": %d,
+				 "primary_email_address_id": "idn_1",
+				 "email_addresses": [{"id": "idn_1", "email_address": "sam@example.org"}]}}
+				""".formatted(type, USER_ID, firstName, updatedAt);
+		webhookInboxService.enqueue(eventId, type, signed, payload);
+	}
+
+	private String name() {
+		return jdbcTemplate.queryForObject("SELECT name FROM users WHERE id = ?", String.class, USER_ID);
+	}
+
+	private long pending() {
+		return jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM webhook_inbox WHERE event_id LIKE 'msg_ordering_%' AND processed_at IS NULL",
+				Long.class);
+	}
+}
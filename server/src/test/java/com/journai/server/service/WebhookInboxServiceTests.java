@@ -0,0 +1,49 @@
+package com.journai.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.journai.server.dto.ClerkWebhookEvent;
+
+class WebhookInboxServiceTests {
+
+	@Test
+	void parsesUserEventsSkippingUnknownFields() throws Exception {
+		String payload = """
+				{"object": "event", "type": "user.updated", "timestamp": 1654012591835,
+				 "data": {"id": "user_29w83sxmDNGwOuEthce5gg56FcC", "first_name": "Example", "last_name": null,
+				          "image_url": "https://img.clerk.com/x", "primary_email_address_id": "idn_2",
+				          "email_addresses": [
+				            {"id": "idn_1", "email_address": "old@example.org", "verification": {"status": "verified"}},
+				            {"id": "idn_2", "email_address": "example@example.org", "linked_to": []}],
+				          "public_metadata": {"nested": {"deeply": [1, 2, 3]}}, "phone_numbers": []}}
+				""";
+
+		ClerkWebhookEvent event = WebhookInboxService.parse(payload.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("user.updated", event.getType());
+		assertEquals("user_29w83sxmDNGwOuEthce5gg56FcC", event.getData().getId());
+		assertEquals("example@example.org", event.getData().getPrimaryEmail());
+		assertEquals("Example", event.getData().getFullName());
+		assertEquals("https://img.clerk.com/x", event.getData().getImageUrl());
+	}
+
+	@Test
+	void parsesDeletedEventsWithoutProfile() throws Exception {
+		String payload = """
+				{"type": "user.deleted", "data": {"id": "user_29wBMCtzATuFJut8jO2VNTVekS4", "deleted": true,
+				 "object": "user"}}
+				""";
+
+		ClerkWebhookEvent event = WebhookInboxService.parse(payload.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("user.deleted", event.getType());
+		assertEquals("user_29wBMCtzATuFJut8jO2VNTVekS4", event.getData().getId());
+		assertNull(event.getData().getPrimaryEmail());
+		assertNull(event.getData().getFullName());
+	}
+}
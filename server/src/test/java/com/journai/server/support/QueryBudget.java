@@ -0,0 +1,29 @@
+package com.journai.server.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Fails the test if its body runs more SQL statements than the budget, as
+ * counted by SqlStatementCounter on the test's thread (which includes
+ * MockMvc requests). Setup and teardown methods are not counted. The
+ * failure lists the statements, so an N+1 shows up as a repeated one.
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;QueryBudget(2)
+ * void savesJournal() { ... }
+ * </pre>
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+	/** The most statements the test may run. */
+	int value();
+}
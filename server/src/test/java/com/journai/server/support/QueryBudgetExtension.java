@@ -0,0 +1,41 @@
+package com.journai.server.support;
+
+import java.util.List;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import com.journai.server.config.SqlStatementCounter;
+
+class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+			.create(QueryBudgetExtension.class);
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		context.getStore(NAMESPACE).put("start", SqlStatementCounter.current());
+		SqlStatementCounter.startRecording();
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		List<String> statements = SqlStatementCounter.stopRecording();
+		long used = SqlStatementCounter.current() - context.getStore(NAMESPACE).get("start", Long.class);
+		int budget = budget(context);
+		if (used > budget && context.getExecutionException().isEmpty()) {
+			throw new AssertionFailedError("Ran " + used + " SQL statements, budget is " + budget + ":\n  "
+					+ String.join("\n  ", statements), budget, used);
+		}
+	}
+
+	private static int budget(ExtensionContext context) {
+		return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+				.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+				.orElseThrow()
+				.value();
+	}
+}
@@ -0,0 +1,44 @@
+-- Seeds 100k journals for one user and times the search query.
+-- psql "$DATABASE_URL" -f src/test/resources/db/search-benchmark.sql
+-- Run against a scratch database: it inserts rows and does not clean up.
+
+INSERT INTO users (id, email, created_at, updated_at)
+VALUES ('bench_user', 'bench@example.com', now(), now())
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO journals (id, user_id, title, content, mood, summary, word_count, created_at, updated_at)
+SELECT gen_random_uuid(),
+       'bench_user',
+       'Entry ' || g,
+       '<p>' || (ARRAY['walked the dog in the park', 'long meeting about the quarterly roadmap',
+                       'cooked pasta with friends', 'felt anxious before the exam',
+                       'quiet evening reading a novel'])[1 + g % 5]
+             || ' ' || repeat('ordinary day filler words ', 40) || '</p>',
+       (ARRAY['HAPPY', 'SAD', 'ANXIOUS', 'NEUTRAL', 'CONTENT'])[1 + g % 5],
+       'Summary for entry ' || g,
+       200,
+       now() - (g || ' minutes')::interval,
+       now()
+FROM generate_series(1, 100000) AS g;
+
+ANALYZE journals;
+
+\timing on
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT j.id, ts_headline('english', regexp_replace(j.content, '<[^>]*>', ' ', 'g'),
+                         websearch_to_tsquery('english', 'roadmap meeting'),
+                         'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MinWords=5, MaxWords=20'),
+       page.rank
+FROM (
+    SELECT s.id, ts_rank(s.search_vector, q) AS rank
+    FROM journals s, websearch_to_tsquery('english', 'roadmap meeting') q
+    WHERE s.user_id = 'bench_user'
+      AND s.search_vector @@ q
+      AND (ts_rank(s.search_vector, q) < CAST(3.4e38 AS real)
+           OR (ts_rank(s.search_vector, q) = CAST(3.4e38 AS real) AND s.id < ''))
+    ORDER BY rank DESC, s.id DESC
+    LIMIT 21
+) page
+JOIN journals j ON j.id = page.id
+ORDER BY page.rank DESC, page.id DESC;
@@ -0,0 +1,54 @@
+-- Insert rate and primary key size at 10M rows: varchar random (v4) ids, as
+-- journals used to have, against native time-ordered (v7) uuid ids.
+-- psql "$DATABASE_URL" -f src/test/resources/db/uuid-benchmark.sql
+-- Uses scratch tables and drops them afterwards; expect several minutes.
+
+-- Same layout UuidV7 produces: 48-bit millisecond timestamp, version 7, variant 10
+CREATE OR REPLACE FUNCTION pg_temp.uuid_v7(ts timestamptz) RETURNS uuid AS $$
+    SELECT encode(
+        set_bit(set_bit(
+            overlay(uuid_send(gen_random_uuid())
+                    PLACING substring(int8send((extract(epoch FROM ts) * 1000)::bigint) FROM 3)
+                    FROM 1 FOR 6),
+            52, 1), 53, 1),
+        'hex')::uuid
+$$ LANGUAGE sql VOLATILE;
+
+DROP TABLE IF EXISTS bench_ids_v4, bench_ids_v7;
+CREATE UNLOGGED TABLE bench_ids_v4 (id varchar(255) PRIMARY KEY, user_id varchar(255), created_at timestamp);
+CREATE UNLOGGED TABLE bench_ids_v7 (id uuid PRIMARY KEY, user_id varchar(255), created_at timestamp);
+
+\timing on
+
+-- Ten batches of 1M rows each, so later batches insert into a large index
+SELECT 'v4 varchar' AS ids;
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v4 SELECT gen_random_uuid()::text, 'bench_user', now() FROM generate_series(1, 1000000);
+
+SELECT 'v7 uuid' AS ids;
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+INSERT INTO bench_ids_v7 SELECT pg_temp.uuid_v7(clock_timestamp()), 'bench_user', now() FROM generate_series(1, 1000000);
+
+\timing off
+
+SELECT 'bench_ids_v4_pkey' AS index, pg_size_pretty(pg_relation_size('bench_ids_v4_pkey')) AS size
+UNION ALL
+SELECT 'bench_ids_v7_pkey', pg_size_pretty(pg_relation_size('bench_ids_v7_pkey'));
+
+DROP TABLE bench_ids_v4, bench_ids_v7;